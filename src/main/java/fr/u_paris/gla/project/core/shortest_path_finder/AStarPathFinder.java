@@ -0,0 +1,128 @@
+package fr.u_paris.gla.project.core.shortest_path_finder;
+
+import java.util.List;
+
+/**
+ * A utility class for the A* shortest path algorithm. It explores the nodes by
+ * increasing value of the distance from the sources plus an estimate of the
+ * remaining distance, so that the search heads towards the targets and visits
+ * fewer nodes than {@link DijkstraPathFinder}, while finding paths of the same cost
+ * as long as the heuristic is admissible and consistent.
+ *
+ * @see IHeuristic
+ * @see GPSHeuristic
+ */
+public class AStarPathFinder {
+
+	/** Hidden constructor */
+	private AStarPathFinder() {}
+
+	/**
+	 * Computes a shortest path between two nodes of a graph whose nodes are located,
+	 * guided by the {@link GPSHeuristic}. Like
+	 * {@link DijkstraPathFinder#computeShortestPath(IGraph, INode, INode)}, it returns
+	 * null when the target cannot be reached.
+	 *
+	 * @param graph the graph
+	 * @param source the source node
+	 * @param target the target node
+	 * @return the shortest path, or null if there is none
+	 * @throws NodeNotFoundException if the graph does not contain the source or the target
+	 */
+	public static List<INode> computeShortestPath(IGraph graph, INode source, INode target)
+			throws NodeNotFoundException {
+
+		if ((graph == null) || (source == null) || (target == null))
+			throw new IllegalArgumentException();
+
+		RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+		int sourceIndex = routingGraph.indexOf(source);
+		int targetIndex = routingGraph.indexOf(target);
+
+		if ((sourceIndex == -1) || (targetIndex == -1))
+			throw new NodeNotFoundException("The graph does not contain either the source or the target node (or both)");
+
+		int[] targets = {targetIndex};
+		try {
+			return computeShortestPath(routingGraph, new int[] {sourceIndex}, targets,
+					new GPSHeuristic(routingGraph).towards(targets)).getNodes();
+		} catch (PathNotFoundException exception) {
+			return null;
+		}
+	}
+
+	/**
+	 * Computes a shortest path from any of the source nodes to any of the target nodes
+	 * of a {@link RoutingGraph}, guided by a heuristic towards the targets.
+	 *
+	 * @param graph the CSR snapshot to search
+	 * @param sources the indices of the source nodes
+	 * @param targets the indices of the target nodes
+	 * @param heuristic a consistent lower bound of the distance to the targets
+	 * @return the shortest path and its cost
+	 * @throws NodeNotFoundException if one of the indices does not belong to the graph
+	 * @throws PathNotFoundException if none of the targets can be reached from the sources
+	 */
+	public static RoutingPath computeShortestPath(RoutingGraph graph, int[] sources, int[] targets,
+			IHeuristic heuristic) throws NodeNotFoundException, PathNotFoundException {
+
+		if ((graph == null) || (sources == null) || (targets == null) || (heuristic == null))
+			throw new IllegalArgumentException();
+		if ((sources.length == 0) || (targets.length == 0))
+			throw new IllegalArgumentException("Error : There must be at least one source and one target");
+
+		SearchWorkspace workspace = SearchWorkspace.acquire(graph.getNodeCount());
+		try {
+			return computeShortestPath(graph, sources, targets, heuristic, workspace.forward());
+		} finally {
+			workspace.release();
+		}
+	}
+
+	private static RoutingPath computeShortestPath(RoutingGraph graph, int[] sources, int[] targets,
+			IHeuristic heuristic, SearchWorkspace.Labels labels) throws NodeNotFoundException, PathNotFoundException {
+
+		for (int target : targets) {
+			graph.checkNode(target);
+			labels.markTarget(target);
+		}
+
+		// The labels keep the length of the shortest known path from the sources to each node,
+		// and the nodes are queued by that length plus their estimated distance to the targets
+		IndexedMinHeap priorityQueue = labels.queue();
+		for (int source : sources) {
+			graph.checkNode(source);
+			labels.reach(source, 0, -1, 0);
+			priorityQueue.insertOrDecrease(source, heuristic.estimate(source));
+		}
+
+		// The components tell at once that no target can be reached, without exploring the graph
+		if (! graph.getComponents().mayReach(sources, targets))
+			throw new PathNotFoundException("Cannot find the shortest path");
+
+		while (! priorityQueue.isEmpty()) {
+
+			int current = priorityQueue.poll();
+			labels.settle(current);
+			int currentDistance = labels.getDistance(current);
+
+			// With a consistent heuristic, the first target visited is the closest one
+			if (labels.isTarget(current)) {
+				return DijkstraPathFinder.extractShortestPath(graph, labels, current, currentDistance);
+			}
+
+			for (int edge = graph.getFirstEdge(current), limit = graph.getEdgeLimit(current); edge < limit; edge++) {
+				int neighbor = graph.getTarget(edge);
+				int neighborDistance = currentDistance + graph.getCost(edge);
+
+				if ((! labels.isSettled(neighbor)) && (neighborDistance < labels.getDistance(neighbor))) {
+					labels.reach(neighbor, neighborDistance, current, 0);
+					priorityQueue.insertOrDecrease(neighbor, neighborDistance + heuristic.estimate(neighbor));
+				}
+			}
+		}
+
+		throw new PathNotFoundException("Cannot find the shortest path");
+	}
+
+}
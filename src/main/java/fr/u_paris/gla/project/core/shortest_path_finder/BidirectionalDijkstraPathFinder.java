@@ -0,0 +1,205 @@
+package fr.u_paris.gla.project.core.shortest_path_finder;
+
+import java.util.List;
+
+/**
+ * A utility class for a bidirectional Dijkstra shortest path algorithm. A forward
+ * search grows from the sources along the outgoing arrows while a backward search
+ * grows from the targets along the incoming arrows, each step advancing the frontier
+ * with the smaller radius. Every node reached by both searches gives a candidate path,
+ * and the search stops once the two radii add up to more than the best candidate,
+ * since no path through an unvisited node can be shorter.
+ *
+ * Both frontiers stay around half the length of the path, so on long trips it visits
+ * far fewer nodes than {@link DijkstraPathFinder}, while returning a path of the same cost.
+ * Among the paths of that cost, the one with the fewest arrows is preferred.
+ */
+public class BidirectionalDijkstraPathFinder {
+
+	/** Hidden constructor */
+	private BidirectionalDijkstraPathFinder() {}
+
+	/**
+	 * Computes a shortest path between two nodes of a graph. Like
+	 * {@link DijkstraPathFinder#computeShortestPath(IGraph, INode, INode)}, it returns
+	 * null when the target cannot be reached.
+	 *
+	 * @param graph the graph
+	 * @param source the source node
+	 * @param target the target node
+	 * @return the shortest path, or null if there is none
+	 * @throws NodeNotFoundException if the graph does not contain the source or the target
+	 */
+	public static List<INode> computeShortestPath(IGraph graph, INode source, INode target)
+			throws NodeNotFoundException {
+
+		if ((graph == null) || (source == null) || (target == null))
+			throw new IllegalArgumentException();
+
+		RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+		int sourceIndex = routingGraph.indexOf(source);
+		int targetIndex = routingGraph.indexOf(target);
+
+		if ((sourceIndex == -1) || (targetIndex == -1))
+			throw new NodeNotFoundException("The graph does not contain either the source or the target node (or both)");
+
+		try {
+			return computeShortestPath(routingGraph, new int[] {sourceIndex}, new int[] {targetIndex}).getNodes();
+		} catch (PathNotFoundException exception) {
+			return null;
+		}
+	}
+
+	/**
+	 * Computes a shortest path from any of the source nodes to any of the target nodes
+	 * of a {@link RoutingGraph}: all the sources start the forward search at distance 0,
+	 * and all the targets start the backward search at distance 0.
+	 *
+	 * @param graph the CSR snapshot to search
+	 * @param sources the indices of the source nodes
+	 * @param targets the indices of the target nodes
+	 * @return the shortest path and its cost
+	 * @throws NodeNotFoundException if one of the indices does not belong to the graph
+	 * @throws PathNotFoundException if none of the targets can be reached from the sources
+	 */
+	public static RoutingPath computeShortestPath(RoutingGraph graph, int[] sources, int[] targets)
+			throws NodeNotFoundException, PathNotFoundException {
+
+		if ((graph == null) || (sources == null) || (targets == null))
+			throw new IllegalArgumentException();
+		if ((sources.length == 0) || (targets.length == 0))
+			throw new IllegalArgumentException("Error : There must be at least one source and one target");
+
+		for (int source : sources) graph.checkNode(source);
+		for (int target : targets) graph.checkNode(target);
+
+		// The components tell at once that no target can be reached, without exploring the graph
+		if (! graph.getComponents().mayReach(sources, targets))
+			throw new PathNotFoundException("Cannot find the shortest path");
+
+		SearchWorkspace workspace = SearchWorkspace.acquire(graph.getNodeCount());
+		try {
+			return computeShortestPath(graph, sources, targets, workspace.forward(), workspace.backward());
+		} finally {
+			workspace.release();
+		}
+	}
+
+	private static RoutingPath computeShortestPath(RoutingGraph graph, int[] sources, int[] targets,
+			SearchWorkspace.Labels forward, SearchWorkspace.Labels backward) throws PathNotFoundException {
+
+		// The forward search keeps the parent of each node, the backward search the
+		// node that follows it towards the targets. The hops count the arrows of these paths.
+		IndexedMinHeap forwardQueue = forward.queue();
+		IndexedMinHeap backwardQueue = backward.queue();
+
+		// Best path found so far, through the meeting node
+		int meeting = -1;
+		int bestCost = Integer.MAX_VALUE;
+		int bestHops = Integer.MAX_VALUE;
+
+		for (int source : sources) {
+			reach(forward, source, 0, -1, 0);
+		}
+		for (int target : targets) {
+			reach(backward, target, 0, -1, 0);
+			if (forward.getDistance(target) == 0) {
+				meeting = target;
+				bestCost = 0;
+				bestHops = 0;
+			}
+		}
+
+		while (! forwardQueue.isEmpty() || ! backwardQueue.isEmpty()) {
+
+			// Stop when no path through a node left in the queues can beat the best one
+			if (meeting != -1) {
+				if (forwardQueue.isEmpty() || backwardQueue.isEmpty()) {
+					IndexedMinHeap remaining = forwardQueue.isEmpty() ? backwardQueue : forwardQueue;
+					if (remaining.peekKey() > bestCost) break;
+				} else if ((long) forwardQueue.peekKey() + backwardQueue.peekKey() > bestCost) {
+					break;
+				}
+			}
+
+			boolean isForward = backwardQueue.isEmpty()
+					|| (! forwardQueue.isEmpty() && (forwardQueue.peekKey() <= backwardQueue.peekKey()));
+			SearchWorkspace.Labels frontier = isForward ? forward : backward;
+			SearchWorkspace.Labels other = isForward ? backward : forward;
+
+			int current = frontier.queue().poll();
+			frontier.settle(current);
+			int currentDistance = frontier.getDistance(current);
+			int currentHops = frontier.getHops(current);
+
+			int first = isForward ? graph.getFirstEdge(current) : graph.getFirstIncoming(current);
+			int limit = isForward ? graph.getEdgeLimit(current) : graph.getIncomingLimit(current);
+			for (int position = first; position < limit; position++) {
+				int edge = isForward ? position : graph.getIncomingEdge(position);
+				int neighbor = isForward ? graph.getTarget(edge) : graph.getSource(edge);
+				if (frontier.isSettled(neighbor)) continue;
+
+				int distance = currentDistance + graph.getCost(edge);
+				if (! reach(frontier, neighbor, distance, current, currentHops + 1)) continue;
+
+				// The neighbor has been reached from the other side too: it joins both searches
+				if (other.isReached(neighbor)) {
+					int cost = distance + other.getDistance(neighbor);
+					int hops = currentHops + 1 + other.getHops(neighbor);
+					if ((cost < bestCost) || ((cost == bestCost) && (hops < bestHops))) {
+						meeting = neighbor;
+						bestCost = cost;
+						bestHops = hops;
+					}
+				}
+			}
+		}
+
+		if (meeting == -1) throw new PathNotFoundException("Cannot find the shortest path");
+
+		return extractShortestPath(graph, forward, backward, meeting, bestCost);
+	}
+
+	/**
+	 * Records a path to a node if it is shorter than the known one, or as short
+	 * with fewer arrows.
+	 *
+	 * @return true if the path has been recorded
+	 */
+	private static boolean reach(SearchWorkspace.Labels labels, int node, int distance, int from, int hops) {
+		if (labels.isReached(node) && ((distance > labels.getDistance(node))
+				|| ((distance == labels.getDistance(node)) && (hops >= labels.getHops(node))))) {
+			return false;
+		}
+		labels.reach(node, distance, from, hops);
+		labels.queue().insertOrDecrease(node, distance);
+		return true;
+	}
+
+	/**
+	 * Joins the path from the sources to the meeting node and the path from the
+	 * meeting node to the targets.
+	 */
+	private static RoutingPath extractShortestPath(RoutingGraph graph, SearchWorkspace.Labels forward,
+			SearchWorkspace.Labels backward, int meeting, int cost) {
+
+		int length = 1;
+		for (int current = meeting; forward.getParent(current) != -1; current = forward.getParent(current)) length++;
+		int forwardLength = length;
+		for (int current = meeting; backward.getParent(current) != -1; current = backward.getParent(current)) length++;
+
+		int[] path = new int[length];
+		int current = meeting;
+		for (int i = forwardLength - 1; i >= 0; i--) {
+			path[i] = current;
+			current = forward.getParent(current);
+		}
+		current = meeting;
+		for (int i = forwardLength; i < length; i++) {
+			current = backward.getParent(current);
+			path[i] = current;
+		}
+
+		return new RoutingPath(graph, path, cost);
+	}
+}
@@ -0,0 +1,186 @@
+package fr.u_paris.gla.project.core.shortest_path_finder;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A bucket queue (Dial's algorithm) of dense integer elements ordered by an integer key.
+ *
+ * During a Dijkstra search the keys of the queued nodes never exceed the key of the
+ * last node removed by more than the cost of the most expensive arrow. With integer
+ * costs of a few minutes, the queue is a circular array of {@code maxCost + 1} buckets,
+ * one per key of that window, each holding a linked list of its elements. Inserting
+ * and lowering a key are O(1), and removing the smallest element only scans the empty
+ * buckets between its key and the previous one, so a whole search scans each key once.
+ * No comparison is made and nothing is allocated.
+ *
+ * Keys must stay monotone: they can never be lower than the key of the last element
+ * removed, nor greater than it by more than {@code maxCost}. This holds for
+ * Dijkstra's algorithm, but not for an A* search in general.
+ *
+ * @see IndexedMinHeap
+ */
+public class BucketQueue implements IMinQueue {
+
+	/** Marker of an element that is not in the queue, or of an empty bucket */
+	private static final int ABSENT = -1;
+
+	private final int maxCost;
+
+	// first[b] is the first element of bucket b, or ABSENT
+	private final int[] first;
+
+	// The elements of a bucket are linked through next and previous
+	private final int[] next;
+	private final int[] previous;
+
+	// bucket[e] is the bucket of element e, or ABSENT
+	private final int[] bucket;
+
+	// key[e] is the current key of element e (only meaningful while e is queued)
+	private final int[] key;
+
+	private int size;
+
+	// Every key in the queue is between cursor and cursor + maxCost,
+	// and cursor is at most the smallest of them
+	private int cursor;
+
+	/**
+	 * Creates an empty queue able to hold the elements {@code 0} to {@code capacity - 1}.
+	 *
+	 * @param capacity the number of distinct elements
+	 * @param maxCost the largest difference between two keys in the queue, typically the cost of the most expensive arrow
+	 */
+	public BucketQueue(int capacity, int maxCost) {
+		if (capacity < 0) throw new IllegalArgumentException("Error : The capacity is negative");
+		if (maxCost < 0) throw new IllegalArgumentException("Error : The maximum cost is negative");
+
+		this.maxCost = maxCost;
+		this.first = new int[maxCost + 1];
+		this.next = new int[capacity];
+		this.previous = new int[capacity];
+		this.bucket = new int[capacity];
+		this.key = new int[capacity];
+		Arrays.fill(this.first, ABSENT);
+		Arrays.fill(this.bucket, ABSENT);
+	}
+
+	@Override
+	public int capacity() {
+		return bucket.length;
+	}
+
+	/**
+	 * @return the largest difference between two keys in the queue
+	 */
+	public int getMaxCost() {
+		return maxCost;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public boolean contains(int element) {
+		return bucket[element] != ABSENT;
+	}
+
+	@Override
+	public int getKey(int element) {
+		if (!contains(element)) throw new NoSuchElementException();
+		return key[element];
+	}
+
+	@Override
+	public int peekKey() {
+		moveCursorToFirstElement();
+		return cursor;
+	}
+
+	@Override
+	public boolean insertOrDecrease(int element, int newKey) {
+		if (newKey < 0) throw new IllegalArgumentException("Error : The key cannot be negative");
+
+		boolean outsideWindow = (newKey < cursor) || (newKey - cursor > maxCost);
+		if (outsideWindow && (size == 0)) {
+			// Nothing to keep in order, the window can start anywhere
+			cursor = newKey;
+		} else if (outsideWindow) {
+			throw new IllegalArgumentException("Error : The key " + newKey
+					+ " is outside of the window of the queue [" + cursor + ", " + (cursor + maxCost) + "]");
+		}
+
+		if (contains(element)) {
+			if (newKey >= key[element]) return false;
+			unlink(element);
+		} else {
+			size++;
+		}
+
+		key[element] = newKey;
+		link(element, newKey % first.length);
+		return true;
+	}
+
+	@Override
+	public int poll() {
+		moveCursorToFirstElement();
+
+		int min = first[cursor % first.length];
+		unlink(min);
+		size--;
+		return min;
+	}
+
+	/**
+	 * Removes every element. Only the buckets of the current window are scanned.
+	 */
+	@Override
+	public void clear() {
+		for (int b = 0; (size > 0) && (b < first.length); b++) {
+			while (first[b] != ABSENT) {
+				unlink(first[b]);
+				size--;
+			}
+		}
+		size = 0;
+	}
+
+	private void moveCursorToFirstElement() {
+		if (size == 0) throw new NoSuchElementException();
+		while (first[cursor % first.length] == ABSENT) {
+			cursor++;
+		}
+	}
+
+	private void link(int element, int b) {
+		int head = first[b];
+		next[element] = head;
+		previous[element] = ABSENT;
+		if (head != ABSENT) previous[head] = element;
+		first[b] = element;
+		bucket[element] = b;
+	}
+
+	private void unlink(int element) {
+		int b = bucket[element];
+		if (previous[element] == ABSENT) {
+			first[b] = next[element];
+		} else {
+			next[previous[element]] = next[element];
+		}
+		if (next[element] != ABSENT) {
+			previous[next[element]] = previous[element];
+		}
+		bucket[element] = ABSENT;
+	}
+
+}
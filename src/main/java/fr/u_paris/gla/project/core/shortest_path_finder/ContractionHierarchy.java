@@ -0,0 +1,638 @@
+package fr.u_paris.gla.project.core.shortest_path_finder;
+
+import java.util.Arrays;
+
+/**
+ * A contraction hierarchy of a {@link RoutingGraph}, which answers shortest path
+ * queries much faster than {@link DijkstraPathFinder} once it has been built.
+ *
+ * The preprocessing contracts the nodes one by one, from the least to the most
+ * important: a node is removed from the graph, and a shortcut arrow is added between
+ * two of its neighbors whenever the path through it was the only shortest one between them.
+ * The order of contraction is the rank of the nodes. A query then only follows arrows
+ * towards nodes of higher rank, forward from the sources and backward from the targets,
+ * and the two searches meet on the most important node of a shortest path. Shortcuts
+ * remember the two arrows they replace, so the path found is unpacked into the arrows of
+ * the original graph, and its cost is the one computed by {@link DijkstraPathFinder}.
+ *
+ * The hierarchy is immutable once built, so it can be shared by concurrent queries.
+ */
+public final class ContractionHierarchy {
+
+	/** Most nodes settled by a witness search before it gives up and adds the shortcut */
+	private static final int WITNESS_SETTLE_LIMIT = 500;
+
+	/** Marks arrows that are not shortcuts */
+	private static final int NO_CHILD = -1;
+
+	private final RoutingGraph graph;
+	private final int[] rank;
+
+	// All the arrows of the hierarchy: the arrows of the graph first, then the shortcuts.
+	// A shortcut replaces the path made of its two children.
+	private final int[] edgeSource;
+	private final int[] edgeTarget;
+	private final int[] edgeCost;
+	private final int[] firstChild;
+	private final int[] secondChild;
+
+	// The arrows leaving u towards higher ranks are upwardEdge[firstUpward[u]] to upwardEdge[firstUpward[u + 1] - 1]
+	private final int[] firstUpward;
+	private final int[] upwardEdge;
+
+	// The arrows entering v from higher ranks are downwardEdge[firstDownward[v]] to downwardEdge[firstDownward[v + 1] - 1]
+	private final int[] firstDownward;
+	private final int[] downwardEdge;
+
+	private ContractionHierarchy(RoutingGraph graph, int[] rank, EdgeList edges) {
+		this.graph = graph;
+		this.rank = rank;
+		this.edgeSource = Arrays.copyOf(edges.source, edges.size);
+		this.edgeTarget = Arrays.copyOf(edges.target, edges.size);
+		this.edgeCost = Arrays.copyOf(edges.cost, edges.size);
+		this.firstChild = Arrays.copyOf(edges.firstChild, edges.size);
+		this.secondChild = Arrays.copyOf(edges.secondChild, edges.size);
+
+		int nodeCount = graph.getNodeCount();
+		this.firstUpward = new int[nodeCount + 1];
+		this.firstDownward = new int[nodeCount + 1];
+		for (int e = 0; e < edges.size; e++) {
+			if (rank[edgeSource[e]] < rank[edgeTarget[e]]) {
+				firstUpward[edgeSource[e] + 1]++;
+			} else if (rank[edgeSource[e]] > rank[edgeTarget[e]]) {
+				firstDownward[edgeTarget[e] + 1]++;
+			}
+		}
+		for (int u = 0; u < nodeCount; u++) {
+			firstUpward[u + 1] += firstUpward[u];
+			firstDownward[u + 1] += firstDownward[u];
+		}
+
+		this.upwardEdge = new int[firstUpward[nodeCount]];
+		this.downwardEdge = new int[firstDownward[nodeCount]];
+		int[] nextUpward = Arrays.copyOf(firstUpward, nodeCount);
+		int[] nextDownward = Arrays.copyOf(firstDownward, nodeCount);
+		for (int e = 0; e < edges.size; e++) {
+			if (rank[edgeSource[e]] < rank[edgeTarget[e]]) {
+				upwardEdge[nextUpward[edgeSource[e]]++] = e;
+			} else if (rank[edgeSource[e]] > rank[edgeTarget[e]]) {
+				downwardEdge[nextDownward[edgeTarget[e]]++] = e;
+			}
+		}
+	}
+
+	/**
+	 * Builds the contraction hierarchy of a graph. The nodes are contracted by increasing
+	 * edge difference (the number of shortcuts the contraction adds minus the number of
+	 * arrows it removes) plus the number of neighbors already contracted, which keeps the
+	 * hierarchy balanced. Priorities are updated lazily: a node is only contracted if it
+	 * is still the least important one once its priority has been recomputed.
+	 *
+	 * @param graph the graph to preprocess
+	 * @return the hierarchy
+	 */
+	public static ContractionHierarchy build(RoutingGraph graph) {
+		if (graph == null) throw new IllegalArgumentException("Error : The graph is null");
+
+		Contractor contractor = new Contractor(graph);
+		int nodeCount = graph.getNodeCount();
+		int[] rank = new int[nodeCount];
+
+		IndexedMinHeap order = new IndexedMinHeap(nodeCount);
+		for (int node = 0; node < nodeCount; node++) {
+			order.insertOrDecrease(node, contractor.contract(node, true));
+		}
+
+		int nextRank = 0;
+		while (! order.isEmpty()) {
+			int node = order.poll();
+			int priority = contractor.contract(node, true);
+			if (! order.isEmpty() && (priority > order.peekKey())) {
+				order.insertOrDecrease(node, priority);
+				continue;
+			}
+			contractor.contract(node, false);
+			rank[node] = nextRank++;
+		}
+
+		return new ContractionHierarchy(graph, rank, contractor.edges);
+	}
+
+	public RoutingGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * @return the number of shortcuts added by the preprocessing
+	 */
+	public int getShortcutCount() {
+		return edgeSource.length - graph.getEdgeCount();
+	}
+
+	/**
+	 * @param node the index of a node
+	 * @return the position of the node in the order of contraction
+	 */
+	public int getRank(int node) {
+		return rank[node];
+	}
+
+	/**
+	 * Computes a shortest path between two nodes of the graph.
+	 *
+	 * @param source the index of the source node
+	 * @param target the index of the target node
+	 * @return the shortest path and its cost
+	 * @throws NodeNotFoundException if one of the indices does not belong to the graph
+	 * @throws PathNotFoundException if the target cannot be reached from the source
+	 */
+	public RoutingPath computeShortestPath(int source, int target)
+			throws NodeNotFoundException, PathNotFoundException {
+
+		return computeShortestPath(new int[] {source}, new int[] {target});
+	}
+
+	/**
+	 * Computes a shortest path from any of the source nodes to any of the target nodes of
+	 * the graph. The upward search from the sources and the upward search from the targets
+	 * each stop once their closest unsettled node is further than the best meeting node.
+	 *
+	 * @param sources the indices of the source nodes
+	 * @param targets the indices of the target nodes
+	 * @return the shortest path and its cost
+	 * @throws NodeNotFoundException if one of the indices does not belong to the graph
+	 * @throws PathNotFoundException if none of the targets can be reached from the sources
+	 */
+	public RoutingPath computeShortestPath(int[] sources, int[] targets)
+			throws NodeNotFoundException, PathNotFoundException {
+
+		if ((sources == null) || (targets == null))
+			throw new IllegalArgumentException();
+		if ((sources.length == 0) || (targets.length == 0))
+			throw new IllegalArgumentException("Error : There must be at least one source and one target");
+
+		for (int source : sources) graph.checkNode(source);
+		for (int target : targets) graph.checkNode(target);
+
+		// The components tell at once that no target can be reached, without exploring the graph
+		if (! graph.getComponents().mayReach(sources, targets))
+			throw new PathNotFoundException("Cannot find the shortest path");
+
+		SearchWorkspace workspace = SearchWorkspace.acquire(graph.getNodeCount());
+		try {
+			return computeShortestPath(sources, targets, workspace.forward(), workspace.backward());
+		} finally {
+			workspace.release();
+		}
+	}
+
+	private RoutingPath computeShortestPath(int[] sources, int[] targets,
+			SearchWorkspace.Labels forward, SearchWorkspace.Labels backward) throws PathNotFoundException {
+
+		// The forward search keeps the arrow it reached each node with, and the backward
+		// search the arrow each node leaves by towards the targets
+		IndexedMinHeap forwardQueue = forward.queue();
+		IndexedMinHeap backwardQueue = backward.queue();
+
+		for (int source : sources) {
+			forward.reach(source, 0, -1, 0);
+			forwardQueue.insertOrDecrease(source, 0);
+		}
+		for (int target : targets) {
+			backward.reach(target, 0, -1, 0);
+			backwardQueue.insertOrDecrease(target, 0);
+		}
+
+		int meeting = -1;
+		int bestCost = Integer.MAX_VALUE;
+
+		while (true) {
+			boolean forwardDone = forwardQueue.isEmpty() || (forwardQueue.peekKey() >= bestCost);
+			boolean backwardDone = backwardQueue.isEmpty() || (backwardQueue.peekKey() >= bestCost);
+			if (forwardDone && backwardDone) break;
+
+			boolean isForward = ! forwardDone
+					&& (backwardDone || (forwardQueue.peekKey() <= backwardQueue.peekKey()));
+			SearchWorkspace.Labels labels = isForward ? forward : backward;
+			SearchWorkspace.Labels other = isForward ? backward : forward;
+
+			int current = labels.queue().poll();
+			int currentDistance = labels.getDistance(current);
+			if (other.isReached(current) && ((long) currentDistance + other.getDistance(current) < bestCost)) {
+				meeting = current;
+				bestCost = currentDistance + other.getDistance(current);
+			}
+
+			int[] first = isForward ? firstUpward : firstDownward;
+			int[] edges = isForward ? upwardEdge : downwardEdge;
+			for (int i = first[current]; i < first[current + 1]; i++) {
+				int edge = edges[i];
+				int neighbor = isForward ? edgeTarget[edge] : edgeSource[edge];
+				int distance = currentDistance + edgeCost[edge];
+				if (distance < labels.getDistance(neighbor)) {
+					labels.reach(neighbor, distance, edge, 0);
+					labels.queue().insertOrDecrease(neighbor, distance);
+				}
+			}
+		}
+
+		if (meeting == -1) throw new PathNotFoundException("Cannot find the shortest path");
+
+		return unpack(forward, backward, meeting, bestCost);
+	}
+
+	/**
+	 * Computes the table of the distances from groups of source nodes to groups of target
+	 * nodes, with the bucket-based many-to-many algorithm. The distance between two groups
+	 * is the shortest from any node of the first one to any node of the second one.
+	 *
+	 * A complete upward search is run backward from each group of targets, and every node
+	 * it settles gets an entry in its bucket with the column of the group and the distance
+	 * to it. A complete upward search is then run forward from each group of sources: every
+	 * shortest path meets on its most important node, so scanning the buckets of the nodes
+	 * it settles gives the whole row. The cost is one upward search per row and per column,
+	 * instead of one search per cell.
+	 *
+	 * @param sources the groups of source nodes, one per row of the table
+	 * @param targets the groups of target nodes, one per column of the table
+	 * @return the distances, {@link Integer#MAX_VALUE} when no target of the group can be reached
+	 * @throws NodeNotFoundException if one of the indices does not belong to the graph
+	 */
+	public int[][] computeDistanceTable(int[][] sources, int[][] targets) throws NodeNotFoundException {
+
+		if ((sources == null) || (targets == null))
+			throw new IllegalArgumentException();
+
+		for (int[] group : sources) for (int source : group) graph.checkNode(source);
+		for (int[] group : targets) for (int target : group) graph.checkNode(target);
+
+		int nodeCount = graph.getNodeCount();
+		int[][] table = new int[sources.length][targets.length];
+		for (int[] row : table) Arrays.fill(row, Integer.MAX_VALUE);
+
+		SearchWorkspace workspace = SearchWorkspace.acquire(nodeCount);
+		try {
+			SearchWorkspace.Labels labels = workspace.forward();
+			int[] settled = new int[nodeCount];
+
+			// The entries of all the buckets, grouped by node afterwards
+			int size = 0;
+			int[] entryNode = new int[16];
+			int[] entryColumn = new int[16];
+			int[] entryDistance = new int[16];
+			for (int column = 0; column < targets.length; column++) {
+				if (column > 0) workspace.restart();
+				int count = searchUpward(targets[column], false, labels, settled);
+				if (size + count > entryNode.length) {
+					int length = Math.max(2 * entryNode.length, size + count);
+					entryNode = Arrays.copyOf(entryNode, length);
+					entryColumn = Arrays.copyOf(entryColumn, length);
+					entryDistance = Arrays.copyOf(entryDistance, length);
+				}
+				for (int i = 0; i < count; i++) {
+					entryNode[size] = settled[i];
+					entryColumn[size] = column;
+					entryDistance[size] = labels.getDistance(settled[i]);
+					size++;
+				}
+			}
+
+			// The entries of the bucket of v are bucketColumn/bucketDistance[firstEntry[v]] to [firstEntry[v + 1] - 1]
+			int[] firstEntry = new int[nodeCount + 1];
+			for (int i = 0; i < size; i++) firstEntry[entryNode[i] + 1]++;
+			for (int v = 0; v < nodeCount; v++) firstEntry[v + 1] += firstEntry[v];
+			int[] bucketColumn = new int[size];
+			int[] bucketDistance = new int[size];
+			int[] nextEntry = Arrays.copyOf(firstEntry, nodeCount);
+			for (int i = 0; i < size; i++) {
+				int position = nextEntry[entryNode[i]]++;
+				bucketColumn[position] = entryColumn[i];
+				bucketDistance[position] = entryDistance[i];
+			}
+
+			for (int row = 0; row < sources.length; row++) {
+				workspace.restart();
+				int count = searchUpward(sources[row], true, labels, settled);
+				int[] distances = table[row];
+				for (int i = 0; i < count; i++) {
+					int node = settled[i];
+					int distance = labels.getDistance(node);
+					for (int position = firstEntry[node]; position < firstEntry[node + 1]; position++) {
+						int total = distance + bucketDistance[position];
+						if (total < distances[bucketColumn[position]]) distances[bucketColumn[position]] = total;
+					}
+				}
+			}
+		} finally {
+			workspace.release();
+		}
+
+		return table;
+	}
+
+	/**
+	 * Runs a complete upward search from a group of nodes, forward along the upward arrows
+	 * or backward along the downward ones.
+	 *
+	 * @param starts the nodes the search starts from, at distance 0
+	 * @param isForward true for a forward search
+	 * @param labels the labels of the search, with their distances set by the search
+	 * @param settled filled with the nodes settled by the search
+	 * @return the number of nodes settled
+	 */
+	private int searchUpward(int[] starts, boolean isForward, SearchWorkspace.Labels labels, int[] settled) {
+		IndexedMinHeap queue = labels.queue();
+		for (int start : starts) {
+			labels.reach(start, 0, -1, 0);
+			queue.insertOrDecrease(start, 0);
+		}
+
+		int[] first = isForward ? firstUpward : firstDownward;
+		int[] edges = isForward ? upwardEdge : downwardEdge;
+		int count = 0;
+		while (! queue.isEmpty()) {
+			int current = queue.poll();
+			settled[count++] = current;
+			int currentDistance = labels.getDistance(current);
+
+			for (int i = first[current]; i < first[current + 1]; i++) {
+				int edge = edges[i];
+				int neighbor = isForward ? edgeTarget[edge] : edgeSource[edge];
+				int distance = currentDistance + edgeCost[edge];
+				if (distance < labels.getDistance(neighbor)) {
+					labels.reach(neighbor, distance, edge, 0);
+					queue.insertOrDecrease(neighbor, distance);
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Replaces the arrows of the hierarchy leading to and from the meeting node by
+	 * the arrows of the graph they stand for.
+	 */
+	private RoutingPath unpack(SearchWorkspace.Labels forward, SearchWorkspace.Labels backward, int meeting, int cost) {
+
+		// The arrows of the hierarchy, in the order of the path
+		int forwardCount = 0;
+		for (int node = meeting; forward.getParent(node) != -1; node = edgeSource[forward.getParent(node)]) forwardCount++;
+		int count = forwardCount;
+		for (int node = meeting; backward.getParent(node) != -1; node = edgeTarget[backward.getParent(node)]) count++;
+
+		int[] hierarchyPath = new int[count];
+		int node = meeting;
+		for (int i = forwardCount - 1; i >= 0; i--) {
+			hierarchyPath[i] = forward.getParent(node);
+			node = edgeSource[hierarchyPath[i]];
+		}
+		int first = node;
+		node = meeting;
+		for (int i = forwardCount; i < count; i++) {
+			hierarchyPath[i] = backward.getParent(node);
+			node = edgeTarget[hierarchyPath[i]];
+		}
+
+		// Each shortcut is expanded in place, its first child before its second one
+		int[] path = new int[2 * count + 1];
+		int length = 0;
+		path[length++] = first;
+		int[] stack = new int[16];
+		for (int edge : hierarchyPath) {
+			int top = 0;
+			stack[top++] = edge;
+			while (top > 0) {
+				int current = stack[--top];
+				if (firstChild[current] == NO_CHILD) {
+					if (length == path.length) path = Arrays.copyOf(path, 2 * length);
+					path[length++] = edgeTarget[current];
+				} else {
+					if (top + 2 > stack.length) stack = Arrays.copyOf(stack, 2 * stack.length);
+					stack[top++] = secondChild[current];
+					stack[top++] = firstChild[current];
+				}
+			}
+		}
+
+		return new RoutingPath(graph, Arrays.copyOf(path, length), cost);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ContractionHierarchy with %d nodes and %d shortcuts", rank.length, getShortcutCount());
+	}
+
+	/**
+	 * A growable list of the arrows of the hierarchy.
+	 */
+	private static final class EdgeList {
+
+		int[] source = new int[16];
+		int[] target = new int[16];
+		int[] cost = new int[16];
+		int[] firstChild = new int[16];
+		int[] secondChild = new int[16];
+		int size;
+
+		int add(int from, int to, int edgeCost, int first, int second) {
+			if (size == source.length) {
+				source = Arrays.copyOf(source, 2 * size);
+				target = Arrays.copyOf(target, 2 * size);
+				cost = Arrays.copyOf(cost, 2 * size);
+				firstChild = Arrays.copyOf(firstChild, 2 * size);
+				secondChild = Arrays.copyOf(secondChild, 2 * size);
+			}
+			source[size] = from;
+			target[size] = to;
+			cost[size] = edgeCost;
+			firstChild[size] = first;
+			secondChild[size] = second;
+			return size++;
+		}
+	}
+
+	/**
+	 * The state of the preprocessing: the arrows between the nodes that have not been
+	 * contracted yet, and the buffers of the witness searches.
+	 */
+	private static final class Contractor {
+
+		final EdgeList edges = new EdgeList();
+		final boolean[] contracted;
+		final int[] contractedNeighbors;
+
+		// Arrows leaving and entering each node, including arrows to contracted nodes
+		int[][] outgoing;
+		int[] outgoingCount;
+		int[][] incoming;
+		int[] incomingCount;
+
+		// Cheapest arrow from each neighbor (in) or to each neighbor (out) of the node being contracted
+		final int[] inEdge;
+		final int[] outEdge;
+		final int[] inNeighbors;
+		final int[] outNeighbors;
+
+		// Witness search, reset through the list of the nodes it has reached
+		final int[] witnessDistance;
+		final int[] reached;
+		final IndexedMinHeap witnessQueue;
+
+		Contractor(RoutingGraph graph) {
+			int nodeCount = graph.getNodeCount();
+			contracted = new boolean[nodeCount];
+			contractedNeighbors = new int[nodeCount];
+			outgoing = new int[nodeCount][];
+			outgoingCount = new int[nodeCount];
+			incoming = new int[nodeCount][];
+			incomingCount = new int[nodeCount];
+			for (int node = 0; node < nodeCount; node++) {
+				outgoing[node] = new int[Math.max(2, graph.getEdgeLimit(node) - graph.getFirstEdge(node))];
+				incoming[node] = new int[Math.max(2, graph.getIncomingLimit(node) - graph.getFirstIncoming(node))];
+			}
+
+			// The arrows of the graph keep their index in the hierarchy
+			for (int e = 0; e < graph.getEdgeCount(); e++) {
+				addEdge(graph.getSource(e), graph.getTarget(e), graph.getCost(e), NO_CHILD, NO_CHILD);
+			}
+
+			inEdge = new int[nodeCount];
+			outEdge = new int[nodeCount];
+			Arrays.fill(inEdge, -1);
+			Arrays.fill(outEdge, -1);
+			inNeighbors = new int[nodeCount];
+			outNeighbors = new int[nodeCount];
+
+			witnessDistance = new int[nodeCount];
+			Arrays.fill(witnessDistance, Integer.MAX_VALUE);
+			reached = new int[nodeCount];
+			witnessQueue = new IndexedMinHeap(nodeCount);
+		}
+
+		private void addEdge(int from, int to, int cost, int first, int second) {
+			int edge = edges.add(from, to, cost, first, second);
+			if (outgoingCount[from] == outgoing[from].length) {
+				outgoing[from] = Arrays.copyOf(outgoing[from], 2 * outgoingCount[from]);
+			}
+			outgoing[from][outgoingCount[from]++] = edge;
+			if (incomingCount[to] == incoming[to].length) {
+				incoming[to] = Arrays.copyOf(incoming[to], 2 * incomingCount[to]);
+			}
+			incoming[to][incomingCount[to]++] = edge;
+		}
+
+		/**
+		 * Contracts a node, or only counts the shortcuts its contraction would need.
+		 *
+		 * @param node the node to contract
+		 * @param simulate true to leave the graph unchanged
+		 * @return the priority of the node
+		 */
+		int contract(int node, boolean simulate) {
+
+			// Cheapest arrow from every remaining in-neighbor and to every remaining out-neighbor
+			int inCount = 0;
+			for (int i = 0; i < incomingCount[node]; i++) {
+				int edge = incoming[node][i];
+				int neighbor = edges.source[edge];
+				if (contracted[neighbor] || (neighbor == node)) continue;
+				if (inEdge[neighbor] == -1) {
+					inNeighbors[inCount++] = neighbor;
+					inEdge[neighbor] = edge;
+				} else if (edges.cost[edge] < edges.cost[inEdge[neighbor]]) {
+					inEdge[neighbor] = edge;
+				}
+			}
+			int outCount = 0;
+			int maxOutCost = 0;
+			for (int i = 0; i < outgoingCount[node]; i++) {
+				int edge = outgoing[node][i];
+				int neighbor = edges.target[edge];
+				if (contracted[neighbor] || (neighbor == node)) continue;
+				if (outEdge[neighbor] == -1) {
+					outNeighbors[outCount++] = neighbor;
+					outEdge[neighbor] = edge;
+				} else if (edges.cost[edge] < edges.cost[outEdge[neighbor]]) {
+					outEdge[neighbor] = edge;
+				}
+			}
+			for (int j = 0; j < outCount; j++) {
+				maxOutCost = Math.max(maxOutCost, edges.cost[outEdge[outNeighbors[j]]]);
+			}
+
+			int shortcutCount = 0;
+			for (int i = 0; i < inCount; i++) {
+				int from = inNeighbors[i];
+				int inCost = edges.cost[inEdge[from]];
+
+				int reachedCount = witnessSearch(from, node, inCost + maxOutCost);
+				for (int j = 0; j < outCount; j++) {
+					int to = outNeighbors[j];
+					if (to == from) continue;
+
+					// The path through the node is needed unless a path as short avoids it
+					int viaCost = inCost + edges.cost[outEdge[to]];
+					if (witnessDistance[to] > viaCost) {
+						shortcutCount++;
+						if (! simulate) {
+							addEdge(from, to, viaCost, inEdge[from], outEdge[to]);
+						}
+					}
+				}
+				for (int k = 0; k < reachedCount; k++) {
+					witnessDistance[reached[k]] = Integer.MAX_VALUE;
+				}
+			}
+
+			for (int i = 0; i < inCount; i++) inEdge[inNeighbors[i]] = -1;
+			for (int j = 0; j < outCount; j++) outEdge[outNeighbors[j]] = -1;
+
+			if (! simulate) {
+				contracted[node] = true;
+				for (int i = 0; i < inCount; i++) contractedNeighbors[inNeighbors[i]]++;
+				for (int j = 0; j < outCount; j++) contractedNeighbors[outNeighbors[j]]++;
+			}
+
+			return shortcutCount - inCount - outCount + contractedNeighbors[node];
+		}
+
+		/**
+		 * Searches the remaining graph from a node without going through the node being
+		 * contracted, up to a distance limit or a number of settled nodes. Nodes that
+		 * are not settled keep an upper bound of their distance, which can only add
+		 * shortcuts that are not needed, never miss one.
+		 *
+		 * @return the number of nodes whose distance has to be reset
+		 */
+		private int witnessSearch(int source, int avoided, int limit) {
+			int reachedCount = 0;
+			witnessDistance[source] = 0;
+			reached[reachedCount++] = source;
+			witnessQueue.insertOrDecrease(source, 0);
+
+			int settled = 0;
+			while (! witnessQueue.isEmpty()) {
+				if ((witnessQueue.peekKey() > limit) || (settled == WITNESS_SETTLE_LIMIT)) break;
+
+				int current = witnessQueue.poll();
+				settled++;
+				for (int i = 0; i < outgoingCount[current]; i++) {
+					int edge = outgoing[current][i];
+					int neighbor = edges.target[edge];
+					if (contracted[neighbor] || (neighbor == avoided)) continue;
+
+					int distance = witnessDistance[current] + edges.cost[edge];
+					if (distance < witnessDistance[neighbor]) {
+						if (witnessDistance[neighbor] == Integer.MAX_VALUE) {
+							reached[reachedCount++] = neighbor;
+						}
+						witnessDistance[neighbor] = distance;
+						witnessQueue.insertOrDecrease(neighbor, distance);
+					}
+				}
+			}
+			witnessQueue.clear();
+			return reachedCount;
+		}
+	}
+}
@@ -1,18 +1,14 @@
 package fr.u_paris.gla.project.core.shortest_path_finder;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.stream.IntStream;
 
 /**
  * A utility class for a Dijkstra shortest path algorithm
@@ -32,80 +28,56 @@ public class DijkstraPathFinder {
 		if ((graph == null) || (source == null) || (target == null)) 
 			throw new IllegalArgumentException();
 		
-		// At the start, all nodes are unvisited
-		Set<INode> unvisited = new HashSet<INode>();
-		unvisited.addAll(graph.getAllNodes());
-		HashMap<INode, Integer> visited = new HashMap<INode,Integer>();
+		// Give every node of the graph a dense index, so that distances,
+		// parents and queue positions can be kept in plain arrays
+		Set<INode> allNodes = graph.getAllNodes();
+		INode[] nodes = allNodes.toArray(new INode[0]);
+		Map<INode, Integer> indices = new HashMap<INode, Integer>(2 * nodes.length);
+		for (int i = 0; i < nodes.length; i++) {
+			indices.put(nodes[i], i);
+		}
+		
+		Integer sourceIndex = indices.get(source);
+		Integer targetIndex = indices.get(target);
 		
-		if ((!unvisited.contains(source)) || (!unvisited.contains(target))) 
+		if ((sourceIndex == null) || (targetIndex == null)) 
 			throw new NodeNotFoundException("The graph does not contain either the source or the target node (or both)");
 		
+		// parent[i] is the index of the node preceding node i on the shortest
+		// known path from the source, or -1 if node i has not been reached yet
+		int[] parent = new int[nodes.length];
+		Arrays.fill(parent, -1);
+		boolean[] visited = new boolean[nodes.length];
+		
 		// Priority queue that contains the distance from the source node to
 		// the discovered, but not yet visited nodes
-		PriorityQueue<Map.Entry<INode, Integer>> priorityQueue 
-			= new PriorityQueue<>(Comparator.comparingInt(Map.Entry::getValue));
-		
-		priorityQueue.offer(Map.entry(source, 0));
-		
+		IndexedMinHeap priorityQueue = new IndexedMinHeap(nodes.length);
+		priorityQueue.insertOrDecrease(sourceIndex, 0);
 		
 		// Process each node in the priority queue
 		while (! priorityQueue.isEmpty()) {
 			
 			// Select the node with the smallest known distance from the
 			// source node as the "current node"
-			Map.Entry<INode, Integer> current = priorityQueue.poll();
-			
-			// If the current node is not the target node, the algorithm continues
-			if (current.getKey() != target) {
-				
-				// Get arrows that go "out" from the current node
-				Collection<IArrow> arrows = current.getKey().getOutgoingArrows();
-				arrows.forEach((arrow) -> {
-					
-					//Consider each unvisited neighbor
-					if (unvisited.contains(arrow.getTarget())) {
-						
-						// Calculate the distance to this neighbor
-						int dist = current.getValue() + arrow.getCost();
-						
-						// Compare the newly calculated distance to the one currently
-						// assigned to this neighbor if it exists
-						Optional<Entry<INode, Integer>> opt = 
-							priorityQueue.stream()
-								.filter(entry -> entry.getKey() == arrow.getTarget())
-								.findFirst();
-						
-						// Assign the distance to the smaller one of the two
-						if (opt.isPresent()) {
-							int optValue = opt.get().getValue();
-							
-							if(dist < optValue) {
-								priorityQueue.removeIf(entry -> entry.getKey() == arrow.getTarget());
-								priorityQueue.offer(Map.entry(arrow.getTarget(), dist));
-							}
-						} else {
-							priorityQueue.offer(Map.entry(arrow.getTarget(), dist));
-						}
-					}
-					
-				});
-			
-				// Remove the current node from the unvisited set
-				// when all of its neighbors have been considered
-				unvisited.remove(current.getKey());
-				
-				// Add the current node to the "visited" set
-				visited.putIfAbsent(current.getKey(), current.getValue());
+			int currentDistance = priorityQueue.peekKey();
+			int current = priorityQueue.poll();
+			visited[current] = true;
 			
 			// When the target node has been found, we can stop the search
 			// and extract the shortest path to the target
-			} else {
-				visited.putIfAbsent(current.getKey(), current.getValue());
+			if (current == targetIndex) {
+				return extractShortestPath(nodes, parent, sourceIndex, targetIndex);
+			}
+			
+			// Consider each unvisited neighbor, and keep the smaller one of
+			// its known distance and the distance through the current node
+			for (IArrow arrow : nodes[current].getOutgoingArrows()) {
+				Integer neighbor = indices.get(arrow.getTarget());
 				
-				// Extract the shortest path to the target node by picking its neighbor
-				// with the shortest distance, and repeating until the source node is reached. 
-				return extractShortestPath(visited,source,target);
-						
+				if ((neighbor != null) && (! visited[neighbor])
+						&& priorityQueue.insertOrDecrease(neighbor, currentDistance + arrow.getCost())) {
+					parent[neighbor] = current;
+				}
 			}
 		}
 
@@ -113,39 +85,347 @@ public class DijkstraPathFinder {
     }
 	
 	
-	private static List<INode> extractShortestPath(Map<INode,Integer> visited, INode source, INode target) 
+	private static List<INode> extractShortestPath(INode[] nodes, int[] parent, int source, int target) 
 			throws PathNotFoundException {
 		
-		INode current = target;
 		LinkedList<INode> path = new LinkedList<INode>();
-		path.add(target);
 		
-		while(current != source) {
+		// Follow the parent pointers back from the target to the source
+		for (int current = target; current != source; current = parent[current]) {
+			if (parent[current] == -1) throw new PathNotFoundException();
+			path.addFirst(nodes[current]);
+		}
+		path.addFirst(nodes[source]);
+		
+		return Collections.unmodifiableList(path);
+	}
+	
+	/**
+	 * Computes a shortest path between two nodes of a {@link RoutingGraph}.
+	 * 
+	 * @param graph the CSR snapshot to search
+	 * @param source the index of the source node
+	 * @param target the index of the target node
+	 * @return the shortest path and its cost
+	 * @throws NodeNotFoundException if one of the indices does not belong to the graph
+	 * @throws PathNotFoundException if the target cannot be reached from the source
+	 */
+	public static RoutingPath computeShortestPath(RoutingGraph graph, int source, int target)
+			throws NodeNotFoundException, PathNotFoundException {
+		
+		return computeShortestPath(graph, new int[] {source}, new int[] {target});
+	}
+	
+	/**
+	 * Computes a shortest path from any of the source nodes to any of the target nodes
+	 * of a {@link RoutingGraph}, in a single search: all the sources start at distance 0,
+	 * and the search stops as soon as a target node is visited. When several targets
+	 * are at the same distance, the path that goes through the fewest nodes is returned.
+	 * 
+	 * This is typically used between two stations, which are made of one node per line.
+	 * 
+	 * @param graph the CSR snapshot to search
+	 * @param sources the indices of the source nodes
+	 * @param targets the indices of the target nodes
+	 * @return the shortest path and its cost
+	 * @throws NodeNotFoundException if one of the indices does not belong to the graph
+	 * @throws PathNotFoundException if none of the targets can be reached from the sources
+	 */
+	public static RoutingPath computeShortestPath(RoutingGraph graph, int[] sources, int[] targets)
+			throws NodeNotFoundException, PathNotFoundException {
+		
+		if (graph == null) throw new IllegalArgumentException();
+		
+		SearchWorkspace workspace = SearchWorkspace.acquire(graph.getNodeCount());
+		try {
+			return computeShortestPath(graph, sources, targets, workspace.forward().queue(), workspace.forward());
+		} finally {
+			workspace.release();
+		}
+	}
+	
+	/**
+	 * Computes a shortest path from any of the source nodes to any of the target nodes
+	 * of a {@link RoutingGraph}, like {@link #computeShortestPath(RoutingGraph, int[], int[])},
+	 * with the given priority queue. A {@link BucketQueue} whose window is the most
+	 * expensive arrow of the graph avoids the comparisons of the binary heap.
+	 * 
+	 * @param graph the CSR snapshot to search
+	 * @param sources the indices of the source nodes
+	 * @param targets the indices of the target nodes
+	 * @param priorityQueue an empty queue able to hold every node of the graph, whose window
+	 * covers the most expensive arrow of the graph if it is a {@link BucketQueue}
+	 * @return the shortest path and its cost
+	 * @throws NodeNotFoundException if one of the indices does not belong to the graph
+	 * @throws PathNotFoundException if none of the targets can be reached from the sources
+	 */
+	public static RoutingPath computeShortestPath(RoutingGraph graph, int[] sources, int[] targets,
+			IMinQueue priorityQueue) throws NodeNotFoundException, PathNotFoundException {
+		
+		if ((graph == null) || (priorityQueue == null)) 
+			throw new IllegalArgumentException();
+		if (! priorityQueue.isEmpty())
+			throw new IllegalArgumentException("Error : The priority queue is not empty");
+		if (priorityQueue.capacity() < graph.getNodeCount())
+			throw new IllegalArgumentException("Error : The priority queue can hold " + priorityQueue.capacity()
+					+ " nodes, the graph has " + graph.getNodeCount());
+		if ((priorityQueue instanceof BucketQueue bucketQueue) && (bucketQueue.getMaxCost() < graph.getMaxCost()))
+			throw new IllegalArgumentException("Error : The window of the bucket queue (" + bucketQueue.getMaxCost()
+					+ ") is smaller than the most expensive arrow of the graph (" + graph.getMaxCost() + ")");
+		
+		SearchWorkspace workspace = SearchWorkspace.acquire(graph.getNodeCount());
+		try {
+			return computeShortestPath(graph, sources, targets, priorityQueue, workspace.forward());
+		} finally {
+			// The queue can be given to the next search
+			priorityQueue.clear();
+			workspace.release();
+		}
+	}
+	
+	private static RoutingPath computeShortestPath(RoutingGraph graph, int[] sources, int[] targets,
+			IMinQueue priorityQueue, SearchWorkspace.Labels labels) throws NodeNotFoundException, PathNotFoundException {
+		
+		if ((sources == null) || (targets == null)) 
+			throw new IllegalArgumentException();
+		if ((sources.length == 0) || (targets.length == 0))
+			throw new IllegalArgumentException("Error : There must be at least one source and one target");
+		
+		for (int target : targets) {
+			graph.checkNode(target);
+			labels.markTarget(target);
+		}
+		
+		// The labels keep the node preceding each node on the shortest known path,
+		// and the number of arrows of that path
+		for (int source : sources) {
+			graph.checkNode(source);
+			labels.reach(source, 0, -1, 0);
+			priorityQueue.insertOrDecrease(source, 0);
+		}
+
+		// The components tell at once that no target can be reached, without exploring the graph
+		if (! graph.getComponents().mayReach(sources, targets))
+			throw new PathNotFoundException("Cannot find the shortest path");
+		
+		int bestTarget = -1;
+		int bestDistance = 0;
+		
+		while (! priorityQueue.isEmpty()) {
 			
-			Collection<IArrow> incoming = current.getIncomingArrows();
+			int currentDistance = priorityQueue.peekKey();
 			
-			// Find the neighbor with the shortest distance
-			Optional<INode> minNeighbor =
-				incoming.stream()
-						.filter((arrow) -> visited.get(arrow.getSource()) != null)
-						.map((arrow) -> Map.entry(
-							( arrow.getSource() ),
-							( visited.get(arrow.getSource()) + arrow.getCost() )) )
-						.min((e1,e2) -> Integer.compare(e1.getValue(), e2.getValue()))
-						.map(entry -> entry.getKey());
+			// Every node left is further than the target that has been found
+			if ((bestTarget != -1) && (currentDistance > bestDistance)) break;
+			
+			int current = priorityQueue.poll();
+			labels.settle(current);
+			int currentHops = labels.getHops(current);
+			
+			if (labels.isTarget(current)) {
+				if ((bestTarget == -1) || (currentHops < labels.getHops(bestTarget))) {
+					bestTarget = current;
+					bestDistance = currentDistance;
+				}
+				continue;
+			}
 			
-			// The neighbor with the shortest distance is added to the path,
-			// and becomes the new current node
-			if (minNeighbor.isPresent()) {
-				current = minNeighbor.get();
-				path.addFirst(current);
-			} else {
-				throw new PathNotFoundException();
+			for (int edge = graph.getFirstEdge(current), limit = graph.getEdgeLimit(current); edge < limit; edge++) {
+				int neighbor = graph.getTarget(edge);
+				if (labels.isSettled(neighbor)) continue;
+				
+				int distance = currentDistance + graph.getCost(edge);
+				
+				// On equal distances, prefer the path with fewer arrows
+				if (priorityQueue.insertOrDecrease(neighbor, distance)
+						|| ((priorityQueue.getKey(neighbor) == distance) && (currentHops + 1 < labels.getHops(neighbor)))) {
+					labels.reach(neighbor, distance, current, currentHops + 1);
+				}
+			}
+		}
+		
+		if (bestTarget == -1) throw new PathNotFoundException("Cannot find the shortest path");
+		
+		return extractShortestPath(graph, labels, bestTarget, bestDistance);
+	}
+	
+	/**
+	 * Computes the shortest paths from the source nodes to every node of a {@link RoutingGraph}:
+	 * the search has no target and only stops when the queue is empty.
+	 * 
+	 * @param graph the CSR snapshot to search
+	 * @param sources the indices of the source nodes
+	 * @return the shortest path tree
+	 * @throws NodeNotFoundException if one of the indices does not belong to the graph
+	 */
+	public static ShortestPathTree computeShortestPathTree(RoutingGraph graph, int[] sources)
+			throws NodeNotFoundException {
+		
+		return computeShortestPathTree(graph, sources, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Computes the shortest paths from the source nodes to every node of a {@link RoutingGraph}
+	 * that can be reached within a cost, such as the stations reached in a given time.
+	 * The search stops once the closest node left in the queue is further than the bound.
+	 * Among the paths of the same cost, the one with the fewest arrows is kept.
+	 * 
+	 * @param graph the CSR snapshot to search
+	 * @param sources the indices of the source nodes
+	 * @param maxCost the largest cost of the paths, {@link Integer#MAX_VALUE} for no bound
+	 * @return the shortest path tree of the nodes reached within the bound
+	 * @throws NodeNotFoundException if one of the indices does not belong to the graph
+	 */
+	public static ShortestPathTree computeShortestPathTree(RoutingGraph graph, int[] sources, int maxCost)
+			throws NodeNotFoundException {
+		
+		if ((graph == null) || (sources == null)) 
+			throw new IllegalArgumentException();
+		if (maxCost < 0)
+			throw new IllegalArgumentException("Error : The maximum cost is negative");
+		
+		for (int source : sources) graph.checkNode(source);
+		
+		// Only the settled nodes are copied out of the workspace
+		int[] treeDistance = new int[graph.getNodeCount()];
+		int[] treeParent = new int[graph.getNodeCount()];
+		Arrays.fill(treeDistance, Integer.MAX_VALUE);
+		Arrays.fill(treeParent, -1);
+		
+		SearchWorkspace workspace = SearchWorkspace.acquire(graph.getNodeCount());
+		try {
+			SearchWorkspace.Labels labels = workspace.forward();
+			IndexedMinHeap priorityQueue = labels.queue();
+			for (int source : sources) {
+				labels.reach(source, 0, -1, 0);
+				priorityQueue.insertOrDecrease(source, 0);
 			}
 			
+			int reachedCount = 0;
+			while (! priorityQueue.isEmpty() && (priorityQueue.peekKey() <= maxCost)) {
+				int current = priorityQueue.poll();
+				int currentDistance = labels.getDistance(current);
+				int currentHops = labels.getHops(current);
+				labels.settle(current);
+				treeDistance[current] = currentDistance;
+				treeParent[current] = labels.getParent(current);
+				reachedCount++;
+				
+				for (int edge = graph.getFirstEdge(current); edge < graph.getEdgeLimit(current); edge++) {
+					int neighbor = graph.getTarget(edge);
+					if (labels.isSettled(neighbor)) continue;
+					
+					int distance = currentDistance + graph.getCost(edge);
+					if (! labels.isReached(neighbor) || (distance < labels.getDistance(neighbor))
+							|| ((distance == labels.getDistance(neighbor)) && (currentHops + 1 < labels.getHops(neighbor)))) {
+						labels.reach(neighbor, distance, current, currentHops + 1);
+						priorityQueue.insertOrDecrease(neighbor, distance);
+					}
+				}
+			}
+			return new ShortestPathTree(graph, treeDistance, treeParent, reachedCount);
+		} finally {
+			workspace.release();
+		}
+	}
+	
+	/**
+	 * Computes the table of the distances from groups of source nodes to groups of target
+	 * nodes of a {@link RoutingGraph}, with one search to every node per group of sources.
+	 * The distance between two groups is the shortest from any node of the first one to any
+	 * node of the second one.
+	 *
+	 * @param graph the CSR snapshot to search
+	 * @param sources the groups of source nodes, one per row of the table
+	 * @param targets the groups of target nodes, one per column of the table
+	 * @return the distances, {@link Integer#MAX_VALUE} when no target of the group can be reached
+	 * @throws NodeNotFoundException if one of the indices does not belong to the graph
+	 */
+	public static int[][] computeDistanceTable(RoutingGraph graph, int[][] sources, int[][] targets)
+			throws NodeNotFoundException {
+
+		if ((graph == null) || (sources == null) || (targets == null))
+			throw new IllegalArgumentException();
+
+		for (int[] group : sources) for (int source : group) graph.checkNode(source);
+		for (int[] group : targets) for (int target : group) graph.checkNode(target);
+
+		int[][] table = new int[sources.length][targets.length];
+		for (int row = 0; row < sources.length; row++) {
+			int[] distance = computeDistances(graph, sources[row], false);
+			for (int column = 0; column < targets.length; column++) {
+				int best = Integer.MAX_VALUE;
+				for (int target : targets[column]) best = Math.min(best, distance[target]);
+				table[row][column] = best;
+			}
 		}
+		return table;
+	}
+	
+	/**
+	 * Computes the distances from the sources to every node of a {@link RoutingGraph},
+	 * or from every node to the sources when searching backwards along the incoming arrows.
+	 *
+	 * @param graph the CSR snapshot to search
+	 * @param sources the indices of the nodes the search starts from
+	 * @param backward true to follow the arrows backwards
+	 * @return the distance of every node, {@link Integer#MAX_VALUE} for the nodes that are not reached
+	 */
+	static int[] computeDistances(RoutingGraph graph, int[] sources, boolean backward) {
+
+		int nodeCount = graph.getNodeCount();
+		int[] distance = new int[nodeCount];
+		Arrays.fill(distance, Integer.MAX_VALUE);
+
+		SearchWorkspace workspace = SearchWorkspace.acquire(nodeCount);
+		try {
+			IndexedMinHeap priorityQueue = workspace.forward().queue();
+			for (int source : sources) {
+				distance[source] = 0;
+				priorityQueue.insertOrDecrease(source, 0);
+			}
+
+			while (! priorityQueue.isEmpty()) {
+				int current = priorityQueue.poll();
+
+				int first = backward ? graph.getFirstIncoming(current) : graph.getFirstEdge(current);
+				int limit = backward ? graph.getIncomingLimit(current) : graph.getEdgeLimit(current);
+				for (int position = first; position < limit; position++) {
+					int edge = backward ? graph.getIncomingEdge(position) : position;
+					int neighbor = backward ? graph.getSource(edge) : graph.getTarget(edge);
+					int neighborDistance = distance[current] + graph.getCost(edge);
+
+					if (neighborDistance < distance[neighbor]) {
+						distance[neighbor] = neighborDistance;
+						priorityQueue.insertOrDecrease(neighbor, neighborDistance);
+					}
+				}
+			}
+		} finally {
+			workspace.release();
+		}
+		return distance;
+	}
+
+	/**
+	 * Builds the path to a target by following parent pointers back to a node without parent.
+	 */
+	static RoutingPath extractShortestPath(RoutingGraph graph, SearchWorkspace.Labels labels, int target, int cost) {
 		
-		return Collections.unmodifiableList(path);
+		// The sources are the only reached nodes without a parent
+		int length = 1;
+		for (int current = target; labels.getParent(current) != -1; current = labels.getParent(current)) {
+			length++;
+		}
+		
+		int[] path = new int[length];
+		int current = target;
+		for (int i = length - 1; i >= 0; i--) {
+			path[i] = current;
+			current = labels.getParent(current);
+		}
+		
+		return new RoutingPath(graph, path, cost);
 	}
 	
 	/**
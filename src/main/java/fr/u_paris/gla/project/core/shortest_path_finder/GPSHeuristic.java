@@ -0,0 +1,99 @@
+package fr.u_paris.gla.project.core.shortest_path_finder;
+
+import fr.u_paris.gla.project.utils.GPS;
+import fr.u_paris.gla.project.utils.GPSCoordinates;
+
+/**
+ * Lower bounds of travel times based on the positions of the nodes of a {@link RoutingGraph}:
+ * the flying distance to the target divided by the fastest speed observed on an arrow
+ * of the graph. No path can be faster than that, so the bound is admissible, and since
+ * it is derived from a distance it is also consistent.
+ *
+ * The positions and the fastest speed are computed once per graph, and
+ * {@link #towards(int[])} then gives the heuristic of a given search.
+ */
+public final class GPSHeuristic {
+
+	/** Relative margin on the fastest speed, so that rounding errors never overestimate */
+	private static final double SPEED_MARGIN = 1e-6;
+
+	private final double[] latitudes;
+	private final double[] longitudes;
+
+	// Fastest speed over all the arrows, in km per second. Zero when no bound can be given.
+	private final double maxSpeed;
+
+	/**
+	 * Precomputes the positions of the nodes and the fastest speed of a graph.
+	 * If a node has no position, or if an arrow of non zero length costs nothing,
+	 * the heuristic estimates 0 everywhere, which makes the A* search behave like Dijkstra.
+	 *
+	 * @param graph the routing graph
+	 */
+	public GPSHeuristic(RoutingGraph graph) {
+		int nodeCount = graph.getNodeCount();
+		this.latitudes = new double[nodeCount];
+		this.longitudes = new double[nodeCount];
+
+		boolean located = true;
+		for (int node = 0; node < nodeCount; node++) {
+			if (graph.getNode(node) instanceof ILocatedNode locatedNode) {
+				GPSCoordinates coordinates = locatedNode.getCoordinates();
+				latitudes[node] = coordinates.latitude();
+				longitudes[node] = coordinates.longitude();
+			} else {
+				located = false;
+			}
+		}
+
+		double fastest = 0;
+		for (int node = 0; located && (node < nodeCount); node++) {
+			for (int edge = graph.getFirstEdge(node); edge < graph.getEdgeLimit(node); edge++) {
+				double distance = distance(node, graph.getTarget(edge));
+				int cost = graph.getCost(edge);
+
+				if (cost > 0) {
+					fastest = Math.max(fastest, distance / cost);
+				} else if (distance > 0) {
+					located = false;
+					break;
+				}
+			}
+		}
+
+		this.maxSpeed = located ? fastest * (1 + SPEED_MARGIN) : 0;
+	}
+
+	/**
+	 * @return the fastest speed of the graph, in km per second, or 0 if the heuristic is disabled
+	 */
+	public double getMaxSpeed() {
+		return maxSpeed;
+	}
+
+	/**
+	 * Returns the heuristic of a search towards a set of target nodes, which is the
+	 * smallest of the bounds towards each of them.
+	 *
+	 * @param targets the indices of the target nodes
+	 * @return the heuristic
+	 */
+	public IHeuristic towards(int[] targets) {
+		if (maxSpeed == 0) {
+			return node -> 0;
+		}
+
+		int[] targetNodes = targets.clone();
+		return node -> {
+			double closest = Double.MAX_VALUE;
+			for (int target : targetNodes) {
+				closest = Math.min(closest, distance(node, target));
+			}
+			return (int) (closest / maxSpeed);
+		};
+	}
+
+	private double distance(int from, int to) {
+		return GPS.distance(latitudes[from], longitudes[from], latitudes[to], longitudes[to]);
+	}
+}
@@ -0,0 +1,15 @@
+package fr.u_paris.gla.project.core.shortest_path_finder;
+
+public interface IHeuristic {
+
+	/**
+	 * Get a lower bound of the cost of going from a node to the target of the search.
+	 * To guarantee that the paths found are the shortest ones, the estimate must
+	 * never exceed the actual cost, and must not decrease by more than the cost of
+	 * an arrow when following this arrow.
+	 * @param node the index of a node of the routing graph
+	 * @return the estimated remaining cost
+	 */
+	public int estimate(int node);
+
+}
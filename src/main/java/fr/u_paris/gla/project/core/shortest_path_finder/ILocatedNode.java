@@ -0,0 +1,13 @@
+package fr.u_paris.gla.project.core.shortest_path_finder;
+
+import fr.u_paris.gla.project.utils.GPSCoordinates;
+
+public interface ILocatedNode extends INode {
+
+	/**
+	 * Get the GPS position of this node
+	 * @return the coordinates of the node
+	 */
+	public GPSCoordinates getCoordinates();
+
+}
@@ -0,0 +1,63 @@
+package fr.u_paris.gla.project.core.shortest_path_finder;
+
+public interface IMinQueue {
+
+	/**
+	 * Get the number of distinct elements the queue can hold
+	 * @return the elements of the queue are {@code 0} to {@code capacity() - 1}
+	 */
+	public int capacity();
+
+	/**
+	 * Get the number of elements in the queue
+	 * @return the number of elements
+	 */
+	public int size();
+
+	/**
+	 * Check whether the queue has no element left
+	 * @return true if the queue is empty
+	 */
+	public boolean isEmpty();
+
+	/**
+	 * Check whether an element is in the queue
+	 * @param element the element
+	 * @return true if the element is queued
+	 */
+	public boolean contains(int element);
+
+	/**
+	 * Get the key of an element currently in the queue
+	 * @param element the element
+	 * @return its key
+	 */
+	public int getKey(int element);
+
+	/**
+	 * Get the smallest key of the queue without removing its element
+	 * @return the smallest key
+	 */
+	public int peekKey();
+
+	/**
+	 * Insert an element with the given key, or lower its key if the element
+	 * is already in the queue with a greater one
+	 * @param element the element
+	 * @param newKey the key
+	 * @return true if the queue has changed
+	 */
+	public boolean insertOrDecrease(int element, int newKey);
+
+	/**
+	 * Remove an element with the smallest key and return it
+	 * @return the removed element
+	 */
+	public int poll();
+
+	/**
+	 * Remove every element
+	 */
+	public void clear();
+
+}
@@ -0,0 +1,192 @@
+package fr.u_paris.gla.project.core.shortest_path_finder;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of dense integer elements (typically node indices in
+ * {@code [0, capacity)}) ordered by an integer key.
+ *
+ * Unlike {@link java.util.PriorityQueue}, the position of every element in the
+ * heap is tracked, so that the key of an element that is already queued can be
+ * lowered in O(log n) without scanning or re-inserting it.
+ *
+ * @see BucketQueue
+ */
+public class IndexedMinHeap implements IMinQueue {
+
+	/** Marker of an element that is not in the heap */
+	private static final int ABSENT = -1;
+
+	// heap[i] is the element stored at slot i of the binary heap
+	private final int[] heap;
+
+	// position[e] is the slot of element e in the heap, or ABSENT
+	private final int[] position;
+
+	// key[e] is the current key of element e (only meaningful while e is queued)
+	private final int[] key;
+
+	private int size;
+
+	/**
+	 * Creates an empty heap able to hold the elements {@code 0} to {@code capacity - 1}.
+	 *
+	 * @param capacity the number of distinct elements
+	 */
+	public IndexedMinHeap(int capacity) {
+		if (capacity < 0) throw new IllegalArgumentException("Error : The capacity is negative");
+
+		this.heap = new int[capacity];
+		this.position = new int[capacity];
+		this.key = new int[capacity];
+		Arrays.fill(this.position, ABSENT);
+	}
+
+	@Override
+	public int capacity() {
+		return position.length;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public boolean contains(int element) {
+		return position[element] != ABSENT;
+	}
+
+	/**
+	 * Returns the key of an element currently in the heap.
+	 *
+	 * @param element the element
+	 * @return its key
+	 */
+	@Override
+	public int getKey(int element) {
+		if (!contains(element)) throw new NoSuchElementException();
+		return key[element];
+	}
+
+	/**
+	 * Returns the key of the smallest element without removing it.
+	 *
+	 * @return the smallest key
+	 */
+	@Override
+	public int peekKey() {
+		if (size == 0) throw new NoSuchElementException();
+		return key[heap[0]];
+	}
+
+	/**
+	 * Inserts an element with the given key, or lowers its key if the element
+	 * is already in the heap with a greater one.
+	 *
+	 * @param element the element
+	 * @param newKey  the key
+	 * @return true if the heap has changed
+	 */
+	@Override
+	public boolean insertOrDecrease(int element, int newKey) {
+		int slot = position[element];
+
+		if (slot == ABSENT) {
+			slot = size++;
+			heap[slot] = element;
+			position[element] = slot;
+		} else if (newKey >= key[element]) {
+			return false;
+		}
+
+		key[element] = newKey;
+		siftUp(slot);
+		return true;
+	}
+
+	/**
+	 * Removes the element with the smallest key and returns it.
+	 *
+	 * @return the removed element
+	 */
+	@Override
+	public int poll() {
+		if (size == 0) throw new NoSuchElementException();
+
+		int min = heap[0];
+		position[min] = ABSENT;
+		size--;
+
+		if (size > 0) {
+			int last = heap[size];
+			heap[0] = last;
+			position[last] = 0;
+			siftDown(0);
+		}
+
+		return min;
+	}
+
+	/**
+	 * Removes every element. Only the slots that are still in use are reset,
+	 * so that clearing a heap that has been drained costs nothing.
+	 */
+	@Override
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			position[heap[i]] = ABSENT;
+		}
+		size = 0;
+	}
+
+	private void siftUp(int slot) {
+		int element = heap[slot];
+		int elementKey = key[element];
+
+		while (slot > 0) {
+			int parentSlot = (slot - 1) >>> 1;
+			int parent = heap[parentSlot];
+			if (key[parent] <= elementKey) break;
+
+			heap[slot] = parent;
+			position[parent] = slot;
+			slot = parentSlot;
+		}
+
+		heap[slot] = element;
+		position[element] = slot;
+	}
+
+	private void siftDown(int slot) {
+		int element = heap[slot];
+		int elementKey = key[element];
+		int half = size >>> 1;
+
+		while (slot < half) {
+			int childSlot = 2 * slot + 1;
+			int child = heap[childSlot];
+			int rightSlot = childSlot + 1;
+
+			if (rightSlot < size && key[heap[rightSlot]] < key[child]) {
+				childSlot = rightSlot;
+				child = heap[childSlot];
+			}
+			if (elementKey <= key[child]) break;
+
+			heap[slot] = child;
+			position[child] = slot;
+			slot = childSlot;
+		}
+
+		heap[slot] = element;
+		position[element] = slot;
+	}
+
+}
@@ -0,0 +1,147 @@
+package fr.u_paris.gla.project.core.shortest_path_finder;
+
+import java.util.Arrays;
+
+/**
+ * Lower bounds of travel times given by the triangle inequality on a few landmark
+ * nodes of a {@link RoutingGraph} (the ALT technique: A*, landmarks and triangle inequality).
+ *
+ * For a landmark L, the distance from v to a target t is at least
+ * {@code d(v, L) - d(t, L)} and at least {@code d(L, t) - d(L, v)}. The heuristic is
+ * the best of these bounds over all the landmarks, which is admissible and consistent.
+ * Since the bounds come from actual travel times, they stay tight where walking
+ * transfers or the layout of the lines make the flying distance a poor estimate.
+ *
+ * The distances from and to every landmark are computed once per graph, and
+ * {@link #towards(int[])} then gives the heuristic of a given search.
+ */
+public final class LandmarkHeuristic {
+
+	/** Number of landmarks used when none is given */
+	public static final int DEFAULT_LANDMARK_COUNT = 8;
+
+	private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	private final int[] landmarks;
+
+	// fromLandmark[l][v] is the distance from landmark l to node v, toLandmark[l][v] from node v to landmark l
+	private final int[][] fromLandmark;
+	private final int[][] toLandmark;
+
+	private LandmarkHeuristic(int[] landmarks, int[][] fromLandmark, int[][] toLandmark) {
+		this.landmarks = landmarks;
+		this.fromLandmark = fromLandmark;
+		this.toLandmark = toLandmark;
+	}
+
+	/**
+	 * Chooses the landmarks of a graph with the farthest strategy and computes their
+	 * distance tables. Each new landmark is the node furthest away from the landmarks
+	 * already chosen, a node they cannot reach being the furthest of all, so that the
+	 * landmarks end up at the borders of the network and in each of its parts.
+	 *
+	 * @param graph the routing graph
+	 * @param landmarkCount the number of landmarks, at most the number of nodes
+	 * @return the heuristic
+	 */
+	public static LandmarkHeuristic build(RoutingGraph graph, int landmarkCount) {
+		if (graph == null) throw new IllegalArgumentException("Error : The graph is null");
+		if (landmarkCount < 0) throw new IllegalArgumentException("Error : The number of landmarks is negative");
+
+		int nodeCount = graph.getNodeCount();
+		int count = Math.min(landmarkCount, nodeCount);
+		int[] landmarks = new int[count];
+		int[][] fromLandmark = new int[count][];
+		int[][] toLandmark = new int[count][];
+		if (count == 0) return new LandmarkHeuristic(landmarks, fromLandmark, toLandmark);
+
+		// closest[v] is the round-trip distance between v and the nearest landmark chosen so far
+		long[] closest = new long[nodeCount];
+		Arrays.fill(closest, Long.MAX_VALUE);
+
+		// The first landmark is the node furthest away from an arbitrary start node
+		int[] start = DijkstraPathFinder.computeDistances(graph, new int[] {0}, false);
+		int next = 0;
+		for (int node = 0; node < nodeCount; node++) {
+			if ((start[node] != UNREACHABLE) && (start[node] > start[next])) next = node;
+		}
+
+		for (int l = 0; l < count; l++) {
+			landmarks[l] = next;
+			fromLandmark[l] = DijkstraPathFinder.computeDistances(graph, new int[] {next}, false);
+			toLandmark[l] = DijkstraPathFinder.computeDistances(graph, new int[] {next}, true);
+
+			next = -1;
+			for (int node = 0; node < nodeCount; node++) {
+				closest[node] = Math.min(closest[node], roundTrip(fromLandmark[l][node], toLandmark[l][node]));
+				if ((closest[node] > 0) && ((next == -1) || (closest[node] > closest[next]))) next = node;
+			}
+			// No node is further than 0 from the landmarks: more of them would not give better bounds
+			if (next == -1) {
+				return new LandmarkHeuristic(Arrays.copyOf(landmarks, l + 1),
+						Arrays.copyOf(fromLandmark, l + 1), Arrays.copyOf(toLandmark, l + 1));
+			}
+		}
+
+		return new LandmarkHeuristic(landmarks, fromLandmark, toLandmark);
+	}
+
+	private static long roundTrip(int from, int to) {
+		// Nodes that are not connected both ways to the landmark are the furthest from it
+		if ((from == UNREACHABLE) || (to == UNREACHABLE)) return Long.MAX_VALUE - 1;
+		return (long) from + to;
+	}
+
+	public int getLandmarkCount() {
+		return landmarks.length;
+	}
+
+	/**
+	 * @param index the position of a landmark, between 0 and {@link #getLandmarkCount()}
+	 * @return the index of the landmark node in the graph
+	 */
+	public int getLandmark(int index) {
+		return landmarks[index];
+	}
+
+	/**
+	 * Returns the heuristic of a search towards a set of target nodes, which is the
+	 * smallest of the bounds towards each of them.
+	 *
+	 * @param targets the indices of the target nodes
+	 * @return the heuristic
+	 */
+	public IHeuristic towards(int[] targets) {
+		if (landmarks.length == 0) {
+			return node -> 0;
+		}
+
+		int[] targetNodes = targets.clone();
+		return node -> {
+			int closest = Integer.MAX_VALUE;
+			for (int target : targetNodes) {
+				closest = Math.min(closest, estimate(node, target));
+			}
+			return closest;
+		};
+	}
+
+	/**
+	 * The best bound of the distance from a node to a target over all the landmarks.
+	 * The bounds that would need an infinite distance are left out.
+	 */
+	private int estimate(int node, int target) {
+		int bound = 0;
+		for (int l = 0; l < landmarks.length; l++) {
+			int[] to = toLandmark[l];
+			if ((to[node] != UNREACHABLE) && (to[target] != UNREACHABLE)) {
+				bound = Math.max(bound, to[node] - to[target]);
+			}
+			int[] from = fromLandmark[l];
+			if ((from[node] != UNREACHABLE) && (from[target] != UNREACHABLE)) {
+				bound = Math.max(bound, from[target] - from[node]);
+			}
+		}
+		return bound;
+	}
+}
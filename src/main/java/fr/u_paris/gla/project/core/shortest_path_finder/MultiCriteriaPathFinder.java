@@ -0,0 +1,293 @@
+package fr.u_paris.gla.project.core.shortest_path_finder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A utility class for a multi-criteria label-setting search (Martins' algorithm), which
+ * finds the Pareto-optimal paths from a group of source nodes to a group of target nodes
+ * of a {@link RoutingGraph} for three criteria: the cost of the path, the number of line
+ * changes and the walking distance.
+ *
+ * Each arrow is either ridden on board a vehicle or walked, as given by an array of
+ * walking distances indexed like the arrows. Taking a ridden arrow on foot boards a
+ * vehicle; the line changes of a path are its boardings after the first one.
+ *
+ * A node keeps a bag of labels (cost, boardings, walking distance, on board or not),
+ * none of which dominates another one. The labels live in primitive arrays and point
+ * to their parent label, so that a path is rebuilt by following the parents. The labels
+ * are settled by increasing cost; a label is dropped as soon as a label of its node, or
+ * a label that has reached a target, is as good for every criterion. The search creates
+ * at most {@link #MAX_LABELS} labels: past that, it returns the paths found so far.
+ */
+public class MultiCriteriaPathFinder {
+
+	/** The walking distance of an arrow ridden on board a vehicle */
+	public static final int RIDE = -1;
+
+	/** Most labels created by a search, so that its memory stays bounded */
+	public static final int MAX_LABELS = 1 << 21;
+
+	/** The paths are ordered by cost, then by line changes, then by walking distance */
+	private static final Comparator<ParetoPath> PATH_ORDER = Comparator
+			.comparingInt(ParetoPath::getCost)
+			.thenComparingInt(ParetoPath::getLineChanges)
+			.thenComparingInt(ParetoPath::getWalkingDistance);
+
+	/** Hidden constructor */
+	private MultiCriteriaPathFinder() {}
+
+	/**
+	 * Computes the Pareto-optimal paths from any of the source nodes to any of the target
+	 * nodes of a {@link RoutingGraph}, for the cost, the line changes and the walking distance.
+	 *
+	 * @param graph the CSR snapshot to search
+	 * @param sources the indices of the source nodes
+	 * @param targets the indices of the target nodes
+	 * @param walkingDistances the distance walked along each arrow, in meters, or {@link #RIDE} for the arrows ridden
+	 * @return the paths that no other path beats on every criterion, by increasing cost
+	 * @throws NodeNotFoundException if one of the indices does not belong to the graph
+	 * @throws PathNotFoundException if none of the targets can be reached from the sources
+	 */
+	public static List<ParetoPath> computeParetoPaths(RoutingGraph graph, int[] sources, int[] targets,
+			int[] walkingDistances) throws NodeNotFoundException, PathNotFoundException {
+
+		if (graph == null) throw new IllegalArgumentException("Error : The graph is null");
+		if ((sources == null) || (targets == null))
+			throw new IllegalArgumentException("Error : The sources and the targets cannot be null");
+		if ((walkingDistances == null) || (walkingDistances.length != graph.getEdgeCount()))
+			throw new IllegalArgumentException("Error : There must be one walking distance per arrow");
+
+		boolean[] isTarget = new boolean[graph.getNodeCount()];
+		for (int target : targets) {
+			graph.checkNode(target);
+			isTarget[target] = true;
+		}
+		Search search = new Search(graph.getNodeCount());
+		for (int source : sources) {
+			graph.checkNode(source);
+			search.insert(source, 0, 0, 0, false, -1);
+		}
+
+		// The components tell at once that no target can be reached, without exploring the graph
+		if (!graph.getComponents().mayReach(sources, targets))
+			throw new PathNotFoundException("Cannot find the shortest path");
+
+		while ((search.heapSize > 0) && (search.count < MAX_LABELS)) {
+			int label = search.poll();
+			if (search.isDominated(label)) continue;
+
+			int node = search.node[label];
+			int time = search.time[label];
+			int boardings = search.boardings[label];
+			int walking = search.walking[label];
+			if (search.isDominatedByTargets(time, boardings, walking)) continue;
+
+			// Going on past a target cannot beat the label that reached it
+			if (isTarget[node]) {
+				search.addTargetLabel(label);
+				continue;
+			}
+
+			boolean onBoard = search.isOnBoard(label);
+			for (int edge = graph.getFirstEdge(node); edge < graph.getEdgeLimit(node); edge++) {
+				int newTime = time + graph.getCost(edge);
+				int newBoardings = boardings;
+				int newWalking = walking;
+				boolean newOnBoard = (walkingDistances[edge] == RIDE);
+				if (newOnBoard) {
+					if (!onBoard) newBoardings++;
+				} else {
+					newWalking += walkingDistances[edge];
+				}
+				if (search.isDominatedByTargets(newTime, newBoardings, newWalking)) continue;
+
+				search.insert(graph.getTarget(edge), newTime, newBoardings, newWalking, newOnBoard, label);
+			}
+		}
+
+		if (search.targetCount == 0) throw new PathNotFoundException("Cannot find the shortest path");
+
+		// The first boarding is not a line change, so that the walking paths and the
+		// paths riding one line can dominate each other once the labels are turned to paths
+		List<ParetoPath> paths = new ArrayList<>();
+		for (int i = 0; i < search.targetCount; i++) {
+			int label = search.targetLabels[i];
+			RoutingPath path = new RoutingPath(graph, search.buildPath(label), search.time[label]);
+			paths.add(new ParetoPath(path, Math.max(0, search.boardings[label] - 1), search.walking[label]));
+		}
+		List<ParetoPath> result = new ArrayList<>();
+		paths.sort(PATH_ORDER);
+		for (ParetoPath path : paths) {
+			if (result.stream().noneMatch(kept -> kept.dominates(path))) {
+				result.add(path);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * The labels of one search, in parallel arrays indexed by label, along with the bags
+	 * of the nodes (linked lists threaded through the labels) and the queue of the labels
+	 * to settle (a binary heap ordered by cost, boardings and walking distance).
+	 */
+	private static final class Search {
+
+		private static final byte ON_BOARD = 1;
+		private static final byte DOMINATED = 2;
+
+		private int[] node = new int[64];
+		private int[] time = new int[64];
+		private int[] boardings = new int[64];
+		private int[] walking = new int[64];
+		private int[] parent = new int[64];
+		private int[] nextInBag = new int[64];
+		private byte[] state = new byte[64];
+		private int count;
+
+		// The first label of the bag of each node, -1 if the bag is empty
+		private final int[] bagHead;
+
+		private int[] heap = new int[64];
+		private int heapSize;
+
+		private int[] targetLabels = new int[8];
+		private int targetCount;
+
+		private Search(int nodeCount) {
+			bagHead = new int[nodeCount];
+			Arrays.fill(bagHead, -1);
+		}
+
+		private boolean isOnBoard(int label) {
+			return (state[label] & ON_BOARD) != 0;
+		}
+
+		private boolean isDominated(int label) {
+			return (state[label] & DOMINATED) != 0;
+		}
+
+		/**
+		 * A label dominates another one if it is as good for every criterion and if it is on
+		 * board whenever the other one is, since staying on board saves a boarding.
+		 */
+		private boolean dominates(int label, int otherTime, int otherBoardings, int otherWalking, boolean otherOnBoard) {
+			return (time[label] <= otherTime) && (boardings[label] <= otherBoardings)
+					&& (walking[label] <= otherWalking) && (isOnBoard(label) || !otherOnBoard);
+		}
+
+		private boolean isDominatedByTargets(int labelTime, int labelBoardings, int labelWalking) {
+			for (int i = 0; i < targetCount; i++) {
+				int target = targetLabels[i];
+				if ((time[target] <= labelTime) && (boardings[target] <= labelBoardings)
+						&& (walking[target] <= labelWalking)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void addTargetLabel(int label) {
+			if (targetCount == targetLabels.length) {
+				targetLabels = Arrays.copyOf(targetLabels, 2 * targetCount);
+			}
+			targetLabels[targetCount++] = label;
+		}
+
+		/**
+		 * Adds a label to the bag of a node, unless a label of the bag dominates it, and
+		 * removes the labels of the bag that it dominates.
+		 */
+		private void insert(int labelNode, int labelTime, int labelBoardings, int labelWalking, boolean labelOnBoard,
+				int labelParent) {
+			int previous = -1;
+			for (int label = bagHead[labelNode]; label != -1; label = nextInBag[label]) {
+				if (dominates(label, labelTime, labelBoardings, labelWalking, labelOnBoard)) return;
+
+				boolean dominated = (labelTime <= time[label]) && (labelBoardings <= boardings[label])
+						&& (labelWalking <= walking[label]) && (labelOnBoard || !isOnBoard(label));
+				if (dominated) {
+					state[label] |= DOMINATED;
+					if (previous == -1) {
+						bagHead[labelNode] = nextInBag[label];
+					} else {
+						nextInBag[previous] = nextInBag[label];
+					}
+				} else {
+					previous = label;
+				}
+			}
+
+			if (count == node.length) {
+				int capacity = 2 * count;
+				node = Arrays.copyOf(node, capacity);
+				time = Arrays.copyOf(time, capacity);
+				boardings = Arrays.copyOf(boardings, capacity);
+				walking = Arrays.copyOf(walking, capacity);
+				parent = Arrays.copyOf(parent, capacity);
+				nextInBag = Arrays.copyOf(nextInBag, capacity);
+				state = Arrays.copyOf(state, capacity);
+			}
+			int label = count++;
+			node[label] = labelNode;
+			time[label] = labelTime;
+			boardings[label] = labelBoardings;
+			walking[label] = labelWalking;
+			parent[label] = labelParent;
+			state[label] = labelOnBoard ? ON_BOARD : 0;
+			nextInBag[label] = bagHead[labelNode];
+			bagHead[labelNode] = label;
+			push(label);
+		}
+
+		private boolean precedes(int label, int other) {
+			if (time[label] != time[other]) return time[label] < time[other];
+			if (boardings[label] != boardings[other]) return boardings[label] < boardings[other];
+			return walking[label] < walking[other];
+		}
+
+		private void push(int label) {
+			if (heapSize == heap.length) {
+				heap = Arrays.copyOf(heap, 2 * heapSize);
+			}
+			int position = heapSize++;
+			while (position > 0) {
+				int parentPosition = (position - 1) / 2;
+				if (!precedes(label, heap[parentPosition])) break;
+				heap[position] = heap[parentPosition];
+				position = parentPosition;
+			}
+			heap[position] = label;
+		}
+
+		private int poll() {
+			int first = heap[0];
+			int last = heap[--heapSize];
+			int position = 0;
+			while (true) {
+				int child = 2 * position + 1;
+				if (child >= heapSize) break;
+				if ((child + 1 < heapSize) && precedes(heap[child + 1], heap[child])) child++;
+				if (!precedes(heap[child], last)) break;
+				heap[position] = heap[child];
+				position = child;
+			}
+			if (heapSize > 0) heap[position] = last;
+			return first;
+		}
+
+		private int[] buildPath(int label) {
+			int length = 0;
+			for (int l = label; l != -1; l = parent[l]) {
+				length++;
+			}
+			int[] path = new int[length];
+			for (int l = label; l != -1; l = parent[l]) {
+				path[--length] = node[l];
+			}
+			return path;
+		}
+	}
+}
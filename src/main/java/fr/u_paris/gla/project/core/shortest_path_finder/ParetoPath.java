@@ -0,0 +1,60 @@
+package fr.u_paris.gla.project.core.shortest_path_finder;
+
+/**
+ * A path found by {@link MultiCriteriaPathFinder}, along with the values of its
+ * criteria: its cost, the number of times it changes lines and the distance it walks.
+ */
+public final class ParetoPath {
+
+	private final RoutingPath path;
+	private final int lineChanges;
+	private final int walkingDistance;
+
+	public ParetoPath(RoutingPath path, int lineChanges, int walkingDistance) {
+		if (path == null) throw new IllegalArgumentException("Error : The path is null");
+
+		this.path = path;
+		this.lineChanges = lineChanges;
+		this.walkingDistance = walkingDistance;
+	}
+
+	public RoutingPath getPath() {
+		return path;
+	}
+
+	/**
+	 * @return the cost of the path, in seconds
+	 */
+	public int getCost() {
+		return path.getCost();
+	}
+
+	/**
+	 * @return the number of vehicles boarded after the first one
+	 */
+	public int getLineChanges() {
+		return lineChanges;
+	}
+
+	/**
+	 * @return the distance walked along the path, in meters
+	 */
+	public int getWalkingDistance() {
+		return walkingDistance;
+	}
+
+	/**
+	 * @param other another path
+	 * @return true if this path is not worse than the other one for any criterion
+	 */
+	public boolean dominates(ParetoPath other) {
+		return (getCost() <= other.getCost()) && (lineChanges <= other.lineChanges)
+				&& (walkingDistance <= other.walkingDistance);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ParetoPath of %d nodes, cost %d, %d line changes, %d m walked",
+				path.size(), getCost(), lineChanges, walkingDistance);
+	}
+}
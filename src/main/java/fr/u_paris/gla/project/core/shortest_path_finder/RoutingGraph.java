@@ -0,0 +1,347 @@
+package fr.u_paris.gla.project.core.shortest_path_finder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of an {@link IGraph} in compressed sparse row (CSR) form.
+ *
+ * Nodes are identified by a dense index in {@code [0, getNodeCount())}. The arrows
+ * leaving node {@code u} are the indices {@code getFirstEdge(u)} (inclusive) to
+ * {@code getEdgeLimit(u)} (exclusive) of the {@code target} and {@code costSeconds}
+ * arrays, so that a search only walks primitive arrays and never calls back into
+ * the {@link INode}/{@link IArrow} objects. Since it is never modified once built,
+ * one instance can be shared by any number of concurrent searches.
+ *
+ * The incoming arrows of each node are indexed the same way, from
+ * {@code getFirstIncoming(v)} to {@code getIncomingLimit(v)}, and refer to the
+ * arrows above, so that a search can also walk the graph backwards.
+ *
+ * The strongly connected components of the graph are computed along with the snapshot,
+ * so that the searches reject the targets that cannot be reached without exploring anything.
+ */
+public final class RoutingGraph {
+
+	// nodes[i] is the node of the original graph that has the index i
+	private final INode[] nodes;
+	private final Map<INode, Integer> indices;
+
+	// The arrows leaving node u are stored from firstEdge[u] to firstEdge[u + 1] - 1
+	private final int[] firstEdge;
+	private final int[] target;
+	private final int[] costSeconds;
+	private final int maxCost;
+
+	// arrows[e] is the arrow of the original graph stored at the index e, null if it has none
+	private final IArrow[] arrows;
+
+	// The arrows entering node v are incomingEdge[firstIncoming[v]] to incomingEdge[firstIncoming[v + 1] - 1],
+	// and edgeSource[e] is the node the arrow e leaves
+	private final int[] firstIncoming;
+	private final int[] incomingEdge;
+	private final int[] edgeSource;
+
+	private final StronglyConnectedComponents components;
+
+	private RoutingGraph(INode[] nodes, Map<INode, Integer> indices,
+			int[] arcSource, int[] arcTarget, int[] arcCost, IArrow[] arcArrow, int arcCount) {
+		this.nodes = nodes;
+		this.indices = indices;
+		this.firstEdge = new int[nodes.length + 1];
+		this.target = new int[arcCount];
+		this.costSeconds = new int[arcCount];
+		this.arrows = new IArrow[arcCount];
+
+		// Counting sort of the arrows by source node
+		for (int a = 0; a < arcCount; a++) {
+			firstEdge[arcSource[a] + 1]++;
+		}
+		for (int u = 0; u < nodes.length; u++) {
+			firstEdge[u + 1] += firstEdge[u];
+		}
+		this.edgeSource = new int[arcCount];
+		int largestCost = 0;
+		int[] next = Arrays.copyOf(firstEdge, nodes.length);
+		for (int a = 0; a < arcCount; a++) {
+			int slot = next[arcSource[a]]++;
+			target[slot] = arcTarget[a];
+			costSeconds[slot] = arcCost[a];
+			arrows[slot] = arcArrow[a];
+			edgeSource[slot] = arcSource[a];
+			largestCost = Math.max(largestCost, arcCost[a]);
+		}
+		this.maxCost = largestCost;
+
+		// Same sort of the arrows by target node, for the backward searches
+		this.firstIncoming = new int[nodes.length + 1];
+		this.incomingEdge = new int[arcCount];
+		for (int e = 0; e < arcCount; e++) {
+			firstIncoming[target[e] + 1]++;
+		}
+		for (int v = 0; v < nodes.length; v++) {
+			firstIncoming[v + 1] += firstIncoming[v];
+		}
+		next = Arrays.copyOf(firstIncoming, nodes.length);
+		for (int e = 0; e < arcCount; e++) {
+			incomingEdge[next[target[e]]++] = e;
+		}
+
+		this.components = StronglyConnectedComponents.build(this);
+	}
+
+	/**
+	 * Builds the CSR snapshot of a graph. Arrows whose target does not belong to
+	 * the graph are ignored, as they are by {@link DijkstraPathFinder}.
+	 *
+	 * @param graph the graph to convert
+	 * @return the snapshot
+	 */
+	public static RoutingGraph fromGraph(IGraph graph) {
+		if (graph == null) throw new IllegalArgumentException("Error : The graph is null");
+
+		Builder builder = new Builder();
+		for (INode node : graph.getAllNodes()) {
+			builder.addNode(node);
+		}
+		for (INode node : graph.getAllNodes()) {
+			int from = builder.indexOf(node);
+			for (IArrow arrow : node.getOutgoingArrows()) {
+				int to = builder.indexOf(arrow.getTarget());
+				if (to != -1) {
+					builder.addArc(from, to, arrow);
+				}
+			}
+		}
+		return builder.build();
+	}
+
+	public int getNodeCount() {
+		return nodes.length;
+	}
+
+	public int getEdgeCount() {
+		return target.length;
+	}
+
+	/**
+	 * Returns the node that has the given index.
+	 *
+	 * @param index the index of the node
+	 * @return the node
+	 */
+	public INode getNode(int index) {
+		return nodes[index];
+	}
+
+	/**
+	 * Returns the index of a node, or -1 if the node does not belong to this graph.
+	 *
+	 * @param node the node
+	 * @return its index, or -1
+	 */
+	public int indexOf(INode node) {
+		Integer index = indices.get(node);
+		return (index == null) ? -1 : index;
+	}
+
+	public Map<INode, Integer> getIndices() {
+		return Collections.unmodifiableMap(indices);
+	}
+
+	/**
+	 * @param node the index of a node
+	 * @return the index of the first arrow leaving the node
+	 */
+	public int getFirstEdge(int node) {
+		return firstEdge[node];
+	}
+
+	/**
+	 * @param node the index of a node
+	 * @return the index following the last arrow leaving the node
+	 */
+	public int getEdgeLimit(int node) {
+		return firstEdge[node + 1];
+	}
+
+	/**
+	 * @param edge the index of an arrow
+	 * @return the index of the node the arrow is pointing towards
+	 */
+	public int getTarget(int edge) {
+		return target[edge];
+	}
+
+	/**
+	 * @param edge the index of an arrow
+	 * @return the cost of the arrow, in seconds
+	 */
+	public int getCost(int edge) {
+		return costSeconds[edge];
+	}
+
+	/**
+	 * Returns the arrow of the original graph stored at an index, to read the data that
+	 * the snapshot does not keep in its arrays.
+	 *
+	 * @param edge the index of an arrow
+	 * @return the arrow, or null if it has been added to the {@link Builder} without one
+	 */
+	public IArrow getArrow(int edge) {
+		return arrows[edge];
+	}
+
+	/**
+	 * @return the cost of the most expensive arrow, in seconds, or 0 if there is no arrow
+	 */
+	public int getMaxCost() {
+		return maxCost;
+	}
+
+	/**
+	 * @param edge the index of an arrow
+	 * @return the index of the node the arrow is leaving
+	 */
+	public int getSource(int edge) {
+		return edgeSource[edge];
+	}
+
+	/**
+	 * @param node the index of a node
+	 * @return the position of the first arrow entering the node
+	 */
+	public int getFirstIncoming(int node) {
+		return firstIncoming[node];
+	}
+
+	/**
+	 * @param node the index of a node
+	 * @return the position following the last arrow entering the node
+	 */
+	public int getIncomingLimit(int node) {
+		return firstIncoming[node + 1];
+	}
+
+	/**
+	 * @param position a position between {@link #getFirstIncoming(int)} and {@link #getIncomingLimit(int)}
+	 * @return the index of the arrow at that position
+	 */
+	public int getIncomingEdge(int position) {
+		return incomingEdge[position];
+	}
+
+	/**
+	 * @return the strongly connected components of the graph
+	 */
+	public StronglyConnectedComponents getComponents() {
+		return components;
+	}
+
+	/**
+	 * Checks that a node index belongs to this graph.
+	 *
+	 * @param index the index to check
+	 * @throws NodeNotFoundException if it does not
+	 */
+	void checkNode(int index) throws NodeNotFoundException {
+		if ((index < 0) || (index >= nodes.length))
+			throw new NodeNotFoundException("The graph does not contain the node " + index);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("RoutingGraph with %d nodes and %d arrows", nodes.length, target.length);
+	}
+
+	/**
+	 * Incremental construction of a {@link RoutingGraph}, for callers that do not
+	 * have an {@link IGraph} at hand.
+	 */
+	public static class Builder {
+
+		private INode[] nodes = new INode[16];
+		private final Map<INode, Integer> indices = new HashMap<>();
+		private int nodeCount;
+
+		private int[] arcSource = new int[16];
+		private int[] arcTarget = new int[16];
+		private int[] arcCost = new int[16];
+		private IArrow[] arcArrow = new IArrow[16];
+		private int arcCount;
+
+		/**
+		 * Adds a node, unless it has already been added.
+		 *
+		 * @param node the node
+		 * @return the index of the node
+		 */
+		public int addNode(INode node) {
+			Integer index = indices.get(node);
+			if (index != null) return index;
+
+			if (nodeCount == nodes.length) {
+				nodes = Arrays.copyOf(nodes, 2 * nodeCount);
+			}
+			nodes[nodeCount] = node;
+			indices.put(node, nodeCount);
+			return nodeCount++;
+		}
+
+		/**
+		 * @param node a node
+		 * @return the index of the node, or -1 if it has not been added
+		 */
+		public int indexOf(INode node) {
+			Integer index = indices.get(node);
+			return (index == null) ? -1 : index;
+		}
+
+		/**
+		 * Adds an arrow between two nodes that have already been added.
+		 *
+		 * @param from the index of the source node
+		 * @param to   the index of the target node
+		 * @param cost the cost of the arrow, in seconds
+		 */
+		public void addArc(int from, int to, int cost) {
+			addArc(from, to, cost, null);
+		}
+
+		/**
+		 * Adds an arrow of the original graph between two nodes that have already been added.
+		 *
+		 * @param from  the index of the source node
+		 * @param to    the index of the target node
+		 * @param arrow the arrow, whose cost is given in seconds
+		 */
+		public void addArc(int from, int to, IArrow arrow) {
+			addArc(from, to, arrow.getCost(), arrow);
+		}
+
+		private void addArc(int from, int to, int cost, IArrow arrow) {
+			if ((from < 0) || (from >= nodeCount) || (to < 0) || (to >= nodeCount))
+				throw new IllegalArgumentException("Error : Unknown node index");
+			if (cost < 0)
+				throw new IllegalArgumentException("Error : The cost of an arrow cannot be negative");
+
+			if (arcCount == arcSource.length) {
+				arcSource = Arrays.copyOf(arcSource, 2 * arcCount);
+				arcTarget = Arrays.copyOf(arcTarget, 2 * arcCount);
+				arcCost = Arrays.copyOf(arcCost, 2 * arcCount);
+				arcArrow = Arrays.copyOf(arcArrow, 2 * arcCount);
+			}
+			arcSource[arcCount] = from;
+			arcTarget[arcCount] = to;
+			arcCost[arcCount] = cost;
+			arcArrow[arcCount] = arrow;
+			arcCount++;
+		}
+
+		public RoutingGraph build() {
+			return new RoutingGraph(Arrays.copyOf(nodes, nodeCount), new HashMap<>(indices),
+					arcSource, arcTarget, arcCost, arcArrow, arcCount);
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package fr.u_paris.gla.project.core.shortest_path_finder;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A path found in a {@link RoutingGraph}, given as the sequence of the indices of
+ * its nodes, along with its total cost.
+ */
+public final class RoutingPath {
+
+	private final RoutingGraph graph;
+	private final int[] nodes;
+	private final int cost;
+
+	public RoutingPath(RoutingGraph graph, int[] nodes, int cost) {
+		if ((graph == null) || (nodes == null) || (nodes.length == 0))
+			throw new IllegalArgumentException("Error : The path is empty");
+
+		this.graph = graph;
+		this.nodes = nodes;
+		this.cost = cost;
+	}
+
+	public RoutingGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * @return the cost of the path, in seconds
+	 */
+	public int getCost() {
+		return cost;
+	}
+
+	/**
+	 * @return the number of nodes of the path
+	 */
+	public int size() {
+		return nodes.length;
+	}
+
+	/**
+	 * @param position a position in the path
+	 * @return the index of the node at that position
+	 */
+	public int getNodeIndex(int position) {
+		return nodes[position];
+	}
+
+	/**
+	 * @return the indices of the nodes of the path, not to be modified
+	 */
+	int[] getNodeIndices() {
+		return nodes;
+	}
+
+	public int getSource() {
+		return nodes[0];
+	}
+
+	public int getTarget() {
+		return nodes[nodes.length - 1];
+	}
+
+	/**
+	 * Returns the nodes of the path, as nodes of the graph the snapshot has been built from.
+	 *
+	 * @return an unmodifiable view of the nodes
+	 */
+	public List<INode> getNodes() {
+		return new AbstractList<INode>() {
+			@Override
+			public INode get(int position) {
+				return graph.getNode(nodes[position]);
+			}
+
+			@Override
+			public int size() {
+				return nodes.length;
+			}
+		};
+	}
+
+	@Override
+	public String toString() {
+		return String.format("RoutingPath of %d nodes, cost %d", nodes.length, cost);
+	}
+}
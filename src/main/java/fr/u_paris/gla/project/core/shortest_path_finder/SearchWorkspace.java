@@ -0,0 +1,161 @@
+package fr.u_paris.gla.project.core.shortest_path_finder;
+
+import java.util.Arrays;
+
+/**
+ * The arrays of the searches on a {@link RoutingGraph}, kept by each thread and reused
+ * from one query to the next, so that answering a query allocates nothing but its result.
+ *
+ * Instead of being cleared, the labels of the nodes are stamped with the epoch of the
+ * search that wrote them: a label with an older stamp is read as "not reached yet",
+ * and starting a new search only increments the epoch. A workspace holds two sets of
+ * labels, for the forward and the backward searches of the bidirectional algorithms.
+ *
+ * A search takes the workspace of its thread with {@link #acquire(int)} and gives it
+ * back with {@link #release()}. If the workspace is already in use, because a search
+ * is nested in another one, a temporary workspace is handed out instead.
+ */
+final class SearchWorkspace {
+
+	private static final ThreadLocal<SearchWorkspace> WORKSPACES = ThreadLocal.withInitial(SearchWorkspace::new);
+
+	private final Labels forward = new Labels();
+	private final Labels backward = new Labels();
+
+	private boolean inUse;
+
+	private SearchWorkspace() {}
+
+	/**
+	 * Returns a workspace for a search on a graph, with all its labels unset.
+	 *
+	 * @param nodeCount the number of nodes of the graph
+	 * @return the workspace of the current thread, or a new one if it is already in use
+	 */
+	static SearchWorkspace acquire(int nodeCount) {
+		SearchWorkspace workspace = WORKSPACES.get();
+		if (workspace.inUse) {
+			workspace = new SearchWorkspace();
+		}
+		workspace.inUse = true;
+		workspace.forward.reset(nodeCount);
+		workspace.backward.reset(nodeCount);
+		return workspace;
+	}
+
+	/**
+	 * Gives the workspace back, for the next search of the thread.
+	 */
+	void release() {
+		forward.queue.clear();
+		backward.queue.clear();
+		inUse = false;
+	}
+
+	/**
+	 * Unsets all the labels, for another search with the same workspace.
+	 */
+	void restart() {
+		forward.reset(forward.reachedEpoch.length);
+		backward.reset(backward.reachedEpoch.length);
+	}
+
+	Labels forward() {
+		return forward;
+	}
+
+	Labels backward() {
+		return backward;
+	}
+
+	/**
+	 * The labels of the nodes in one search: the distance, the parent (a node or an
+	 * arrow, depending on the search) and the number of arrows of the best known path,
+	 * whether the node has been settled, and whether it is a target. Only the labels
+	 * stamped with the current epoch are meaningful.
+	 */
+	static final class Labels {
+
+		private int[] reachedEpoch = new int[0];
+		private int[] settledEpoch = new int[0];
+		private int[] targetEpoch = new int[0];
+		private int[] distance = new int[0];
+		private int[] parent = new int[0];
+		private int[] hops = new int[0];
+		private int epoch;
+
+		private IndexedMinHeap queue = new IndexedMinHeap(0);
+
+		private void reset(int nodeCount) {
+			if (reachedEpoch.length < nodeCount) {
+				reachedEpoch = new int[nodeCount];
+				settledEpoch = new int[nodeCount];
+				targetEpoch = new int[nodeCount];
+				distance = new int[nodeCount];
+				parent = new int[nodeCount];
+				hops = new int[nodeCount];
+				queue = new IndexedMinHeap(nodeCount);
+				epoch = 0;
+			}
+
+			// After about two billion searches, the stamps are cleared once
+			if (epoch == Integer.MAX_VALUE) {
+				Arrays.fill(reachedEpoch, 0);
+				Arrays.fill(settledEpoch, 0);
+				Arrays.fill(targetEpoch, 0);
+				epoch = 0;
+			}
+			epoch++;
+			queue.clear();
+		}
+
+		IndexedMinHeap queue() {
+			return queue;
+		}
+
+		boolean isReached(int node) {
+			return reachedEpoch[node] == epoch;
+		}
+
+		/**
+		 * @return the distance of the node, or {@link Integer#MAX_VALUE} if it has not been reached
+		 */
+		int getDistance(int node) {
+			return isReached(node) ? distance[node] : Integer.MAX_VALUE;
+		}
+
+		/**
+		 * @return the parent of the node, or -1 if it has none or has not been reached
+		 */
+		int getParent(int node) {
+			return isReached(node) ? parent[node] : -1;
+		}
+
+		int getHops(int node) {
+			return isReached(node) ? hops[node] : 0;
+		}
+
+		void reach(int node, int nodeDistance, int nodeParent, int nodeHops) {
+			reachedEpoch[node] = epoch;
+			distance[node] = nodeDistance;
+			parent[node] = nodeParent;
+			hops[node] = nodeHops;
+		}
+
+		boolean isSettled(int node) {
+			return settledEpoch[node] == epoch;
+		}
+
+		void settle(int node) {
+			settledEpoch[node] = epoch;
+		}
+
+		boolean isTarget(int node) {
+			return targetEpoch[node] == epoch;
+		}
+
+		void markTarget(int node) {
+			targetEpoch[node] = epoch;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package fr.u_paris.gla.project.core.shortest_path_finder;
+
+/**
+ * The shortest paths from a group of source nodes to every node of a {@link RoutingGraph}
+ * reached within a cost bound, as computed by
+ * {@link DijkstraPathFinder#computeShortestPathTree(RoutingGraph, int[], int)}.
+ * Each reached node keeps its distance and the node preceding it on its shortest path,
+ * so the path to any of them can be rebuilt without another search.
+ */
+public final class ShortestPathTree {
+
+	private final RoutingGraph graph;
+	private final int[] distance;
+	private final int[] parent;
+	private final int reachedCount;
+
+	ShortestPathTree(RoutingGraph graph, int[] distance, int[] parent, int reachedCount) {
+		this.graph = graph;
+		this.distance = distance;
+		this.parent = parent;
+		this.reachedCount = reachedCount;
+	}
+
+	public RoutingGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * @return the number of nodes reached, the sources included
+	 */
+	public int getReachedCount() {
+		return reachedCount;
+	}
+
+	public boolean isReached(int node) {
+		return distance[node] != Integer.MAX_VALUE;
+	}
+
+	/**
+	 * @param node the index of a node
+	 * @return the cost of the shortest path to the node, or {@link Integer#MAX_VALUE} if it has not been reached
+	 */
+	public int getDistance(int node) {
+		return distance[node];
+	}
+
+	/**
+	 * @param node the index of a node
+	 * @return the node preceding it on its shortest path, or -1 for the sources and the nodes not reached
+	 */
+	public int getParent(int node) {
+		return parent[node];
+	}
+
+	/**
+	 * Rebuilds the shortest path from the sources to a node.
+	 *
+	 * @param target the index of the node
+	 * @return the shortest path and its cost
+	 * @throws PathNotFoundException if the node has not been reached
+	 */
+	public RoutingPath getPath(int target) throws PathNotFoundException {
+		if (! isReached(target)) throw new PathNotFoundException("Cannot find the shortest path");
+
+		int length = 1;
+		for (int node = target; parent[node] != -1; node = parent[node]) length++;
+
+		int[] path = new int[length];
+		int node = target;
+		for (int i = length - 1; i >= 0; i--) {
+			path[i] = node;
+			node = parent[node];
+		}
+		return new RoutingPath(graph, path, distance[target]);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ShortestPathTree reaching %d of %d nodes", reachedCount, distance.length);
+	}
+}
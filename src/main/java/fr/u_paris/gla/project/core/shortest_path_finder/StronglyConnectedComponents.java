@@ -0,0 +1,211 @@
+package fr.u_paris.gla.project.core.shortest_path_finder;
+
+import java.util.Arrays;
+
+/**
+ * The strongly connected components of a {@link RoutingGraph}, found by Tarjan's
+ * algorithm, and its weakly connected components, so that most of the pairs of
+ * nodes that cannot reach each other are told apart without any search.
+ *
+ * Tarjan's algorithm numbers a component only once the components it can reach are
+ * numbered, so an arrow never leads to a component with a larger number. A node can
+ * therefore reach another one only if they are in the same weak component and if the
+ * component of the first one does not have a smaller number than the one of the other.
+ * The check is exact for the nodes of a same strong component, which always reach
+ * each other, and for the nodes of different weak components, which never do.
+ *
+ * The depth-first search keeps its own stack, so that long lines do not overflow the
+ * stack of the thread.
+ */
+public final class StronglyConnectedComponents {
+
+	// component[v] is the number of the strong component of v, weakComponent[v] the one of its weak component
+	private final int[] component;
+	private final int[] weakComponent;
+	private final int componentCount;
+	private final int weakComponentCount;
+
+	private StronglyConnectedComponents(int[] component, int componentCount, int[] weakComponent,
+			int weakComponentCount) {
+		this.component = component;
+		this.componentCount = componentCount;
+		this.weakComponent = weakComponent;
+		this.weakComponentCount = weakComponentCount;
+	}
+
+	/**
+	 * Computes the components of a graph, in time linear in its size.
+	 *
+	 * @param graph the CSR snapshot
+	 * @return its components
+	 */
+	public static StronglyConnectedComponents build(RoutingGraph graph) {
+		if (graph == null) throw new IllegalArgumentException("Error : The graph is null");
+
+		int nodeCount = graph.getNodeCount();
+		int[] component = new int[nodeCount];
+		int componentCount = computeStrongComponents(graph, component);
+
+		// Union-find on the arrows taken in both directions, then the roots are numbered
+		int[] parent = new int[nodeCount];
+		for (int v = 0; v < nodeCount; v++) {
+			parent[v] = v;
+		}
+		for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+			int a = findRoot(parent, graph.getSource(edge));
+			int b = findRoot(parent, graph.getTarget(edge));
+			if (a != b) parent[a] = b;
+		}
+		int[] weakComponent = new int[nodeCount];
+		int[] rootComponent = new int[nodeCount];
+		Arrays.fill(rootComponent, -1);
+		int weakComponentCount = 0;
+		for (int v = 0; v < nodeCount; v++) {
+			int root = findRoot(parent, v);
+			if (rootComponent[root] == -1) rootComponent[root] = weakComponentCount++;
+			weakComponent[v] = rootComponent[root];
+		}
+
+		return new StronglyConnectedComponents(component, componentCount, weakComponent, weakComponentCount);
+	}
+
+	private static int computeStrongComponents(RoutingGraph graph, int[] component) {
+		int nodeCount = graph.getNodeCount();
+
+		// index[v] is the order in which v has been discovered, -1 if it has not been yet,
+		// and lowLink[v] the smallest index reachable from v among the nodes still on the stack
+		int[] index = new int[nodeCount];
+		int[] lowLink = new int[nodeCount];
+		Arrays.fill(index, -1);
+		boolean[] onStack = new boolean[nodeCount];
+		int[] stack = new int[nodeCount];
+		int stackSize = 0;
+
+		// The path of the depth-first search, and the next arrow to follow from each of its nodes
+		int[] path = new int[nodeCount];
+		int[] nextEdge = new int[nodeCount];
+		int depth = 0;
+
+		int discovered = 0;
+		int componentCount = 0;
+		for (int root = 0; root < nodeCount; root++) {
+			if (index[root] != -1) continue;
+
+			index[root] = lowLink[root] = discovered++;
+			stack[stackSize++] = root;
+			onStack[root] = true;
+			nextEdge[root] = graph.getFirstEdge(root);
+			path[depth++] = root;
+
+			while (depth > 0) {
+				int v = path[depth - 1];
+				if (nextEdge[v] < graph.getEdgeLimit(v)) {
+					int w = graph.getTarget(nextEdge[v]++);
+					if (index[w] == -1) {
+						index[w] = lowLink[w] = discovered++;
+						stack[stackSize++] = w;
+						onStack[w] = true;
+						nextEdge[w] = graph.getFirstEdge(w);
+						path[depth++] = w;
+					} else if (onStack[w]) {
+						lowLink[v] = Math.min(lowLink[v], index[w]);
+					}
+					continue;
+				}
+
+				// Every arrow of v has been followed: v is either the root of a component or part of its parent's
+				depth--;
+				if (lowLink[v] == index[v]) {
+					int w;
+					do {
+						w = stack[--stackSize];
+						onStack[w] = false;
+						component[w] = componentCount;
+					} while (w != v);
+					componentCount++;
+				}
+				if (depth > 0) {
+					int u = path[depth - 1];
+					lowLink[u] = Math.min(lowLink[u], lowLink[v]);
+				}
+			}
+		}
+		return componentCount;
+	}
+
+	private static int findRoot(int[] parent, int v) {
+		while (parent[v] != v) {
+			parent[v] = parent[parent[v]];
+			v = parent[v];
+		}
+		return v;
+	}
+
+	public int getComponentCount() {
+		return componentCount;
+	}
+
+	public int getWeakComponentCount() {
+		return weakComponentCount;
+	}
+
+	/**
+	 * @param node the index of a node
+	 * @return the number of its strong component
+	 */
+	public int getComponent(int node) {
+		return component[node];
+	}
+
+	/**
+	 * @param node the index of a node
+	 * @return the number of its weak component
+	 */
+	public int getWeakComponent(int node) {
+		return weakComponent[node];
+	}
+
+	/**
+	 * @param from the index of a node
+	 * @param to the index of another node
+	 * @return true if each node can reach the other one
+	 */
+	public boolean isStronglyConnected(int from, int to) {
+		return component[from] == component[to];
+	}
+
+	/**
+	 * Tells whether a node may reach another one. A false answer is certain, a true
+	 * answer may still need a search to be confirmed.
+	 *
+	 * @param from the index of the source node
+	 * @param to the index of the target node
+	 * @return false if the target cannot be reached from the source
+	 */
+	public boolean mayReach(int from, int to) {
+		return (weakComponent[from] == weakComponent[to]) && (component[from] >= component[to]);
+	}
+
+	/**
+	 * Tells whether any of the source nodes may reach any of the target nodes, like
+	 * {@link #mayReach(int, int)}.
+	 *
+	 * @param sources the indices of the source nodes
+	 * @param targets the indices of the target nodes
+	 * @return false if none of the targets can be reached from the sources
+	 */
+	public boolean mayReach(int[] sources, int[] targets) {
+		for (int source : sources) {
+			for (int target : targets) {
+				if (mayReach(source, target)) return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("StronglyConnectedComponents: %d strong components, %d weak components",
+				componentCount, weakComponentCount);
+	}
+}
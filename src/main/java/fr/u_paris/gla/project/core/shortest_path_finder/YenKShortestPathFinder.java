@@ -0,0 +1,265 @@
+package fr.u_paris.gla.project.core.shortest_path_finder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * A utility class for Yen's algorithm, which finds the k shortest loopless paths from
+ * a group of source nodes to a group of target nodes of a {@link RoutingGraph}.
+ *
+ * The first path is the shortest one. Each following path is found among the candidates
+ * obtained by deviating from the last path found: for every node of that path, a spur
+ * search looks for the shortest way from the node to the targets, avoiding the nodes of
+ * the path before it (the root) and the arrows taken after the same root by the paths
+ * already found. The sources hang from a virtual root, so that a path starting from
+ * another source is also a deviation. A path starts at one of the sources, ends at the
+ * first target it meets and does not go through any other source.
+ *
+ * The spur searches of a path are independent, so they run in parallel, each of them in
+ * the search workspace of its thread.
+ *
+ * Alternatives that only differ by transfers inside a station are of little use to
+ * a rider. Given the group (the station) of every node, the paths can be required to go
+ * through different sequences of groups: a candidate with the same sequence as a path
+ * already returned is not returned, but is still deviated from, since its deviations
+ * may be different. At most {@link #EXPLORED_PATHS_PER_RESULT} paths per path asked
+ * for are deviated from, so that a long run of similar paths cannot keep the search going.
+ */
+public class YenKShortestPathFinder {
+
+	/** Most paths deviated from per path asked for, when the groups must differ */
+	private static final int EXPLORED_PATHS_PER_RESULT = 10;
+
+	/** Candidates are ordered by cost, then by number of nodes, then by their nodes */
+	private static final Comparator<RoutingPath> PATH_ORDER = Comparator
+			.comparingInt(RoutingPath::getCost)
+			.thenComparingInt(RoutingPath::size)
+			.thenComparing(RoutingPath::getNodeIndices, Arrays::compare);
+
+	/** Hidden constructor */
+	private YenKShortestPathFinder() {}
+
+	/**
+	 * Computes the k shortest loopless paths from any of the source nodes to any of the
+	 * target nodes of a {@link RoutingGraph}.
+	 *
+	 * @param graph the CSR snapshot to search
+	 * @param sources the indices of the source nodes
+	 * @param targets the indices of the target nodes
+	 * @param k the largest number of paths
+	 * @return at most k paths, by increasing cost
+	 * @throws NodeNotFoundException if one of the indices does not belong to the graph
+	 * @throws PathNotFoundException if none of the targets can be reached from the sources
+	 */
+	public static List<RoutingPath> computeShortestPaths(RoutingGraph graph, int[] sources, int[] targets, int k)
+			throws NodeNotFoundException, PathNotFoundException {
+
+		return computeShortestPaths(graph, sources, targets, k, null);
+	}
+
+	/**
+	 * Computes the k shortest loopless paths from any of the source nodes to any of the
+	 * target nodes of a {@link RoutingGraph}, going through different sequences of groups.
+	 *
+	 * @param graph the CSR snapshot to search
+	 * @param sources the indices of the source nodes
+	 * @param targets the indices of the target nodes
+	 * @param k the largest number of paths
+	 * @param groups the group of every node, or null to keep every loopless path
+	 * @return at most k paths, by increasing cost
+	 * @throws NodeNotFoundException if one of the indices does not belong to the graph
+	 * @throws PathNotFoundException if none of the targets can be reached from the sources
+	 */
+	public static List<RoutingPath> computeShortestPaths(RoutingGraph graph, int[] sources, int[] targets, int k,
+			int[] groups) throws NodeNotFoundException, PathNotFoundException {
+
+		if ((graph == null) || (sources == null) || (targets == null))
+			throw new IllegalArgumentException();
+		if ((sources.length == 0) || (targets.length == 0))
+			throw new IllegalArgumentException("Error : There must be at least one source and one target");
+		if (k < 1)
+			throw new IllegalArgumentException("Error : At least one path must be asked for");
+		if ((groups != null) && (groups.length != graph.getNodeCount()))
+			throw new IllegalArgumentException("Error : There must be one group per node");
+
+		for (int source : sources) graph.checkNode(source);
+		for (int target : targets) graph.checkNode(target);
+
+		// The components tell at once that no target can be reached, without exploring the graph
+		if (! graph.getComponents().mayReach(sources, targets))
+			throw new PathNotFoundException("Cannot find the shortest path");
+
+		int[] distinctSources = Arrays.stream(sources).distinct().toArray();
+		int[] distinctTargets = Arrays.stream(targets).distinct().toArray();
+
+		// The paths deviated from, and among them the ones returned
+		List<RoutingPath> explored = new ArrayList<>();
+		List<RoutingPath> paths = new ArrayList<>();
+		Set<List<Integer>> groupSequences = new HashSet<>();
+		long maxExplored = (long) k * EXPLORED_PATHS_PER_RESULT;
+
+		PriorityQueue<RoutingPath> candidates = new PriorityQueue<>(PATH_ORDER);
+		Set<List<Integer>> candidateNodes = new HashSet<>();
+
+		RoutingPath first = spurSearch(graph, distinctSources, distinctTargets, null, -1, List.of());
+		if (first == null) throw new PathNotFoundException("Cannot find the shortest path");
+		candidates.add(first);
+
+		while ((paths.size() < k) && (explored.size() < maxExplored) && ! candidates.isEmpty()) {
+			RoutingPath path = candidates.poll();
+			explored.add(path);
+			if ((groups == null) || groupSequences.add(groupSequence(path, groups))) {
+				paths.add(path);
+				if (paths.size() == k) break;
+			}
+
+			// The deviations from the new path, from the virtual root (-1) to its second to last node
+			List<RoutingPath> found = List.copyOf(explored);
+			List<RoutingPath> deviations = IntStream.range(-1, path.size() - 1)
+					.parallel()
+					.mapToObj(spur -> spurSearch(graph, distinctSources, distinctTargets, path, spur, found))
+					.filter(Objects::nonNull)
+					.toList();
+
+			for (RoutingPath deviation : deviations) {
+				if (candidateNodes.add(nodeList(deviation))) candidates.add(deviation);
+			}
+		}
+
+		return paths;
+	}
+
+	/**
+	 * Searches the shortest deviation of a path at one of its nodes.
+	 *
+	 * @param path the path to deviate from, or null for the shortest path
+	 * @param spur the position of the node the deviation leaves the path at, -1 for the virtual root
+	 * @param found the paths already deviated from
+	 * @return the deviation, or null if there is none
+	 */
+	private static RoutingPath spurSearch(RoutingGraph graph, int[] sources, int[] targets,
+			RoutingPath path, int spur, List<RoutingPath> found) {
+
+		SearchWorkspace workspace = SearchWorkspace.acquire(graph.getNodeCount());
+		try {
+			SearchWorkspace.Labels labels = workspace.forward();
+			IndexedMinHeap queue = labels.queue();
+
+			for (int target : targets) labels.markTarget(target);
+
+			// A node is avoided by settling it before the search starts: the root,
+			// and the sources that do not start the deviation
+			int[] root = (path == null) ? new int[0] : Arrays.copyOf(path.getNodeIndices(), spur + 1);
+			for (int i = 0; i < root.length - 1; i++) labels.settle(root[i]);
+
+			// The next nodes of the paths found after the same root cannot follow it again
+			Set<Integer> bannedNext = new HashSet<>();
+			for (RoutingPath other : found) {
+				int[] nodes = other.getNodeIndices();
+				if ((nodes.length > root.length) && Arrays.equals(nodes, 0, root.length, root, 0, root.length)) {
+					bannedNext.add(nodes[root.length]);
+				}
+			}
+
+			int rootCost = 0;
+			if (root.length == 0) {
+				for (int source : sources) {
+					if (bannedNext.contains(source)) {
+						labels.settle(source);
+					} else {
+						labels.reach(source, 0, -1, 0);
+						queue.insertOrDecrease(source, 0);
+					}
+				}
+				if (queue.isEmpty()) return null;
+			} else {
+				for (int source : sources) {
+					if (source != root[root.length - 1]) labels.settle(source);
+				}
+				for (int i = 0; i < root.length - 1; i++) rootCost += arrowCost(graph, root[i], root[i + 1]);
+				labels.reach(root[root.length - 1], 0, -1, 0);
+				queue.insertOrDecrease(root[root.length - 1], 0);
+			}
+
+			while (! queue.isEmpty()) {
+				int current = queue.poll();
+				labels.settle(current);
+				int currentDistance = labels.getDistance(current);
+				int currentHops = labels.getHops(current);
+
+				// The path ends at the first target met
+				if (labels.isTarget(current)) {
+					return join(graph, root, labels, current, rootCost + currentDistance);
+				}
+
+				boolean isSpur = (root.length > 0) && (current == root[root.length - 1]);
+				for (int edge = graph.getFirstEdge(current); edge < graph.getEdgeLimit(current); edge++) {
+					int neighbor = graph.getTarget(edge);
+					if (labels.isSettled(neighbor) || (isSpur && bannedNext.contains(neighbor))) continue;
+
+					int distance = currentDistance + graph.getCost(edge);
+					if (! labels.isReached(neighbor) || (distance < labels.getDistance(neighbor))
+							|| ((distance == labels.getDistance(neighbor)) && (currentHops + 1 < labels.getHops(neighbor)))) {
+						labels.reach(neighbor, distance, current, currentHops + 1);
+						queue.insertOrDecrease(neighbor, distance);
+					}
+				}
+			}
+			return null;
+		} finally {
+			workspace.release();
+		}
+	}
+
+	/**
+	 * Joins the root of a deviation, without its last node, and the path found by the spur search.
+	 */
+	private static RoutingPath join(RoutingGraph graph, int[] root, SearchWorkspace.Labels labels, int target, int cost) {
+		int spurLength = 1;
+		for (int node = target; labels.getParent(node) != -1; node = labels.getParent(node)) spurLength++;
+
+		int rootLength = Math.max(root.length - 1, 0);
+		int[] nodes = Arrays.copyOf(root, rootLength + spurLength);
+		int node = target;
+		for (int i = nodes.length - 1; i >= rootLength; i--) {
+			nodes[i] = node;
+			node = labels.getParent(node);
+		}
+		return new RoutingPath(graph, nodes, cost);
+	}
+
+	/**
+	 * @return the cost of the cheapest arrow from a node to another one
+	 */
+	private static int arrowCost(RoutingGraph graph, int from, int to) {
+		int cost = Integer.MAX_VALUE;
+		for (int edge = graph.getFirstEdge(from); edge < graph.getEdgeLimit(from); edge++) {
+			if (graph.getTarget(edge) == to) cost = Math.min(cost, graph.getCost(edge));
+		}
+		return cost;
+	}
+
+	/**
+	 * @return the groups the path goes through, in order, each of them once in a row
+	 */
+	private static List<Integer> groupSequence(RoutingPath path, int[] groups) {
+		List<Integer> sequence = new ArrayList<>();
+		for (int node : path.getNodeIndices()) {
+			if (sequence.isEmpty() || (sequence.get(sequence.size() - 1) != groups[node])) {
+				sequence.add(groups[node]);
+			}
+		}
+		return sequence;
+	}
+
+	private static List<Integer> nodeList(RoutingPath path) {
+		return Arrays.stream(path.getNodeIndices()).boxed().toList();
+	}
+}
@@ -0,0 +1,171 @@
+package fr.u_paris.gla.project.core.timetable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.PathNotFoundException;
+
+/**
+ * A utility class for the Connection Scan Algorithm, which finds the earliest arrival
+ * in a {@link Timetable} when leaving a group of stops at a given time.
+ *
+ * The connections are scanned once, in the order of their departure times, starting at
+ * the first one leaving after the departure time. A connection can be taken if its trip
+ * has already been boarded, or if its stop is reached before it leaves; it may then improve
+ * the arrival time at its next stop, and at the stops within a footpath of it. A journey
+ * walks at most one footpath between two rides, so the footpaths do not need to be
+ * transitively closed. The scan
+ * stops at the first connection leaving after the best arrival at a target. Since it only
+ * reads a few arrays from the start to the end, it makes the most of the processor caches.
+ *
+ * The journey found is the one with the earliest arrival; among those, the one scanned first.
+ */
+public class ConnectionScanRouter {
+
+	/** Hidden constructor */
+	private ConnectionScanRouter() {}
+
+	/**
+	 * Computes the journey from a group of stops to another one that arrives first.
+	 *
+	 * @param timetable the timetable
+	 * @param sources the indices of the stops the journey can leave from
+	 * @param targets the indices of the stops the journey can arrive at
+	 * @param departureTime the time the journey can leave, in seconds
+	 * @return the journey
+	 * @throws PathNotFoundException if none of the targets can be reached from the sources after the departure time
+	 */
+	public static Journey computeEarliestArrival(Timetable timetable, int[] sources, int[] targets, int departureTime)
+			throws PathNotFoundException {
+
+		if ((timetable == null) || (sources == null) || (targets == null))
+			throw new IllegalArgumentException();
+		if ((sources.length == 0) || (targets.length == 0))
+			throw new IllegalArgumentException("Error : There must be at least one source and one target");
+		for (int stop : sources) checkStop(timetable, stop);
+		for (int stop : targets) checkStop(timetable, stop);
+
+		int stopCount = timetable.getStopCount();
+
+		// The earliest arrival at each stop by a vehicle (the departure time for the sources), and
+		// the connection it arrives by. Only these arrivals are walked from, one footpath at a time.
+		int[] rideArrival = new int[stopCount];
+		int[] arrivedBy = new int[stopCount];
+		Arrays.fill(rideArrival, Integer.MAX_VALUE);
+		Arrays.fill(arrivedBy, -1);
+
+		// The earliest arrival at each stop, by a vehicle or on foot, and the stop walked from if on foot
+		int[] arrival = new int[stopCount];
+		int[] walkedFrom = new int[stopCount];
+		Arrays.fill(arrival, Integer.MAX_VALUE);
+		Arrays.fill(walkedFrom, -1);
+
+		// The connection each trip has been boarded with
+		int[] boardedWith = new int[timetable.getTripCount()];
+		Arrays.fill(boardedWith, -1);
+
+		boolean[] isTarget = new boolean[stopCount];
+		for (int stop : targets) isTarget[stop] = true;
+
+		int best = Integer.MAX_VALUE;
+		for (int stop : sources) {
+			rideArrival[stop] = departureTime;
+			arrival[stop] = departureTime;
+		}
+		for (int stop : sources) {
+			best = Math.min(best, walkFrom(timetable, stop, rideArrival, arrival, walkedFrom, isTarget));
+		}
+
+		for (int c = timetable.findFirstConnection(departureTime); c < timetable.getConnectionCount(); c++) {
+			if (timetable.getConnectionDeparture(c) >= best) break;
+
+			int trip = timetable.getConnectionTrip(c);
+			if (boardedWith[trip] == -1) {
+				if (arrival[timetable.getConnectionFrom(c)] > timetable.getConnectionDeparture(c)) continue;
+				boardedWith[trip] = c;
+			}
+
+			int to = timetable.getConnectionTo(c);
+			int connectionArrival = timetable.getConnectionArrival(c);
+			if (connectionArrival < rideArrival[to]) {
+				rideArrival[to] = connectionArrival;
+				arrivedBy[to] = c;
+				if (connectionArrival < arrival[to]) {
+					arrival[to] = connectionArrival;
+					walkedFrom[to] = -1;
+				}
+				best = Math.min(best, walkFrom(timetable, to, rideArrival, arrival, walkedFrom, isTarget));
+			}
+		}
+
+		int target = -1;
+		for (int stop : targets) {
+			if ((arrival[stop] != Integer.MAX_VALUE) && ((target == -1) || (arrival[stop] < arrival[target]))) {
+				target = stop;
+			}
+		}
+		if (target == -1) throw new PathNotFoundException("Cannot find a journey");
+
+		return extractJourney(timetable, departureTime, target, rideArrival, arrivedBy, arrival, walkedFrom, boardedWith);
+	}
+
+	/**
+	 * Improves the arrival times at the stops within a footpath of a stop that has just been reached by a vehicle.
+	 *
+	 * @return the earliest arrival at a target among the stop and the stops reached
+	 */
+	private static int walkFrom(Timetable timetable, int stop, int[] rideArrival, int[] arrival, int[] walkedFrom,
+			boolean[] isTarget) {
+
+		int best = isTarget[stop] ? arrival[stop] : Integer.MAX_VALUE;
+		for (int position = timetable.getFirstFootpath(stop); position < timetable.getFootpathLimit(stop); position++) {
+			int neighbor = timetable.getFootpathTarget(position);
+			int time = rideArrival[stop] + timetable.getFootpathDuration(position);
+			if (time < arrival[neighbor]) {
+				arrival[neighbor] = time;
+				walkedFrom[neighbor] = stop;
+				if (isTarget[neighbor]) best = Math.min(best, time);
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Follows the rides and the walks back from the target to a source.
+	 */
+	private static Journey extractJourney(Timetable timetable, int departureTime, int target, int[] rideArrival,
+			int[] arrivedBy, int[] arrival, int[] walkedFrom, int[] boardedWith) {
+
+		List<JourneyLeg> legs = new ArrayList<>();
+		int stop = target;
+		while (true) {
+			// The stop is reached on foot, or by a vehicle
+			if (walkedFrom[stop] != -1) {
+				int from = walkedFrom[stop];
+				legs.add(new JourneyLeg(-1, from, stop, rideArrival[from], arrival[stop]));
+				stop = from;
+			}
+
+			// The stop is reached by a vehicle, or is a source
+			int connection = arrivedBy[stop];
+			if (connection == -1) break;
+
+			int boarding = boardedWith[timetable.getConnectionTrip(connection)];
+			int from = timetable.getConnectionFrom(boarding);
+			legs.add(new JourneyLeg(timetable.getConnectionTrip(connection), from, stop,
+					timetable.getConnectionDeparture(boarding), timetable.getConnectionArrival(connection)));
+			stop = from;
+		}
+		Collections.reverse(legs);
+
+		int start = legs.isEmpty() ? departureTime : legs.get(0).departureTime();
+		return new Journey(start, arrival[target], legs);
+	}
+
+	private static void checkStop(Timetable timetable, int stop) {
+		if ((stop < 0) || (stop >= timetable.getStopCount()))
+			throw new IllegalArgumentException("Error : Unknown stop index");
+	}
+}
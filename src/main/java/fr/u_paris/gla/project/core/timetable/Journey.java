@@ -0,0 +1,31 @@
+package fr.u_paris.gla.project.core.timetable;
+
+import java.util.List;
+
+/**
+ * A journey through a {@link Timetable}, made of rides and walks.
+ *
+ * @param departureTime the time the journey leaves its first stop, in seconds
+ * @param arrivalTime the time the journey reaches its last stop, in seconds
+ * @param legs the legs of the journey, in order, empty if it does not leave the departure stop
+ */
+public record Journey(int departureTime, int arrivalTime, List<JourneyLeg> legs) {
+
+	public Journey {
+		legs = List.copyOf(legs);
+	}
+
+	/**
+	 * @return the number of changes from a trip to another one
+	 */
+	public int getTransferCount() {
+		return Math.max(0, (int) legs.stream().filter(leg -> ! leg.isWalking()).count() - 1);
+	}
+
+	/**
+	 * @return the duration of the journey, in seconds
+	 */
+	public int getDuration() {
+		return arrivalTime - departureTime;
+	}
+}
@@ -0,0 +1,17 @@
+package fr.u_paris.gla.project.core.timetable;
+
+/**
+ * A leg of a {@link Journey}: a ride on a trip between two of its stops, or a walk along a footpath.
+ *
+ * @param trip the index of the trip, or -1 for a walk
+ * @param fromStop the index of the stop the leg leaves from
+ * @param toStop the index of the stop the leg arrives at
+ * @param departureTime the departure time, in seconds
+ * @param arrivalTime the arrival time, in seconds
+ */
+public record JourneyLeg(int trip, int fromStop, int toStop, int departureTime, int arrivalTime) {
+
+	public boolean isWalking() {
+		return trip == -1;
+	}
+}
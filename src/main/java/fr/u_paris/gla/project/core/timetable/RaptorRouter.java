@@ -0,0 +1,511 @@
+package fr.u_paris.gla.project.core.timetable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.PathNotFoundException;
+
+/**
+ * A utility class for RAPTOR (Round-bAsed Public Transit Optimized Router), which finds
+ * in a {@link Timetable} the journeys leaving a group of stops at a given time that are
+ * Pareto-optimal for the arrival time and the number of trips ridden.
+ *
+ * Round k finds the earliest arrivals with k trips: each route through a stop improved in
+ * the previous round is scanned once along its stops, boarding the earliest trip that
+ * can be caught and getting off wherever this improves an arrival, then the footpaths
+ * are walked from the stops reached. A journey walks at most one footpath between two
+ * rides, like with the {@link ConnectionScanRouter}. An arrival is only kept if it is
+ * earlier than every arrival with fewer trips, at the stop and at the targets, so each
+ * round only scans the routes of the stops it improved, and the search stops when a round
+ * improves nothing. It needs no preprocessing but the grouping of the trips into routes,
+ * and all the labels are flat arrays of primitives.
+ *
+ * The profile queries, over a window of departure times, run rRAPTOR: one search per
+ * departure time of a trip from the sources, from the latest to the earliest, without
+ * clearing the labels in between. An arrival found for a later departure is still possible
+ * when leaving earlier, so it prunes the following searches, and each search only reports
+ * the journeys that arrive earlier than every journey leaving later with as many trips.
+ *
+ * @see Timetable#getRouteCount()
+ */
+public class RaptorRouter {
+
+	/** Hidden constructor */
+	private RaptorRouter() {}
+
+	/**
+	 * Computes the journeys from a group of stops to another one that are Pareto-optimal
+	 * for the arrival time and the number of trips ridden: each journey arrives
+	 * strictly earlier than the ones with fewer trips.
+	 *
+	 * @param timetable the timetable
+	 * @param sources the indices of the stops the journeys can leave from
+	 * @param targets the indices of the stops the journeys can arrive at
+	 * @param departureTime the time the journeys can leave, in seconds
+	 * @param maxTransfers the largest number of changes from a trip to another one
+	 * @return the journeys, by increasing number of trips and decreasing arrival time
+	 * @throws PathNotFoundException if none of the targets can be reached from the sources after the departure time
+	 */
+	public static List<Journey> computeParetoJourneys(Timetable timetable, int[] sources, int[] targets,
+			int departureTime, int maxTransfers) throws PathNotFoundException {
+
+		checkArguments(timetable, sources, targets, maxTransfers);
+
+		Search search = new Search(timetable, targets, maxTransfers + 1);
+		search.run(sources, departureTime, Integer.MAX_VALUE);
+
+		List<Journey> journeys = search.extractParetoJourneys(departureTime, 0);
+		if (journeys.isEmpty()) throw new PathNotFoundException("Cannot find a journey");
+		return journeys;
+	}
+
+	/**
+	 * Computes the profile of the journeys from a group of stops to another one over a window
+	 * of departure times: the journeys leaving in the window that are Pareto-optimal for the
+	 * departure time, the arrival time and the number of trips ridden. No other journey
+	 * leaves later, arrives earlier and rides fewer trips. The journeys without any trip,
+	 * which can leave at any time, are only given once, leaving at the start of the window.
+	 *
+	 * @param timetable the timetable
+	 * @param sources the indices of the stops the journeys can leave from
+	 * @param targets the indices of the stops the journeys can arrive at
+	 * @param earliestDeparture the start of the window, in seconds
+	 * @param latestDeparture the end of the window, in seconds
+	 * @param maxTransfers the largest number of changes from a trip to another one
+	 * @return the journeys, by increasing departure time, then by increasing number of trips
+	 * @throws PathNotFoundException if none of the targets can be reached from the sources after the start of the window
+	 */
+	public static List<Journey> computeProfile(Timetable timetable, int[] sources, int[] targets,
+			int earliestDeparture, int latestDeparture, int maxTransfers) throws PathNotFoundException {
+
+		checkArguments(timetable, sources, targets, maxTransfers);
+		if (earliestDeparture > latestDeparture)
+			throw new IllegalArgumentException("Error : The window of departure times ends before it starts");
+
+		int[] departureTimes = collectDepartureTimes(timetable, sources, earliestDeparture, latestDeparture);
+		Search search = new Search(timetable, targets, maxTransfers + 1);
+
+		List<Journey> journeys = new ArrayList<>();
+		for (int i = departureTimes.length - 1; i >= 0; i--) {
+			// A journey leaving after the window must not prune the ones leaving in it
+			search.run(sources, departureTimes[i], latestDeparture - departureTimes[i]);
+
+			// The journeys without trips improve with every departure time, they are kept for the last one
+			for (Journey journey : search.extractParetoJourneys(departureTimes[i], (i == 0) ? 0 : 1)) {
+				if (journey.departureTime() <= latestDeparture) journeys.add(journey);
+			}
+		}
+		if (journeys.isEmpty()) throw new PathNotFoundException("Cannot find a journey");
+
+		// Among the journeys leaving at the same time, the ones with more trips arrive earlier
+		journeys.sort(Comparator.comparingInt(Journey::departureTime)
+				.thenComparingInt(journey -> - journey.arrivalTime()));
+		return journeys;
+	}
+
+	/**
+	 * @return the distinct times in the window at which a trip can be caught at a source, or at a stop
+	 *         within a footpath of a source when walking there, in increasing order, with the start of the window
+	 */
+	private static int[] collectDepartureTimes(Timetable timetable, int[] sources, int earliestDeparture,
+			int latestDeparture) {
+
+		IntStream.Builder departureTimes = IntStream.builder();
+		departureTimes.add(earliestDeparture);
+		for (int source : sources) {
+			collectDepartureTimes(timetable, source, 0, earliestDeparture, latestDeparture, departureTimes);
+			for (int position = timetable.getFirstFootpath(source); position < timetable.getFootpathLimit(source); position++) {
+				collectDepartureTimes(timetable, timetable.getFootpathTarget(position),
+						timetable.getFootpathDuration(position), earliestDeparture, latestDeparture, departureTimes);
+			}
+		}
+		return departureTimes.build().sorted().distinct().toArray();
+	}
+
+	private static void collectDepartureTimes(Timetable timetable, int stop, int walkingTime, int earliestDeparture,
+			int latestDeparture, IntStream.Builder departureTimes) {
+
+		for (int position = timetable.getFirstStopRoute(stop); position < timetable.getStopRouteLimit(stop); position++) {
+			int route = timetable.getStopRoute(position);
+			int index = timetable.getStopRoutePosition(position);
+			for (int trip = timetable.getFirstRouteTrip(route); trip < timetable.getRouteTripLimit(route); trip++) {
+				int time = timetable.getStopTimeDeparture(timetable.getFirstStopTime(timetable.getRouteTrip(trip)) + index)
+						- walkingTime;
+				if ((time >= earliestDeparture) && (time <= latestDeparture)) departureTimes.add(time);
+			}
+		}
+	}
+
+	/**
+	 * The labels of the searches, one set per round. The label of stop s in round k is at
+	 * index {@code k * stopCount + s}, and holds the earliest known arrival at the stop with
+	 * at most k trips. Labels are kept from a search to the next one, so they also hold the
+	 * arrivals found when leaving later.
+	 */
+	static final class Search {
+
+		private static final int UNSET = Integer.MAX_VALUE;
+
+		// The marker of a label copied from the previous round
+		private static final int CARRIED = -2;
+
+		private final Timetable timetable;
+		private final int stopCount;
+		private final int roundCount;
+		private final int[] targets;
+		private final boolean[] isTarget;
+
+		// The arrival by a vehicle in each round (the departure time for the sources in round 0),
+		// with the trip ridden and the position of the stop time it was boarded at
+		private final int[] rideArrival;
+		private final int[] rideTrip;
+		private final int[] rideBoarding;
+
+		// The arrival by a vehicle or on foot in each round, and the stop walked from if on foot
+		private final int[] arrival;
+		private final int[] walkedFrom;
+
+		// The earliest arrival at a target in each round, and whether the current search improved it
+		private final int[] targetArrival;
+		private final boolean[] targetImproved;
+
+		// The stops improved in the current round and in the previous one
+		private final boolean[] marked;
+		private int[] markedStops;
+		private int markedCount;
+		private int[] previousMarkedStops;
+		private int previousMarkedCount;
+
+		// The stops reached by a vehicle in the current round, to walk from
+		private final boolean[] ridden;
+		private final int[] riddenStops;
+		private int riddenCount;
+
+		// The first position of each route to scan in the current round, or -1
+		private final int[] routeStart;
+		private final int[] queuedRoutes;
+
+		private int maxFirstWait;
+
+		Search(Timetable timetable, int[] targets, int roundCount) {
+			this.timetable = timetable;
+			this.stopCount = timetable.getStopCount();
+			this.roundCount = roundCount;
+			this.targets = targets;
+			this.isTarget = new boolean[stopCount];
+			for (int stop : targets) isTarget[stop] = true;
+
+			int labelCount = (roundCount + 1) * stopCount;
+			this.rideArrival = new int[labelCount];
+			this.rideTrip = new int[labelCount];
+			this.rideBoarding = new int[labelCount];
+			this.arrival = new int[labelCount];
+			this.walkedFrom = new int[labelCount];
+			Arrays.fill(rideArrival, UNSET);
+			Arrays.fill(arrival, UNSET);
+
+			this.targetArrival = new int[roundCount + 1];
+			this.targetImproved = new boolean[roundCount + 1];
+			Arrays.fill(targetArrival, UNSET);
+
+			this.marked = new boolean[stopCount];
+			this.markedStops = new int[stopCount];
+			this.previousMarkedStops = new int[stopCount];
+			this.ridden = new boolean[stopCount];
+			this.riddenStops = new int[stopCount];
+
+			this.routeStart = new int[timetable.getRouteCount()];
+			this.queuedRoutes = new int[timetable.getRouteCount()];
+			Arrays.fill(routeStart, -1);
+		}
+
+		/**
+		 * Runs the rounds of a search from the sources, leaving at a given time. When the labels
+		 * are kept from a previous search, it must have left later.
+		 *
+		 * @param maxFirstWait the longest wait before the first trip, in seconds
+		 */
+		void run(int[] sources, int departureTime, int maxFirstWait) {
+			this.maxFirstWait = maxFirstWait;
+			Arrays.fill(targetImproved, false);
+			for (int i = 0; i < markedCount; i++) marked[markedStops[i]] = false;
+			markedCount = 0;
+
+			for (int stop : sources) {
+				if (departureTime < rideArrival[stop]) {
+					rideArrival[stop] = departureTime;
+					rideTrip[stop] = -1;
+					markRidden(stop);
+				}
+				improveArrival(0, stop, departureTime, -1);
+			}
+			walkFootpaths(0);
+
+			for (int round = 1; (round <= roundCount) && (markedCount > 0); round++) {
+				carryLabels(round);
+
+				int[] swap = previousMarkedStops;
+				previousMarkedStops = markedStops;
+				previousMarkedCount = markedCount;
+				markedStops = swap;
+				markedCount = 0;
+				for (int i = 0; i < previousMarkedCount; i++) marked[previousMarkedStops[i]] = false;
+
+				scanRoutes(round);
+				walkFootpaths(round);
+			}
+		}
+
+		/**
+		 * Copies the arrivals of the previous round that are earlier than the ones of a round,
+		 * since a journey with fewer trips is also a journey with at most as many trips. The
+		 * arrivals without trips are only boarded from in the first round, where the wait
+		 * before the first trip is limited, so only the arrival at the targets is copied from them.
+		 */
+		private void carryLabels(int round) {
+			int previous = (round - 1) * stopCount;
+			int current = round * stopCount;
+			for (int stop = 0; (round > 1) && (stop < stopCount); stop++) {
+				if (arrival[previous + stop] < arrival[current + stop]) {
+					arrival[current + stop] = arrival[previous + stop];
+					walkedFrom[current + stop] = CARRIED;
+				}
+				if (rideArrival[previous + stop] < rideArrival[current + stop]) {
+					rideArrival[current + stop] = rideArrival[previous + stop];
+					rideTrip[current + stop] = CARRIED;
+				}
+			}
+			targetArrival[round] = Math.min(targetArrival[round], targetArrival[round - 1]);
+		}
+
+		/**
+		 * Scans once each route through a stop improved in the previous round,
+		 * from the first of these stops along the route.
+		 */
+		private void scanRoutes(int round) {
+			int queuedCount = 0;
+			for (int i = 0; i < previousMarkedCount; i++) {
+				int stop = previousMarkedStops[i];
+				for (int position = timetable.getFirstStopRoute(stop); position < timetable.getStopRouteLimit(stop); position++) {
+					int route = timetable.getStopRoute(position);
+					int start = timetable.getStopRoutePosition(position);
+					if (routeStart[route] == -1) {
+						queuedRoutes[queuedCount++] = route;
+						routeStart[route] = start;
+					} else {
+						routeStart[route] = Math.min(routeStart[route], start);
+					}
+				}
+			}
+
+			for (int i = 0; i < queuedCount; i++) {
+				int route = queuedRoutes[i];
+				scanRoute(round, route, routeStart[route]);
+				routeStart[route] = -1;
+			}
+		}
+
+		private void scanRoute(int round, int route, int start) {
+			int firstStop = timetable.getFirstRouteStop(route);
+			int stopLimit = timetable.getRouteStopLimit(route);
+			int previous = (round - 1) * stopCount;
+			int current = round * stopCount;
+
+			// The trip ridden, as a position of the trips of the route, and the stop time it was boarded at
+			int tripPosition = -1;
+			int firstStopTime = -1;
+			int boarding = -1;
+
+			for (int index = start; firstStop + index < stopLimit; index++) {
+				int stop = timetable.getRouteStop(firstStop + index);
+
+				if (tripPosition != -1) {
+					int time = timetable.getStopTimeArrival(firstStopTime + index);
+					if ((time < rideArrival[current + stop]) && (time < targetArrival[round])) {
+						rideArrival[current + stop] = time;
+						rideTrip[current + stop] = timetable.getRouteTrip(tripPosition);
+						rideBoarding[current + stop] = boarding;
+						markRidden(stop);
+						improveArrival(round, stop, time, -1);
+					}
+				}
+
+				// An earlier trip can be caught at this stop
+				int earliest = arrival[previous + stop];
+				if ((earliest != UNSET) && ((tripPosition == -1)
+						|| (earliest <= timetable.getStopTimeDeparture(firstStopTime + index)))) {
+					int limit = (tripPosition == -1) ? timetable.getRouteTripLimit(route) : tripPosition;
+					int candidate = findEarliestTrip(route, index, earliest, limit);
+					if ((candidate < limit) && ((round > 1) || (timetable.getStopTimeDeparture(
+							timetable.getFirstStopTime(timetable.getRouteTrip(candidate)) + index) - earliest <= maxFirstWait))) {
+						tripPosition = candidate;
+						firstStopTime = timetable.getFirstStopTime(timetable.getRouteTrip(candidate));
+						boarding = firstStopTime + index;
+					}
+				}
+			}
+		}
+
+		/**
+		 * @return the position of the first trip of the route leaving its stop at the index at the time or later,
+		 *         among the trips before the limit, or the limit if there is none
+		 */
+		private int findEarliestTrip(int route, int index, int time, int limit) {
+			int low = timetable.getFirstRouteTrip(route);
+			int high = limit;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				int trip = timetable.getRouteTrip(middle);
+				if (timetable.getStopTimeDeparture(timetable.getFirstStopTime(trip) + index) < time) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			return low;
+		}
+
+		/**
+		 * Walks the footpaths from the stops reached by a vehicle in a round.
+		 */
+		private void walkFootpaths(int round) {
+			for (int i = 0; i < riddenCount; i++) {
+				int stop = riddenStops[i];
+				ridden[stop] = false;
+				int time = rideArrival[round * stopCount + stop];
+				for (int position = timetable.getFirstFootpath(stop); position < timetable.getFootpathLimit(stop); position++) {
+					improveArrival(round, timetable.getFootpathTarget(position),
+							time + timetable.getFootpathDuration(position), stop);
+				}
+			}
+			riddenCount = 0;
+		}
+
+		/**
+		 * Records an arrival at a stop in a round if it is earlier than the ones with
+		 * at most as many trips, at the stop and at the targets.
+		 */
+		private void improveArrival(int round, int stop, int time, int from) {
+			int label = round * stopCount + stop;
+			if ((time >= arrival[label]) || (time >= targetArrival[round])) return;
+
+			arrival[label] = time;
+			walkedFrom[label] = from;
+			if (isTarget[stop]) {
+				targetArrival[round] = time;
+				targetImproved[round] = true;
+			}
+			if (! marked[stop]) {
+				marked[stop] = true;
+				markedStops[markedCount++] = stop;
+			}
+		}
+
+		private void markRidden(int stop) {
+			if (! ridden[stop]) {
+				ridden[stop] = true;
+				riddenStops[riddenCount++] = stop;
+			}
+		}
+
+		/**
+		 * @param departureTime the departure time of the last search
+		 * @param firstRound the first round to report
+		 * @return for each round that the last search improved the arrival at the targets in,
+		 *         the journey to the target reached first in this round
+		 */
+		List<Journey> extractParetoJourneys(int departureTime, int firstRound) {
+			List<Journey> journeys = new ArrayList<>();
+			for (int round = firstRound; round <= roundCount; round++) {
+				if (! targetImproved[round]) continue;
+				for (int stop : targets) {
+					if (arrival[round * stopCount + stop] == targetArrival[round]) {
+						journeys.add(extractJourney(round, stop, departureTime));
+						break;
+					}
+				}
+			}
+			return journeys;
+		}
+
+		/**
+		 * Follows the rides and the walks back from a stop reached in a round to a source, then
+		 * times the walks: a walk leaves as soon as the ride before it arrives, or just in time
+		 * for the ride after it if it starts the journey.
+		 */
+		private Journey extractJourney(int round, int target, int departureTime) {
+			List<JourneyLeg> legs = new ArrayList<>();
+			int stop = target;
+			while (true) {
+				// The stop is reached on foot, or by a vehicle
+				while (walkedFrom[round * stopCount + stop] == CARRIED) round--;
+				int from = walkedFrom[round * stopCount + stop];
+				if (from != -1) {
+					legs.add(new JourneyLeg(-1, from, stop, 0, findWalkingTime(from, stop)));
+					stop = from;
+				}
+
+				// The stop is reached by a vehicle, or is a source
+				while (rideTrip[round * stopCount + stop] == CARRIED) round--;
+				int label = round * stopCount + stop;
+				int trip = rideTrip[label];
+				if ((round == 0) || (trip == -1)) break;
+
+				int boarding = rideBoarding[label];
+				from = timetable.getStopTimeStop(boarding);
+				legs.add(new JourneyLeg(trip, from, stop, timetable.getStopTimeDeparture(boarding), rideArrival[label]));
+				stop = from;
+				round--;
+			}
+			Collections.reverse(legs);
+
+			int time = departureTime;
+			for (int i = 0; i < legs.size(); i++) {
+				JourneyLeg leg = legs.get(i);
+				if (leg.isWalking()) {
+					int walkingTime = leg.arrivalTime();
+					int start = ((i == 0) && (legs.size() > 1)) ? legs.get(1).departureTime() - walkingTime : time;
+					leg = new JourneyLeg(-1, leg.fromStop(), leg.toStop(), start, start + walkingTime);
+					legs.set(i, leg);
+				}
+				time = leg.arrivalTime();
+			}
+
+			int start = legs.isEmpty() ? departureTime : legs.get(0).departureTime();
+			return new Journey(start, time, legs);
+		}
+
+		/**
+		 * @return the shortest walking time of the footpaths from a stop to another one
+		 */
+		private int findWalkingTime(int from, int to) {
+			int walkingTime = UNSET;
+			for (int position = timetable.getFirstFootpath(from); position < timetable.getFootpathLimit(from); position++) {
+				if (timetable.getFootpathTarget(position) == to) {
+					walkingTime = Math.min(walkingTime, timetable.getFootpathDuration(position));
+				}
+			}
+			return walkingTime;
+		}
+	}
+
+	private static void checkArguments(Timetable timetable, int[] sources, int[] targets, int maxTransfers) {
+		if ((timetable == null) || (sources == null) || (targets == null))
+			throw new IllegalArgumentException();
+		if ((sources.length == 0) || (targets.length == 0))
+			throw new IllegalArgumentException("Error : There must be at least one source and one target");
+		if (maxTransfers < 0)
+			throw new IllegalArgumentException("Error : The number of transfers cannot be negative");
+		for (int stop : sources) checkStop(timetable, stop);
+		for (int stop : targets) checkStop(timetable, stop);
+	}
+
+	private static void checkStop(Timetable timetable, int stop) {
+		if ((stop < 0) || (stop >= timetable.getStopCount()))
+			throw new IllegalArgumentException("Error : Unknown stop index");
+	}
+}
@@ -0,0 +1,508 @@
+package fr.u_paris.gla.project.core.timetable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * The timetable of a public transport network: the stops, the trips of the vehicles
+ * along the lines, with their times at every stop, and the footpaths between nearby stops.
+ * All the times are in seconds since the midnight of the day of service, and can exceed
+ * one day for the trips running after midnight.
+ *
+ * Everything is stored in flat arrays of primitives. The stop times of trip t are
+ * at positions {@code getFirstStopTime(t)} to {@code getFirstStopTime(t + 1) - 1}, and every
+ * pair of consecutive stop times of a trip gives a connection, a vehicle leaving a stop
+ * and arriving at the next one without stopping. The connections are sorted by departure
+ * time, for the {@link ConnectionScanRouter}.
+ *
+ * The trips of a line through the same stops are also grouped into routes, for the
+ * {@link RaptorRouter}. The trips of a route are sorted by departure time and never
+ * overtake each other, so a trip that would overtake another one starts a new route.
+ * The routes of stop s are at positions {@code getFirstStopRoute(s)} to
+ * {@code getStopRouteLimit(s) - 1}, with the position of the stop in each of them.
+ *
+ * The timetable is immutable once built, so it can be shared by concurrent queries.
+ */
+public final class Timetable {
+
+	private final String[] stopNames;
+	private final Map<String, Integer> stopIndices;
+
+	private final String[] tripLines;
+
+	// The stop times of trip t are at positions firstStopTime[t] to firstStopTime[t + 1] - 1
+	private final int[] firstStopTime;
+	private final int[] stopTimeStop;
+	private final int[] stopTimeArrival;
+	private final int[] stopTimeDeparture;
+
+	// Connection c leaves the stop time connectionStopTime[c] for the next stop time of the same trip
+	private final int[] connectionStopTime;
+	private final int[] connectionTrip;
+	private final int[] connectionDeparture;
+
+	// The footpaths leaving stop s are at positions firstFootpath[s] to firstFootpath[s + 1] - 1
+	private final int[] firstFootpath;
+	private final int[] footpathTarget;
+	private final int[] footpathDuration;
+
+	// The stops of route r are at positions firstRouteStop[r] to firstRouteStop[r + 1] - 1,
+	// and its trips, sorted by departure time, at positions firstRouteTrip[r] to firstRouteTrip[r + 1] - 1
+	private final int[] firstRouteStop;
+	private final int[] routeStops;
+	private final int[] firstRouteTrip;
+	private final int[] routeTrips;
+
+	// The routes through stop s are at positions firstStopRoute[s] to firstStopRoute[s + 1] - 1,
+	// with the position of the stop along each route
+	private final int[] firstStopRoute;
+	private final int[] stopRoutes;
+	private final int[] stopRoutePositions;
+
+	private Timetable(Builder builder) {
+		int stopCount = builder.stopNames.size();
+		this.stopNames = builder.stopNames.toArray(new String[0]);
+		this.stopIndices = new HashMap<>(builder.stopIndices);
+
+		int tripCount = builder.tripLines.size();
+		this.tripLines = builder.tripLines.toArray(new String[0]);
+		this.firstStopTime = Arrays.copyOf(builder.firstStopTime, tripCount + 1);
+		int stopTimeCount = firstStopTime[tripCount];
+		this.stopTimeStop = Arrays.copyOf(builder.stopTimeStop, stopTimeCount);
+		this.stopTimeArrival = Arrays.copyOf(builder.stopTimeArrival, stopTimeCount);
+		this.stopTimeDeparture = Arrays.copyOf(builder.stopTimeDeparture, stopTimeCount);
+
+		// One connection per stop time but the last of each trip, sorted by departure time, then
+		// by arrival time, then along the trip, so that a connection is always scanned after
+		// the connections that can lead to it
+		int[] tripOf = new int[stopTimeCount];
+		int connectionCount = 0;
+		for (int trip = 0; trip < tripCount; trip++) {
+			Arrays.fill(tripOf, firstStopTime[trip], firstStopTime[trip + 1], trip);
+			connectionCount += Math.max(0, firstStopTime[trip + 1] - firstStopTime[trip] - 1);
+		}
+		int[] unsorted = new int[connectionCount];
+		int next = 0;
+		for (int trip = 0; trip < tripCount; trip++) {
+			for (int position = firstStopTime[trip]; position < firstStopTime[trip + 1] - 1; position++) {
+				unsorted[next++] = position;
+			}
+		}
+		this.connectionStopTime = IntStream.of(unsorted).boxed()
+				.sorted(Comparator.<Integer>comparingInt(position -> stopTimeDeparture[position])
+						.thenComparingInt(position -> stopTimeArrival[position + 1])
+						.thenComparingInt(position -> position))
+				.mapToInt(Integer::intValue)
+				.toArray();
+		this.connectionTrip = new int[connectionCount];
+		this.connectionDeparture = new int[connectionCount];
+		for (int c = 0; c < connectionCount; c++) {
+			connectionTrip[c] = tripOf[connectionStopTime[c]];
+			connectionDeparture[c] = stopTimeDeparture[connectionStopTime[c]];
+		}
+
+		this.firstFootpath = new int[stopCount + 1];
+		int footpathCount = builder.footpathCount;
+		for (int i = 0; i < footpathCount; i++) firstFootpath[builder.footpathSource[i] + 1]++;
+		for (int stop = 0; stop < stopCount; stop++) firstFootpath[stop + 1] += firstFootpath[stop];
+		this.footpathTarget = new int[footpathCount];
+		this.footpathDuration = new int[footpathCount];
+		int[] nextFootpath = Arrays.copyOf(firstFootpath, stopCount);
+		for (int i = 0; i < footpathCount; i++) {
+			int position = nextFootpath[builder.footpathSource[i]]++;
+			footpathTarget[position] = builder.footpathTarget[i];
+			footpathDuration[position] = builder.footpathDuration[i];
+		}
+
+		List<int[]> routes = groupTripsIntoRoutes();
+		int routeCount = routes.size();
+		this.firstRouteStop = new int[routeCount + 1];
+		this.firstRouteTrip = new int[routeCount + 1];
+		for (int route = 0; route < routeCount; route++) {
+			int[] trips = routes.get(route);
+			firstRouteStop[route + 1] = firstRouteStop[route] + getTripLength(trips[0]);
+			firstRouteTrip[route + 1] = firstRouteTrip[route] + trips.length;
+		}
+		this.routeStops = new int[firstRouteStop[routeCount]];
+		this.routeTrips = new int[firstRouteTrip[routeCount]];
+		this.firstStopRoute = new int[stopCount + 1];
+		for (int route = 0; route < routeCount; route++) {
+			int[] trips = routes.get(route);
+			System.arraycopy(stopTimeStop, firstStopTime[trips[0]], routeStops, firstRouteStop[route], getTripLength(trips[0]));
+			System.arraycopy(trips, 0, routeTrips, firstRouteTrip[route], trips.length);
+		}
+		for (int stop : routeStops) firstStopRoute[stop + 1]++;
+		for (int stop = 0; stop < stopCount; stop++) firstStopRoute[stop + 1] += firstStopRoute[stop];
+		this.stopRoutes = new int[routeStops.length];
+		this.stopRoutePositions = new int[routeStops.length];
+		int[] nextStopRoute = Arrays.copyOf(firstStopRoute, stopCount);
+		for (int route = 0; route < routeCount; route++) {
+			for (int position = firstRouteStop[route]; position < firstRouteStop[route + 1]; position++) {
+				int entry = nextStopRoute[routeStops[position]]++;
+				stopRoutes[entry] = route;
+				stopRoutePositions[entry] = position - firstRouteStop[route];
+			}
+		}
+	}
+
+	/**
+	 * Groups the trips with the same line and the same stops, sorted by departure time, and
+	 * splits each group so that no trip of a route overtakes another one. The trips with
+	 * a single stop are left out, since they cannot be ridden.
+	 *
+	 * @return the trips of each route
+	 */
+	private List<int[]> groupTripsIntoRoutes() {
+		Map<String, List<Integer>> patterns = new LinkedHashMap<>();
+		for (int trip = 0; trip < tripLines.length; trip++) {
+			if (getTripLength(trip) < 2) continue;
+			String pattern = tripLines[trip] + Arrays.toString(
+					Arrays.copyOfRange(stopTimeStop, firstStopTime[trip], firstStopTime[trip + 1]));
+			patterns.computeIfAbsent(pattern, key -> new ArrayList<>()).add(trip);
+		}
+
+		List<int[]> routes = new ArrayList<>();
+		for (List<Integer> trips : patterns.values()) {
+			trips.sort(Comparator.<Integer>comparingInt(trip -> stopTimeDeparture[firstStopTime[trip]])
+					.thenComparingInt(trip -> stopTimeArrival[firstStopTime[trip + 1] - 1])
+					.thenComparingInt(trip -> trip));
+
+			// Each trip goes to the first route of the pattern whose last trip it does not overtake
+			List<List<Integer>> patternRoutes = new ArrayList<>();
+			for (int trip : trips) {
+				List<Integer> route = patternRoutes.stream()
+						.filter(candidate -> ! overtakes(candidate.get(candidate.size() - 1), trip))
+						.findFirst()
+						.orElse(null);
+				if (route == null) {
+					route = new ArrayList<>();
+					patternRoutes.add(route);
+				}
+				route.add(trip);
+			}
+			for (List<Integer> route : patternRoutes) {
+				routes.add(route.stream().mapToInt(Integer::intValue).toArray());
+			}
+		}
+		return routes;
+	}
+
+	/**
+	 * @return true if a trip is earlier than another one of the same stops at one of these stops
+	 */
+	private boolean overtakes(int earlier, int later) {
+		int offset = firstStopTime[later] - firstStopTime[earlier];
+		for (int position = firstStopTime[earlier]; position < firstStopTime[earlier + 1]; position++) {
+			if ((stopTimeArrival[position + offset] < stopTimeArrival[position])
+					|| (stopTimeDeparture[position + offset] < stopTimeDeparture[position]))
+				return true;
+		}
+		return false;
+	}
+
+	private int getTripLength(int trip) {
+		return firstStopTime[trip + 1] - firstStopTime[trip];
+	}
+
+	public int getStopCount() {
+		return stopNames.length;
+	}
+
+	public String getStopName(int stop) {
+		return stopNames[stop];
+	}
+
+	/**
+	 * @param name the name of a stop
+	 * @return the index of the stop, or -1 if there is no stop with this name
+	 */
+	public int indexOfStop(String name) {
+		Integer index = stopIndices.get(name);
+		return (index == null) ? -1 : index;
+	}
+
+	public int getTripCount() {
+		return tripLines.length;
+	}
+
+	/**
+	 * @return the name of the line of the trip
+	 */
+	public String getTripLine(int trip) {
+		return tripLines[trip];
+	}
+
+	/**
+	 * @return the position of the first stop time of the trip, or the number of stop times for {@code getTripCount()}
+	 */
+	public int getFirstStopTime(int trip) {
+		return firstStopTime[trip];
+	}
+
+	public int getStopTimeStop(int position) {
+		return stopTimeStop[position];
+	}
+
+	public int getStopTimeArrival(int position) {
+		return stopTimeArrival[position];
+	}
+
+	public int getStopTimeDeparture(int position) {
+		return stopTimeDeparture[position];
+	}
+
+	public int getConnectionCount() {
+		return connectionStopTime.length;
+	}
+
+	public int getConnectionTrip(int connection) {
+		return connectionTrip[connection];
+	}
+
+	public int getConnectionDeparture(int connection) {
+		return connectionDeparture[connection];
+	}
+
+	public int getConnectionArrival(int connection) {
+		return stopTimeArrival[connectionStopTime[connection] + 1];
+	}
+
+	public int getConnectionFrom(int connection) {
+		return stopTimeStop[connectionStopTime[connection]];
+	}
+
+	public int getConnectionTo(int connection) {
+		return stopTimeStop[connectionStopTime[connection] + 1];
+	}
+
+	/**
+	 * @return the position in its trip of the stop time the connection leaves from
+	 */
+	public int getConnectionStopTime(int connection) {
+		return connectionStopTime[connection];
+	}
+
+	/**
+	 * @param time a time, in seconds
+	 * @return the first connection leaving at this time or later, or {@code getConnectionCount()} if there is none
+	 */
+	public int findFirstConnection(int time) {
+		int low = 0;
+		int high = connectionDeparture.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (connectionDeparture[middle] < time) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	public int getFirstFootpath(int stop) {
+		return firstFootpath[stop];
+	}
+
+	public int getFootpathLimit(int stop) {
+		return firstFootpath[stop + 1];
+	}
+
+	public int getFootpathTarget(int position) {
+		return footpathTarget[position];
+	}
+
+	/**
+	 * @return the walking time of the footpath, in seconds
+	 */
+	public int getFootpathDuration(int position) {
+		return footpathDuration[position];
+	}
+
+	public int getRouteCount() {
+		return firstRouteStop.length - 1;
+	}
+
+	public int getFirstRouteStop(int route) {
+		return firstRouteStop[route];
+	}
+
+	public int getRouteStopLimit(int route) {
+		return firstRouteStop[route + 1];
+	}
+
+	/**
+	 * @return the stop at a position of the stops of the routes
+	 */
+	public int getRouteStop(int position) {
+		return routeStops[position];
+	}
+
+	public int getFirstRouteTrip(int route) {
+		return firstRouteTrip[route];
+	}
+
+	public int getRouteTripLimit(int route) {
+		return firstRouteTrip[route + 1];
+	}
+
+	/**
+	 * @return the trip at a position of the trips of the routes
+	 */
+	public int getRouteTrip(int position) {
+		return routeTrips[position];
+	}
+
+	public int getFirstStopRoute(int stop) {
+		return firstStopRoute[stop];
+	}
+
+	public int getStopRouteLimit(int stop) {
+		return firstStopRoute[stop + 1];
+	}
+
+	public int getStopRoute(int position) {
+		return stopRoutes[position];
+	}
+
+	/**
+	 * @return the position of the stop along the route, starting at 0
+	 */
+	public int getStopRoutePosition(int position) {
+		return stopRoutePositions[position];
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Timetable with %d stops, %d trips, %d routes and %d connections",
+				stopNames.length, tripLines.length, getRouteCount(), connectionStopTime.length);
+	}
+
+	/**
+	 * Incremental construction of a {@link Timetable}.
+	 */
+	public static class Builder {
+
+		private final List<String> stopNames = new ArrayList<>();
+		private final Map<String, Integer> stopIndices = new HashMap<>();
+
+		private final List<String> tripLines = new ArrayList<>();
+		private int[] firstStopTime = new int[16];
+		private int[] stopTimeStop = new int[16];
+		private int[] stopTimeArrival = new int[16];
+		private int[] stopTimeDeparture = new int[16];
+		private int stopTimeCount;
+
+		private int[] footpathSource = new int[16];
+		private int[] footpathTarget = new int[16];
+		private int[] footpathDuration = new int[16];
+		private int footpathCount;
+
+		/**
+		 * Adds a stop, unless a stop with the same name has already been added.
+		 *
+		 * @param name the name of the stop
+		 * @return the index of the stop
+		 */
+		public int addStop(String name) {
+			if (name == null) throw new IllegalArgumentException("Error : The name of the stop is null");
+
+			Integer index = stopIndices.get(name);
+			if (index != null) return index;
+
+			stopNames.add(name);
+			stopIndices.put(name, stopNames.size() - 1);
+			return stopNames.size() - 1;
+		}
+
+		/**
+		 * @param name the name of a stop
+		 * @return the index of the stop, or -1 if it has not been added
+		 */
+		public int indexOfStop(String name) {
+			Integer index = stopIndices.get(name);
+			return (index == null) ? -1 : index;
+		}
+
+		/**
+		 * Adds a footpath from a stop to another one. Footpaths are only walked one at a time,
+		 * so a footpath should be added between every two stops within walking distance.
+		 *
+		 * @param from the index of the stop the footpath leaves from
+		 * @param to the index of the stop the footpath leads to
+		 * @param duration the walking time, in seconds
+		 */
+		public void addFootpath(int from, int to, int duration) {
+			checkStop(from);
+			checkStop(to);
+			if (duration < 0) throw new IllegalArgumentException("Error : The walking time cannot be negative");
+
+			if (footpathCount == footpathSource.length) {
+				footpathSource = Arrays.copyOf(footpathSource, 2 * footpathCount);
+				footpathTarget = Arrays.copyOf(footpathTarget, 2 * footpathCount);
+				footpathDuration = Arrays.copyOf(footpathDuration, 2 * footpathCount);
+			}
+			footpathSource[footpathCount] = from;
+			footpathTarget[footpathCount] = to;
+			footpathDuration[footpathCount] = duration;
+			footpathCount++;
+		}
+
+		/**
+		 * Adds a trip of a vehicle along a line.
+		 *
+		 * @param line the name of the line
+		 * @param stops the indices of the stops of the trip, in order
+		 * @param arrivals the arrival time at each stop, in seconds
+		 * @param departures the departure time from each stop, in seconds
+		 * @return the index of the trip
+		 */
+		public int addTrip(String line, int[] stops, int[] arrivals, int[] departures) {
+			if ((line == null) || (stops == null) || (arrivals == null) || (departures == null))
+				throw new IllegalArgumentException();
+			if ((stops.length != arrivals.length) || (stops.length != departures.length))
+				throw new IllegalArgumentException("Error : There must be one arrival and one departure time per stop");
+			for (int i = 0; i < stops.length; i++) {
+				checkStop(stops[i]);
+				if ((arrivals[i] < 0) || (departures[i] < arrivals[i])
+						|| ((i > 0) && (arrivals[i] < departures[i - 1])))
+					throw new IllegalArgumentException("Error : The times of the trip must not decrease");
+			}
+
+			int trip = tripLines.size();
+			if (trip + 2 > firstStopTime.length) {
+				firstStopTime = Arrays.copyOf(firstStopTime, 2 * (trip + 2));
+			}
+			int needed = stopTimeCount + stops.length;
+			if (needed > stopTimeStop.length) {
+				int length = Math.max(2 * stopTimeStop.length, needed);
+				stopTimeStop = Arrays.copyOf(stopTimeStop, length);
+				stopTimeArrival = Arrays.copyOf(stopTimeArrival, length);
+				stopTimeDeparture = Arrays.copyOf(stopTimeDeparture, length);
+			}
+			System.arraycopy(stops, 0, stopTimeStop, stopTimeCount, stops.length);
+			System.arraycopy(arrivals, 0, stopTimeArrival, stopTimeCount, stops.length);
+			System.arraycopy(departures, 0, stopTimeDeparture, stopTimeCount, stops.length);
+			stopTimeCount = needed;
+
+			tripLines.add(line);
+			firstStopTime[trip + 1] = stopTimeCount;
+			return trip;
+		}
+
+		public Timetable build() {
+			return new Timetable(this);
+		}
+
+		private void checkStop(int stop) {
+			if ((stop < 0) || (stop >= stopNames.size()))
+				throw new IllegalArgumentException("Error : Unknown stop index");
+		}
+	}
+}
@@ -20,6 +20,9 @@ public class Edge implements IArrow {
     // Travel time between the two nodes
     private final LocalTime travelTime;
 
+    // Travel time in seconds, computed once as it is read on every relaxation of the shortest path search
+    private final int cost;
+
     /**
      * Creates a new edge between the two given nodes.
      *
@@ -34,6 +37,7 @@ public class Edge implements IArrow {
         this.branchId = branchId;
         this.distance = distance;
         this.travelTime = travelTime;
+        this.cost = travelTime.toSecondOfDay();
     }
 
     public Node getFrom() {
@@ -85,9 +89,6 @@ public class Edge implements IArrow {
 	@Override
 	public int getCost() {
 		// The cost is equal to the number of seconds
-		return ((travelTime.getHour() * 60 * 60)
-				+ (travelTime.getMinute() * 60)
-				+ (travelTime.getSecond()));
-
+		return cost;
 	}
 }
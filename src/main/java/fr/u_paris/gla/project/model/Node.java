@@ -7,10 +7,11 @@ import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import fr.u_paris.gla.project.core.shortest_path_finder.IArrow;
-import fr.u_paris.gla.project.core.shortest_path_finder.INode;
+import fr.u_paris.gla.project.core.shortest_path_finder.ILocatedNode;
+import fr.u_paris.gla.project.utils.GPSCoordinates;
 
-@JsonIgnoreProperties({"outgoingArrows", "incomingArrows", "outgoing", "incoming"})
-public class Node implements INode {
+@JsonIgnoreProperties({"outgoingArrows", "incomingArrows", "outgoing", "incoming", "coordinates"})
+public class Node implements ILocatedNode {
 
     // The identifier of the line, for example line "A" or line "B"
     private final String lineId;
@@ -55,6 +56,16 @@ public class Node implements INode {
         return this.station;
     }
 
+    /**
+     * Returns the GPS coordinates of the node, which are the ones of its station.
+     *
+     * @return the coordinates of the station of the node
+     */
+    @Override
+    public GPSCoordinates getCoordinates() {
+        return this.station.getCoordinates();
+    }
+
     public Set<Edge> getOutgoing() {
         return Collections.unmodifiableSet(outgoing);
     }
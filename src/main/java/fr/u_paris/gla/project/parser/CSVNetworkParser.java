@@ -5,16 +5,21 @@ import com.opencsv.CSVParserBuilder;
 import com.opencsv.CSVReader;
 import com.opencsv.CSVReaderBuilder;
 import com.opencsv.exceptions.CsvException;
+import fr.u_paris.gla.project.core.timetable.Timetable;
 import fr.u_paris.gla.project.model.*;
 import fr.u_paris.gla.project.utils.GPSCoordinates;
+import fr.u_paris.gla.project.utils.GPSGrid;
 
 import java.io.FileReader;
 import java.io.IOException;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
 
@@ -276,6 +281,117 @@ public class CSVNetworkParser {
         return this;
     }
 
+    /**
+     * Builds the timetable of the network from the parsed CSV files. Each schedule entry is
+     * the departure of a trip from the terminus of a line, which then follows the segments
+     * of the line. When the trip reaches a station with several next stations it has not
+     * visited yet on the line, the next number of its trip sequence chooses among them,
+     * numbered from 1 in the order of the network file. The time spent at each station is
+     * not known, so the trips leave a station as soon as they arrive.
+     * A footpath is added between every two stations within the walking distance.
+     *
+     * @param maxWalkingDistance the longest footpath, in kilometers
+     * @param walkingSpeed       the walking speed, in kilometers per hour
+     * @return the timetable
+     */
+    public Timetable buildTimetable(double maxWalkingDistance, double walkingSpeed) {
+        Timetable.Builder builder = new Timetable.Builder();
+
+        // The next stations of each station on each line, in the order of the network file
+        Map<String, Map<String, Map<String, Integer>>> segments = new HashMap<>();
+        Map<String, GPSCoordinates> coordinates = new LinkedHashMap<>();
+        for (NetworkEntry entry : networkEntries) {
+            String from = entry.startStation().getName();
+            String to = entry.endStation().getName();
+            builder.addStop(from);
+            builder.addStop(to);
+            coordinates.putIfAbsent(from, entry.startStation().getCoordinates());
+            coordinates.putIfAbsent(to, entry.endStation().getCoordinates());
+            segments.computeIfAbsent(entry.line().getName(), line -> new HashMap<>())
+                    .computeIfAbsent(from, station -> new LinkedHashMap<>())
+                    .putIfAbsent(to, entry.travelTime().toSecondOfDay());
+        }
+
+        int skipped = 0;
+        for (ScheduleEntry entry : scheduleEntries) {
+            if (!addTrip(builder, segments.get(entry.line().getName()), entry)) {
+                skipped++;
+            }
+        }
+        if (skipped > 0) {
+            LOGGER.warning(String.format("%d schedule entries do not match the lines of the network", skipped));
+        }
+
+        // The stations within the walking distance of each other are found with a grid
+        List<String> stations = new ArrayList<>(coordinates.keySet());
+        GPSGrid grid = new GPSGrid(new ArrayList<>(coordinates.values()), maxWalkingDistance);
+        for (int i = 0; i < stations.size(); i++) {
+            for (int j : grid.findNeighbors(i)) {
+                if (j > i) {
+                    int walkingTime = (int) (grid.distance(i, j) / walkingSpeed * 3600);
+                    builder.addFootpath(builder.indexOfStop(stations.get(i)), builder.indexOfStop(stations.get(j)), walkingTime);
+                    builder.addFootpath(builder.indexOfStop(stations.get(j)), builder.indexOfStop(stations.get(i)), walkingTime);
+                }
+            }
+        }
+
+        Timetable timetable = builder.build();
+        LOGGER.info(timetable.toString());
+        return timetable;
+    }
+
+    /**
+     * Adds the trip of a schedule entry to a timetable.
+     *
+     * @return false if the trip cannot be followed on the segments of its line
+     */
+    private static boolean addTrip(Timetable.Builder builder, Map<String, Map<String, Integer>> lineSegments,
+                                   ScheduleEntry entry) {
+        String station = entry.station().getName();
+        if (lineSegments == null || builder.indexOfStop(station) == -1) {
+            return false;
+        }
+
+        List<Integer> stops = new ArrayList<>();
+        List<Integer> times = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        int time = entry.time().toSecondOfDay();
+        int fork = 0;
+        while (station != null) {
+            stops.add(builder.indexOfStop(station));
+            times.add(time);
+            visited.add(station);
+
+            List<Map.Entry<String, Integer>> next = new ArrayList<>();
+            for (Map.Entry<String, Integer> segment : lineSegments.getOrDefault(station, Map.of()).entrySet()) {
+                if (!visited.contains(segment.getKey())) {
+                    next.add(segment);
+                }
+            }
+
+            Map.Entry<String, Integer> segment = null;
+            if (next.size() == 1) {
+                segment = next.get(0);
+            } else if (next.size() > 1) {
+                if (fork >= entry.forks().size() || entry.forks().get(fork) < 1 || entry.forks().get(fork) > next.size()) {
+                    return false;
+                }
+                segment = next.get(entry.forks().get(fork++) - 1);
+            }
+
+            station = segment == null ? null : segment.getKey();
+            time += segment == null ? 0 : segment.getValue();
+        }
+
+        if (stops.size() < 2) {
+            return false;
+        }
+        int[] stopArray = stops.stream().mapToInt(Integer::intValue).toArray();
+        int[] timeArray = times.stream().mapToInt(Integer::intValue).toArray();
+        builder.addTrip(entry.line().getName(), stopArray, timeArray, timeArray);
+        return true;
+    }
+
     public List<NetworkEntry> getNetworkEntries() {
         return networkEntries;
     }
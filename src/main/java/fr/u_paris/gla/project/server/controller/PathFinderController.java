@@ -1,11 +1,10 @@
 package fr.u_paris.gla.project.server.controller;
 
-import fr.u_paris.gla.project.core.shortest_path_finder.DijkstraPathFinder;
-import fr.u_paris.gla.project.core.shortest_path_finder.INode;
+import fr.u_paris.gla.project.core.shortest_path_finder.ParetoPath;
 import fr.u_paris.gla.project.core.shortest_path_finder.PathNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingPath;
 import fr.u_paris.gla.project.server.entity.*;
 import fr.u_paris.gla.project.server.service.*;
-import fr.u_paris.gla.project.utils.GPSCoordinates;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,7 +12,6 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -26,141 +24,268 @@ import java.util.Optional;
 @RequestMapping("/path-finder")
 public class PathFinderController {
     private GraphService graphService;
-    private NodeService nodeService;
-    private EdgeService edgeService;
+    private PathFinderService pathFinderService;
 
     @Autowired
-    public PathFinderController(GraphService graphService, NodeService nodeService, EdgeService edgeService) {
+    public PathFinderController(GraphService graphService, PathFinderService pathFinderService) {
         this.graphService = graphService;
-        this.nodeService = nodeService;
-        this.edgeService = edgeService;
+        this.pathFinderService = pathFinderService;
     }
 
     @PostMapping
     public ResponseEntity<PathFinderResponse> getShortestPath(@RequestBody PathFinderRequest pathFinderRequest) {
 
-        Optional<Graph> graphEntity = graphService.findGraphById(pathFinderRequest.getGraphId());
+        Optional<RoutingSnapshot> snapshot = graphService.acquireRoutingSnapshot(pathFinderRequest.getGraphId());
 
-        if (graphEntity.isEmpty()) {
+        if (snapshot.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The graph that you provided doesn't exist");
         }
 
-        List<INode> listShortestPath = null;
-        int shortestPathCost = Integer.MAX_VALUE;
+        try {
+
+            RoutingPath shortestPath = pathFinderService.findShortestPath(snapshot.get(),
+                    pathFinderRequest.getStationFromId(), pathFinderRequest.getStationToId(),
+                    pathFinderRequest.getAlgorithm());
+
+            return ResponseEntity.ok().body(new PathFinderResponse(shortestPath.getNodes(), shortestPath.getCost()));
+
+        } catch (PathNotFoundException exception) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, exception.getMessage());
+        } catch (Exception exception) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops! Something went wrong on our end. Our team has been notified and we are working to fix it. Please try again later.");
+        } finally {
+            snapshot.get().release();
+        }
+
+    }
+
+    /**
+     * Finds the shortest paths of several requests at once. The results are in the order
+     * of the requests, and a request that fails does not fail the others.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<PathFinderBatchResult>> getShortestPaths(@RequestBody List<PathFinderRequest> pathFinderRequests) {
+
+        if (pathFinderRequests.size() > PathFinderService.MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch cannot have more than " + PathFinderService.MAX_BATCH_SIZE + " requests");
+        }
+
+        return ResponseEntity.ok().body(pathFinderService.findShortestPaths(pathFinderRequests));
+    }
+
+    /**
+     * Computes the travel times from every station of a list to every station of another one.
+     */
+    @PostMapping("/matrix")
+    public ResponseEntity<TravelTimeMatrixResponse> getTravelTimes(@RequestBody TravelTimeMatrixRequest travelTimeMatrixRequest) {
+
+        List<Integer> stationFromIds = travelTimeMatrixRequest.getStationFromIds();
+        List<Integer> stationToIds = travelTimeMatrixRequest.getStationToIds();
+        if (stationFromIds == null || stationToIds == null || stationFromIds.contains(null) || stationToIds.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The lists of stations are missing or incomplete");
+        }
+        if ((long) stationFromIds.size() * stationToIds.size() > PathFinderService.MAX_MATRIX_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A matrix cannot have more than " + PathFinderService.MAX_MATRIX_SIZE + " cells");
+        }
+
+        Optional<RoutingSnapshot> snapshot = graphService.acquireRoutingSnapshot(travelTimeMatrixRequest.getGraphId());
+        if (snapshot.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The graph that you provided doesn't exist");
+        }
 
         try {
+            return ResponseEntity.ok().body(pathFinderService.findTravelTimes(snapshot.get(), stationFromIds, stationToIds));
+        } catch (Exception exception) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops! Something went wrong on our end. Our team has been notified and we are working to fix it. Please try again later.");
+        } finally {
+            snapshot.get().release();
+        }
+    }
 
-            List<Node> nodesSourceEntity =
-                    nodeService.findNodeByGraphIdAndStationId(graphEntity.get().getId(), pathFinderRequest.getStationFromId());
-            List<Node> nodesTargetEntity =
-                    nodeService.findNodeByGraphIdAndStationId(graphEntity.get().getId(), pathFinderRequest.getStationToId());
-
-            for (Node nodeSourceEntity : nodesSourceEntity) {
-                for (Node nodeTargetEntity : nodesTargetEntity) {
-                    Station stationSourceEntity = nodeSourceEntity.getStation();
-                    fr.u_paris.gla.project.model.Station stationSourceModel =
-                            new fr.u_paris.gla.project.model.Station(stationSourceEntity.getId(), stationSourceEntity.getName(), new GPSCoordinates(stationSourceEntity.getLatitude(), stationSourceEntity.getLongitude()));
-                    fr.u_paris.gla.project.model.Node nodeSourceModel =
-                            new fr.u_paris.gla.project.model.Node(nodeSourceEntity.getLineId(), stationSourceModel);
-
-                    Station stationTargetEntity = nodeTargetEntity.getStation();
-                    fr.u_paris.gla.project.model.Station stationTargetModel =
-                            new fr.u_paris.gla.project.model.Station(stationTargetEntity.getId(), stationTargetEntity.getName(), new GPSCoordinates(stationTargetEntity.getLatitude(), stationTargetEntity.getLongitude()));
-                    fr.u_paris.gla.project.model.Node nodeTargetModel =
-                            new fr.u_paris.gla.project.model.Node(nodeTargetEntity.getLineId(), stationTargetModel);
-
-                    fr.u_paris.gla.project.model.Graph graphModel = new fr.u_paris.gla.project.model.Graph();
-                    graphModel.addNode(nodeSourceModel);
-                    graphModel.addNode(nodeTargetModel);
-
-                    List<Node> nodesEntity = nodeService.findNodeByGraphId(graphEntity.get().getId());
-                    List<Edge> edgesEntity = edgeService.findEdgeByGraphId(graphEntity.get().getId());
-
-                    // add nodes to graph model
-                    addNodeToGraphModel(nodesEntity, graphModel);
-
-                    // add edges to graph model
-                    addEdgesToGraphModel(edgesEntity, graphModel);
-
-                    List<INode> listPath =
-                            DijkstraPathFinder.computeShortestPath(graphModel, nodeSourceModel, nodeTargetModel);
-                    if (listPath != null) {
-                        int pathCost =
-                                DijkstraPathFinder.computeShortestPathCost(graphModel, nodeSourceModel, nodeTargetModel);
-
-                        // updates the shortest path if the current path's distance is shorter, or if the distance is equal
-                        // and it requires passing through fewer stations.
-                        if (pathCost < shortestPathCost || (pathCost == shortestPathCost
-                                && listShortestPath != null && listPath.size() < listShortestPath.size())) {
-                            shortestPathCost = pathCost;
-                            listShortestPath = listPath;
-                        }
-                    }
-                }
-            }
-
-            if (shortestPathCost == -1 || listShortestPath == null) {
-                throw new PathNotFoundException("Cannot find the shortest path");
-            }
-
-            return ResponseEntity.ok().body(new PathFinderResponse(listShortestPath, shortestPathCost));
+    /**
+     * Finds several alternative paths between two stations, by increasing travel time.
+     */
+    @PostMapping("/alternatives")
+    public ResponseEntity<List<PathFinderResponse>> getAlternativePaths(@RequestBody AlternativePathsRequest alternativePathsRequest) {
+
+        int k = alternativePathsRequest.getK() == null ? PathFinderService.DEFAULT_ALTERNATIVES : alternativePathsRequest.getK();
+        if (k < 1 || k > PathFinderService.MAX_ALTERNATIVES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "The number of paths must be between 1 and " + PathFinderService.MAX_ALTERNATIVES);
+        }
+
+        Optional<RoutingSnapshot> snapshot = graphService.acquireRoutingSnapshot(alternativePathsRequest.getGraphId());
+        if (snapshot.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The graph that you provided doesn't exist");
+        }
+
+        try {
+            List<RoutingPath> paths = pathFinderService.findAlternativePaths(snapshot.get(),
+                    alternativePathsRequest.getStationFromId(), alternativePathsRequest.getStationToId(),
+                    k, alternativePathsRequest.isDistinctStations());
+
+            return ResponseEntity.ok().body(paths.stream()
+                    .map(path -> new PathFinderResponse(path.getNodes(), path.getCost()))
+                    .toList());
 
         } catch (PathNotFoundException exception) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, exception.getMessage());
         } catch (Exception exception) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops! Something went wrong on our end. Our team has been notified and we are working to fix it. Please try again later.");
+        } finally {
+            snapshot.get().release();
+        }
+    }
+
+    /**
+     * Finds the paths between two stations that trade travel time, line changes and walking distance
+     * against each other, by increasing travel time. The algorithm of the request is not used.
+     */
+    @PostMapping("/pareto")
+    public ResponseEntity<List<ParetoPathResponse>> getParetoPaths(@RequestBody PathFinderRequest pathFinderRequest) {
+
+        Optional<RoutingSnapshot> snapshot = graphService.acquireRoutingSnapshot(pathFinderRequest.getGraphId());
+        if (snapshot.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The graph that you provided doesn't exist");
         }
 
+        try {
+            List<ParetoPath> paths = pathFinderService.findParetoPaths(snapshot.get(),
+                    pathFinderRequest.getStationFromId(), pathFinderRequest.getStationToId());
+
+            return ResponseEntity.ok().body(paths.stream()
+                    .map(path -> new ParetoPathResponse(path.getPath().getNodes(), path.getCost(),
+                            path.getLineChanges(), path.getWalkingDistance()))
+                    .toList());
+
+        } catch (PathNotFoundException exception) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, exception.getMessage());
+        } catch (Exception exception) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops! Something went wrong on our end. Our team has been notified and we are working to fix it. Please try again later.");
+        } finally {
+            snapshot.get().release();
+        }
     }
 
     /**
-     * A method used to convert the node entities in database to node models
-     * and add nodes for the graph model (this graph model will be used in the shortest path finding algorithm).
-     *
+     * Finds the journey between two stations that arrives first, following the timetable of the network.
      */
-    private void addNodeToGraphModel(List<Node> nodesEntity, fr.u_paris.gla.project.model.Graph graphModel) {
-        for (Node nodeEntity : nodesEntity) {
-            Station stationEntity = nodeEntity.getStation();
-            fr.u_paris.gla.project.model.Station stationModel =
-                    new fr.u_paris.gla.project.model.Station(stationEntity.getId(), stationEntity.getName(), new GPSCoordinates(stationEntity.getLatitude(), stationEntity.getLongitude()));
-            fr.u_paris.gla.project.model.Node nodeModel =
-                    new fr.u_paris.gla.project.model.Node(nodeEntity.getLineId(), stationModel);
-            graphModel.addNode(nodeModel);
+    @PostMapping("/timetable")
+    public ResponseEntity<JourneyResponse> getEarliestArrival(@RequestBody JourneyRequest journeyRequest) {
+
+        if (journeyRequest.getDepartureTime() < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The departure time cannot be negative");
+        }
+
+        Optional<RoutingSnapshot> snapshot = graphService.acquireRoutingSnapshot(journeyRequest.getGraphId());
+        if (snapshot.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The graph that you provided doesn't exist");
+        }
+        if (snapshot.get().getTimetable().isEmpty()) {
+            snapshot.get().release();
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No timetable has been built for this graph: import its network again");
+        }
+
+        try {
+            return ResponseEntity.ok().body(pathFinderService.findEarliestArrival(snapshot.get(),
+                    journeyRequest.getStationFromId(), journeyRequest.getStationToId(), journeyRequest.getDepartureTime()));
+
+        } catch (PathNotFoundException exception) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, exception.getMessage());
+        } catch (Exception exception) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops! Something went wrong on our end. Our team has been notified and we are working to fix it. Please try again later.");
+        } finally {
+            snapshot.get().release();
         }
     }
 
     /**
-     * A method used to convert the edge entities in database to edge models
-     * and add edges for the graph model (this graph model will be used in the shortest path finding algorithm).
-     *
+     * Finds the journeys between two stations that are Pareto-optimal for the arrival time and the
+     * number of transfers, following the timetable of the network: each journey arrives earlier than
+     * the ones with fewer transfers.
      */
-    private void addEdgesToGraphModel(List<Edge> edgesEntity, fr.u_paris.gla.project.model.Graph graphModel) {
-        for (Edge edgeEntity : edgesEntity) {
-            Station stationFromEntity = edgeEntity.getFrom().getStation();
-            fr.u_paris.gla.project.model.Station stationFromModel =
-                    new fr.u_paris.gla.project.model.Station(stationFromEntity.getId(), stationFromEntity.getName(), new GPSCoordinates(stationFromEntity.getLatitude(), stationFromEntity.getLongitude()));
-            fr.u_paris.gla.project.model.Node nodeFromModel = null;
-            for (fr.u_paris.gla.project.model.Node node : graphModel.getNodes()) {
-                if (Objects.equals(edgeEntity.getFrom().getLineId(), node.getLineId()) && stationFromModel.equals(node.getStation())) {
-                    nodeFromModel = node;
-                    break;
-                }
-            }
-
-            Station stationToEntity = edgeEntity.getTo().getStation();
-            fr.u_paris.gla.project.model.Station stationToModel =
-                    new fr.u_paris.gla.project.model.Station(stationToEntity.getId(), stationToEntity.getName(), new GPSCoordinates(stationToEntity.getLatitude(), stationToEntity.getLongitude()));
-            fr.u_paris.gla.project.model.Node nodeToModel = null;
-            for (fr.u_paris.gla.project.model.Node node : graphModel.getNodes()) {
-                if (Objects.equals(edgeEntity.getTo().getLineId(), node.getLineId()) && stationToModel.equals(node.getStation())) {
-                    nodeToModel = node;
-                    break;
-                }
-            }
-
-            graphModel.addEdge(nodeFromModel, nodeToModel, edgeEntity.getBranchId(), edgeEntity.getDistance(), edgeEntity.getTravelTime());
+    @PostMapping("/timetable/pareto")
+    public ResponseEntity<List<JourneyResponse>> getParetoJourneys(@RequestBody JourneyRequest journeyRequest) {
+
+        if (journeyRequest.getDepartureTime() < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The departure time cannot be negative");
+        }
+        int maxTransfers = journeyRequest.getMaxTransfers() == null
+                ? PathFinderService.DEFAULT_MAX_TRANSFERS : journeyRequest.getMaxTransfers();
+        if (maxTransfers < 0 || maxTransfers > PathFinderService.MAX_TRANSFERS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "The number of transfers must be between 0 and " + PathFinderService.MAX_TRANSFERS);
+        }
+
+        Optional<RoutingSnapshot> snapshot = graphService.acquireRoutingSnapshot(journeyRequest.getGraphId());
+        if (snapshot.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The graph that you provided doesn't exist");
+        }
+        if (snapshot.get().getTimetable().isEmpty()) {
+            snapshot.get().release();
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No timetable has been built for this graph: import its network again");
+        }
+
+        try {
+            return ResponseEntity.ok().body(pathFinderService.findParetoJourneys(snapshot.get(),
+                    journeyRequest.getStationFromId(), journeyRequest.getStationToId(),
+                    journeyRequest.getDepartureTime(), maxTransfers));
+
+        } catch (PathNotFoundException exception) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, exception.getMessage());
+        } catch (Exception exception) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops! Something went wrong on our end. Our team has been notified and we are working to fix it. Please try again later.");
+        } finally {
+            snapshot.get().release();
         }
     }
 
+    /**
+     * Finds the journeys between two stations leaving in a window of departure times, following the
+     * timetable of the network: no other journey leaves later, arrives earlier and has fewer transfers.
+     */
+    @PostMapping("/timetable/profile")
+    public ResponseEntity<List<JourneyResponse>> getJourneyProfile(@RequestBody JourneyProfileRequest profileRequest) {
+
+        int earliest = profileRequest.getEarliestDepartureTime();
+        int latest = profileRequest.getLatestDepartureTime();
+        if (earliest < 0 || latest < earliest) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "The departure times cannot be negative, and the window cannot end before it starts");
+        }
+        if (latest - earliest > PathFinderService.MAX_DEPARTURE_WINDOW) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "The window of departure times cannot be longer than " + PathFinderService.MAX_DEPARTURE_WINDOW + " seconds");
+        }
+        int maxTransfers = profileRequest.getMaxTransfers() == null
+                ? PathFinderService.DEFAULT_MAX_TRANSFERS : profileRequest.getMaxTransfers();
+        if (maxTransfers < 0 || maxTransfers > PathFinderService.MAX_TRANSFERS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "The number of transfers must be between 0 and " + PathFinderService.MAX_TRANSFERS);
+        }
+
+        Optional<RoutingSnapshot> snapshot = graphService.acquireRoutingSnapshot(profileRequest.getGraphId());
+        if (snapshot.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The graph that you provided doesn't exist");
+        }
+        if (snapshot.get().getTimetable().isEmpty()) {
+            snapshot.get().release();
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No timetable has been built for this graph: import its network again");
+        }
+
+        try {
+            return ResponseEntity.ok().body(pathFinderService.findJourneyProfile(snapshot.get(),
+                    profileRequest.getStationFromId(), profileRequest.getStationToId(), earliest, latest, maxTransfers));
+
+        } catch (PathNotFoundException exception) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, exception.getMessage());
+        } catch (Exception exception) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops! Something went wrong on our end. Our team has been notified and we are working to fix it. Please try again later.");
+        } finally {
+            snapshot.get().release();
+        }
+    }
 
-}
\ No newline at end of file
+}
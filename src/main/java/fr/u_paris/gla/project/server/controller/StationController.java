@@ -1,15 +1,23 @@
 package fr.u_paris.gla.project.server.controller;
 
+import fr.u_paris.gla.project.server.entity.Graph;
 import fr.u_paris.gla.project.server.entity.Node;
+import fr.u_paris.gla.project.server.entity.ReachableStation;
 import fr.u_paris.gla.project.server.entity.Station;
+import fr.u_paris.gla.project.server.service.GraphService;
 import fr.u_paris.gla.project.server.service.NodeService;
+import fr.u_paris.gla.project.server.service.PathFinderService;
+import fr.u_paris.gla.project.server.service.RoutingSnapshot;
 import fr.u_paris.gla.project.server.service.StationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * REST controller for managing stations.
@@ -22,11 +30,16 @@ import java.util.List;
 public class StationController {
     private StationService stationService;
     private NodeService nodeService;
+    private GraphService graphService;
+    private PathFinderService pathFinderService;
 
     @Autowired
-    public StationController(StationService stationService, NodeService nodeService) {
+    public StationController(StationService stationService, NodeService nodeService,
+                             GraphService graphService, PathFinderService pathFinderService) {
         this.stationService = stationService;
         this.nodeService = nodeService;
+        this.graphService = graphService;
+        this.pathFinderService = pathFinderService;
     }
 
     @GetMapping("/{stationId}/lines")
@@ -57,4 +70,36 @@ public class StationController {
     public Station createStation(@RequestBody Station station) {
         return stationService.saveStation(station);
     }
+
+    /**
+     * Finds the stations that can be reached from a station within a travel time,
+     * in the given graph or, if none is given, in the graph imported last.
+     */
+    @GetMapping("/{id}/isochrone")
+    public List<ReachableStation> getIsochrone(@PathVariable Integer id, @RequestParam int maxSeconds,
+                                               @RequestParam(required = false) Integer graphId) {
+
+        if (maxSeconds < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The travel time cannot be negative");
+        }
+
+        Optional<RoutingSnapshot> snapshot = graphId != null
+                ? graphService.acquireRoutingSnapshot(graphId)
+                : graphService.findLatestGraph().map(Graph::getId).flatMap(graphService::acquireRoutingSnapshot);
+        if (snapshot.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The graph that you provided doesn't exist");
+        }
+        if (snapshot.get().getStationNodes(id).length == 0) {
+            snapshot.get().release();
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The station is not in the graph");
+        }
+
+        try {
+            return pathFinderService.findReachableStations(snapshot.get(), id, maxSeconds);
+        } catch (Exception exception) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops! Something went wrong on our end. Our team has been notified and we are working to fix it. Please try again later.");
+        } finally {
+            snapshot.get().release();
+        }
+    }
 }
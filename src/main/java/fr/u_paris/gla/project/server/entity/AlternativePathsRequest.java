@@ -0,0 +1,34 @@
+package fr.u_paris.gla.project.server.entity;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The request for the pathfinder API to get several alternative paths between 2 stations
+ */
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class AlternativePathsRequest {
+    @JsonProperty("graphId")
+    private int graphId;
+
+    @JsonProperty("stationFromId")
+    private int stationFromId;
+
+    @JsonProperty("stationToId")
+    private int stationToId;
+
+    // The number of paths asked for, 3 when it is not given
+    @JsonProperty("k")
+    private Integer k;
+
+    // Optional, if true the paths must go through different sequences of stations,
+    // and do not only differ by transfers inside a station
+    @JsonProperty("distinctStations")
+    private boolean distinctStations;
+}
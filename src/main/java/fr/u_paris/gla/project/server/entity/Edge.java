@@ -19,8 +19,10 @@ import java.util.Objects;
 @Data
 public class Edge {
 
+    // The ids come from a sequence in blocks of 50, so that the edges can be inserted in JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "edge_sequence")
+    @SequenceGenerator(name = "edge_sequence", sequenceName = "edge_sequence", allocationSize = 50)
     @Column(name = "id")
     private int id;
 
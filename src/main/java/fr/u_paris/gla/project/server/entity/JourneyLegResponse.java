@@ -0,0 +1,32 @@
+package fr.u_paris.gla.project.server.entity;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A leg of a journey: a ride on a line between two stations, or a walk if the line is null.
+ * The times are in seconds since midnight.
+ */
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class JourneyLegResponse {
+    @JsonProperty("line")
+    private String line;
+
+    @JsonProperty("stationFromId")
+    private int stationFromId;
+
+    @JsonProperty("stationToId")
+    private int stationToId;
+
+    @JsonProperty("departureTime")
+    private int departureTime;
+
+    @JsonProperty("arrivalTime")
+    private int arrivalTime;
+}
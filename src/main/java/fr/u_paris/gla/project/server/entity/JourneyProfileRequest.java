@@ -0,0 +1,37 @@
+package fr.u_paris.gla.project.server.entity;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The request for the pathfinder API to get the journeys between 2 stations leaving in a window of
+ * departure times, following the timetable of the network
+ */
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class JourneyProfileRequest {
+    @JsonProperty("graphId")
+    private int graphId;
+
+    @JsonProperty("stationFromId")
+    private int stationFromId;
+
+    @JsonProperty("stationToId")
+    private int stationToId;
+
+    // The window of departure times, in seconds since midnight
+    @JsonProperty("earliestDepartureTime")
+    private int earliestDepartureTime;
+
+    @JsonProperty("latestDepartureTime")
+    private int latestDepartureTime;
+
+    // The largest number of transfers of the journeys, or null for the default one
+    @JsonProperty("maxTransfers")
+    private Integer maxTransfers;
+}
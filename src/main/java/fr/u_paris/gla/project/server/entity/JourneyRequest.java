@@ -0,0 +1,34 @@
+package fr.u_paris.gla.project.server.entity;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The request for the pathfinder API to get the journeys between 2 stations that arrive first,
+ * following the timetable of the network
+ */
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class JourneyRequest {
+    @JsonProperty("graphId")
+    private int graphId;
+
+    @JsonProperty("stationFromId")
+    private int stationFromId;
+
+    @JsonProperty("stationToId")
+    private int stationToId;
+
+    // The earliest departure, in seconds since midnight
+    @JsonProperty("departureTime")
+    private int departureTime;
+
+    // The largest number of transfers of the Pareto-optimal journeys, or null for the default one
+    @JsonProperty("maxTransfers")
+    private Integer maxTransfers;
+}
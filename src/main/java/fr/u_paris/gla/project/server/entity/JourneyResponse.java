@@ -0,0 +1,31 @@
+package fr.u_paris.gla.project.server.entity;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The response of the pathfinder API with a journey following the timetable of the network.
+ * The times are in seconds since midnight.
+ */
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class JourneyResponse {
+    @JsonProperty("departureTime")
+    private int departureTime;
+
+    @JsonProperty("arrivalTime")
+    private int arrivalTime;
+
+    @JsonProperty("transfers")
+    private int transfers;
+
+    @JsonProperty("legs")
+    private List<JourneyLegResponse> legs;
+}
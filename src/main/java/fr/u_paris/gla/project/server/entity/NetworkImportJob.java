@@ -0,0 +1,140 @@
+package fr.u_paris.gla.project.server.entity;
+
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * An import of a network running in the background, as reported by the network API:
+ * its stage, how far it has got and how fast the rows are inserted.
+ * It is updated by the import thread and read by the request threads.
+ */
+
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NetworkImportJob {
+
+    /**
+     * The stages of an import, in order, with the percentage of the import done when they start,
+     * or {@link #NO_PERCENT} for the stages that do not change it
+     */
+    public enum Stage {
+        // Waiting for the previous imports to be over
+        QUEUED(0),
+        // Reading the network and schedule files
+        PARSING(0),
+        // Deleting the previous network and building the entities of the new one in memory
+        BUILDING_ENTITIES(10),
+        // Inserting the stations, the nodes and the edges
+        INSERTING(20),
+        // Building the routing snapshot: the network is routable once it is over
+        BUILDING_SNAPSHOT(90),
+        DONE(100),
+        // Stopped on an error: the percentage stays where the import stopped
+        FAILED(Stage.NO_PERCENT);
+
+        public static final int NO_PERCENT = -1;
+
+        private final int percent;
+
+        Stage(int percent) {
+            this.percent = percent;
+        }
+
+        public int getPercent() {
+            return percent;
+        }
+    }
+
+    @JsonProperty("id")
+    private final int id;
+
+    @JsonProperty("networkName")
+    private final String networkName;
+
+    @JsonProperty("stage")
+    private volatile Stage stage = Stage.QUEUED;
+
+    @JsonProperty("percent")
+    private volatile int percent;
+
+    // The rows inserted so far, out of the rows of the network
+    @JsonProperty("rows")
+    private volatile long rows;
+
+    @JsonProperty("totalRows")
+    private volatile long totalRows;
+
+    @JsonProperty("rowsPerSecond")
+    private volatile long rowsPerSecond;
+
+    // Known once the network is saved
+    @JsonProperty("networkId")
+    private volatile Integer networkId;
+
+    @JsonProperty("graphId")
+    private volatile Integer graphId;
+
+    @JsonProperty("error")
+    private volatile String error;
+
+    @Getter(AccessLevel.NONE)
+    private volatile long stageStart = System.currentTimeMillis();
+
+    public NetworkImportJob(int id, String networkName) {
+        this.id = id;
+        this.networkName = networkName;
+    }
+
+    /**
+     * Moves the import to its next stage.
+     *
+     * @param stage the stage that starts
+     */
+    public void startStage(Stage stage) {
+        this.stageStart = System.currentTimeMillis();
+        this.stage = stage;
+        if (stage.getPercent() != Stage.NO_PERCENT) {
+            this.percent = stage.getPercent();
+        }
+    }
+
+    /**
+     * Reports the rows inserted so far, during the {@link Stage#INSERTING} stage.
+     *
+     * @param rows      the rows inserted since the stage started
+     * @param totalRows the rows to insert
+     */
+    public void reportRows(long rows, long totalRows) {
+        long elapsed = Math.max(1, System.currentTimeMillis() - stageStart);
+        this.rows = rows;
+        this.totalRows = totalRows;
+        this.rowsPerSecond = rows * 1000 / elapsed;
+        if (totalRows > 0) {
+            int stagePercent = Stage.BUILDING_SNAPSHOT.getPercent() - Stage.INSERTING.getPercent();
+            this.percent = Stage.INSERTING.getPercent() + (int) (stagePercent * rows / totalRows);
+        }
+    }
+
+    /**
+     * Records the network saved by the import.
+     *
+     * @param network the saved network
+     */
+    public void setNetwork(Network network) {
+        this.networkId = network.getId();
+        this.graphId = network.getGraph().getId();
+    }
+
+    /**
+     * Stops the import on an error.
+     *
+     * @param error the message of the error
+     */
+    public void fail(String error) {
+        this.error = error;
+        this.stage = Stage.FAILED;
+    }
+}
@@ -0,0 +1,33 @@
+package fr.u_paris.gla.project.server.entity;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import fr.u_paris.gla.project.core.shortest_path_finder.INode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One of the Pareto-optimal paths between 2 stations, with its travel time, line changes and walking distance
+ */
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ParetoPathResponse {
+    @JsonProperty("listNodes")
+    private List<INode> listNodes;
+
+    @JsonProperty("totalTime")
+    private int totalTime;
+
+    // The number of vehicles boarded after the first one
+    @JsonProperty("lineChanges")
+    private int lineChanges;
+
+    // The distance walked along the path, in meters
+    @JsonProperty("walkingDistance")
+    private int walkingDistance;
+}
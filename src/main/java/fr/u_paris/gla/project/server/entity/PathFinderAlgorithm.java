@@ -0,0 +1,17 @@
+package fr.u_paris.gla.project.server.entity;
+
+/**
+ * The shortest path algorithms that can be requested from the pathfinder API
+ */
+public enum PathFinderAlgorithm {
+    // Dijkstra's algorithm, the default one
+    DIJKSTRA,
+    // A* guided by the flying distance to the target station
+    ASTAR,
+    // A* guided by the travel times to and from a few landmark nodes
+    ALT,
+    // Dijkstra's algorithm searching from both stations at once
+    BIDIRECTIONAL,
+    // Contraction hierarchies, or Dijkstra's algorithm while they are being preprocessed
+    CH
+}
@@ -0,0 +1,43 @@
+package fr.u_paris.gla.project.server.entity;
+
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import fr.u_paris.gla.project.core.shortest_path_finder.INode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The result of one of the requests of a batch sent to the pathfinder API:
+ * either the shortest path, or the HTTP status and the message of the error
+ * the request would have got on its own
+ */
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PathFinderBatchResult {
+    @JsonProperty("status")
+    private int status;
+
+    @JsonProperty("error")
+    private String error;
+
+    @JsonProperty("listNodes")
+    private List<INode> listNodes;
+
+    @JsonProperty("totalTime")
+    private Integer totalTime;
+
+    public static PathFinderBatchResult success(List<INode> listNodes, int totalTime) {
+        return new PathFinderBatchResult(200, null, listNodes, totalTime);
+    }
+
+    public static PathFinderBatchResult failure(int status, String error) {
+        return new PathFinderBatchResult(status, error, null, null);
+    }
+}
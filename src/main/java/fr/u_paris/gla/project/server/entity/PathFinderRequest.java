@@ -22,4 +22,8 @@ public class PathFinderRequest {
 
     @JsonProperty("stationToId")
     private int stationToId;
+
+    // Optional, Dijkstra's algorithm is used when it is not given
+    @JsonProperty("algorithm")
+    private PathFinderAlgorithm algorithm;
 }
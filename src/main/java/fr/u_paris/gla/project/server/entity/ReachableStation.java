@@ -0,0 +1,22 @@
+package fr.u_paris.gla.project.server.entity;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A station reached from another one by the isochrone API, with the travel time to get there
+ */
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ReachableStation {
+    @JsonProperty("stationId")
+    private int stationId;
+
+    @JsonProperty("travelTime")
+    private int travelTime;
+}
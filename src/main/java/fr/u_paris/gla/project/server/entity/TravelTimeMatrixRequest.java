@@ -0,0 +1,27 @@
+package fr.u_paris.gla.project.server.entity;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The request for the pathfinder API to get the travel times from a list of stations to another one
+ */
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class TravelTimeMatrixRequest {
+    @JsonProperty("graphId")
+    private int graphId;
+
+    @JsonProperty("stationFromIds")
+    private List<Integer> stationFromIds;
+
+    @JsonProperty("stationToIds")
+    private List<Integer> stationToIds;
+}
@@ -0,0 +1,29 @@
+package fr.u_paris.gla.project.server.entity;
+
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The response of the pathfinder API with the travel times from a list of stations to another one:
+ * travelTimes[i][j] is the travel time from the i-th station of stationFromIds to the j-th station
+ * of stationToIds, or null if there is no path between them
+ */
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class TravelTimeMatrixResponse {
+    @JsonProperty("stationFromIds")
+    private List<Integer> stationFromIds;
+
+    @JsonProperty("stationToIds")
+    private List<Integer> stationToIds;
+
+    @JsonProperty("travelTimes")
+    private Integer[][] travelTimes;
+}
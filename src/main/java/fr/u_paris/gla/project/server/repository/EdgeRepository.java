@@ -2,9 +2,15 @@ package fr.u_paris.gla.project.server.repository;
 
 import fr.u_paris.gla.project.server.entity.Edge;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface EdgeRepository extends JpaRepository<Edge,Integer> {
     List<Edge> findByGraphId(int graphId);
+
+    // Loads both ends of the edges and their stations, so that building a routing graph doesn't issue one query per edge
+    @Query("select e from Edge e join fetch e.from f join fetch f.station join fetch e.to t join fetch t.station where e.graph.id = :graphId")
+    List<Edge> findByGraphIdFetchNodes(@Param("graphId") int graphId);
 }
@@ -3,6 +3,9 @@ package fr.u_paris.gla.project.server.repository;
 import fr.u_paris.gla.project.server.entity.Graph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Optional;
+
 public interface GraphRepository  extends JpaRepository<Graph,Integer> {
 
+    Optional<Graph> findFirstByOrderByIdDesc();
 }
@@ -2,6 +2,8 @@ package fr.u_paris.gla.project.server.repository;
 
 import fr.u_paris.gla.project.server.entity.Node;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -11,4 +13,8 @@ public interface NodeRepository extends JpaRepository<Node,String> {
     List<Node> findByGraphId(int graphId);
     List<Node> findByGraphIdAndStationId(int graphId, int stationId);
 
+    // Loads the stations along with the nodes, so that building a routing graph doesn't issue one query per node
+    @Query("select n from Node n join fetch n.station where n.graph.id = :graphId")
+    List<Node> findByGraphIdFetchStation(@Param("graphId") int graphId);
+
 }
@@ -4,7 +4,6 @@ import fr.u_paris.gla.project.server.entity.Edge;
 import fr.u_paris.gla.project.server.repository.EdgeRepository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -38,15 +37,4 @@ public class EdgeService {
     public Edge saveEdge(Edge edge) {
         return edgeRepository.save(edge);
     }
-
-    @Transactional
-    public void resetPrimaryKey() {
-        entityManager.createNativeQuery("ALTER TABLE edge ALTER COLUMN id RESTART WITH 1").executeUpdate();
-    }
-
-    @Transactional
-    public void deleteAllEdgesAndResetPrimaryKey() {
-        edgeRepository.deleteAll();
-        resetPrimaryKey();
-    }
 }
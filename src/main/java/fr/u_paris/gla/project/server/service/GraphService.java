@@ -1,26 +1,73 @@
 package fr.u_paris.gla.project.server.service;
 
+import fr.u_paris.gla.project.core.shortest_path_finder.ContractionHierarchy;
+import fr.u_paris.gla.project.core.shortest_path_finder.MultiCriteriaPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingGraph;
+import fr.u_paris.gla.project.core.timetable.Timetable;
+import fr.u_paris.gla.project.server.entity.Edge;
 import fr.u_paris.gla.project.server.entity.Graph;
+import fr.u_paris.gla.project.server.entity.Node;
+import fr.u_paris.gla.project.server.entity.Station;
+import fr.u_paris.gla.project.server.repository.EdgeRepository;
 import fr.u_paris.gla.project.server.repository.GraphRepository;
+import fr.u_paris.gla.project.server.repository.NodeRepository;
+import fr.u_paris.gla.project.utils.GPS;
+import fr.u_paris.gla.project.utils.GPSCoordinates;
+import jakarta.annotation.PreDestroy;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 @Service
 public class GraphService {
+
+    private static final Logger LOGGER = Logger.getLogger(GraphService.class.getName());
+
     private GraphRepository graphRepository;
+    private NodeRepository nodeRepository;
+    private EdgeRepository edgeRepository;
 
     @PersistenceContext
     private EntityManager entityManager;
 
+    // The routing snapshot of the current network, shared by all the requests. A new version is built
+    // on the side and published by swapping the reference, so the requests never wait for it.
+    // The versions are numbered when their build starts
+    private final AtomicReference<RoutingSnapshot> currentSnapshot = new AtomicReference<>();
+    private final AtomicLong snapshotVersions = new AtomicLong();
+
+    // The graphs being imported: they are not routable until the import has built their snapshot
+    private final Set<Integer> heldGraphs = ConcurrentHashMap.newKeySet();
+
+    // Runs the preprocessing of the snapshots (contraction hierarchies) away from the request threads
+    private final ExecutorService preprocessingExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "routing-preprocessing");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     @Autowired
-    public GraphService(GraphRepository graphRepository, EntityManager entityManager) {
+    public GraphService(GraphRepository graphRepository, NodeRepository nodeRepository,
+                        EdgeRepository edgeRepository, EntityManager entityManager) {
         this.graphRepository = graphRepository;
+        this.nodeRepository = nodeRepository;
+        this.edgeRepository = edgeRepository;
         this.entityManager = entityManager;
     }
 
@@ -32,19 +79,265 @@ public class GraphService {
         return graphRepository.findById(id);
     }
 
+    /**
+     * @return the graph imported last, or an empty optional if there is none
+     */
+    public Optional<Graph> findLatestGraph() {
+        return graphRepository.findFirstByOrderByIdDesc();
+    }
+
     public Graph saveGraph(Graph graph) {
         return graphRepository.save(graph);
     }
 
-    @Transactional
-    public void resetPrimaryKey() {
-        entityManager.createNativeQuery("ALTER TABLE graph ALTER COLUMN id RESTART WITH 1").executeUpdate();
+    /**
+     * Returns the routing snapshot of a graph, if it is the current one. If no snapshot has been
+     * built for the graph yet, it is built from the database and published on the first request,
+     * without a timetable: the files of its import are not kept (after a restart, for instance).
+     *
+     * @param graphId the id of the graph
+     * @return the snapshot, or an empty optional if the graph doesn't exist or is still being imported
+     */
+    public Optional<RoutingSnapshot> findRoutingSnapshot(int graphId) {
+        RoutingSnapshot snapshot = currentSnapshot.get();
+        if (snapshot != null && snapshot.getGraphId() == graphId) {
+            return Optional.of(snapshot);
+        }
+        if (heldGraphs.contains(graphId) || !graphRepository.existsById(graphId)) {
+            return Optional.empty();
+        }
+        return buildMissingRoutingSnapshot(graphId);
+    }
+
+    /**
+     * Returns the routing snapshot of a graph like {@link #findRoutingSnapshot(int)}, acquired for a
+     * query: the caller must {@link RoutingSnapshot#release() release} it once the query is over.
+     *
+     * @param graphId the id of the graph
+     * @return the acquired snapshot, or an empty optional if the graph doesn't exist or is still being imported
+     */
+    public Optional<RoutingSnapshot> acquireRoutingSnapshot(int graphId) {
+        while (true) {
+            Optional<RoutingSnapshot> snapshot = findRoutingSnapshot(graphId);
+            // a snapshot can only be released once a newer version has replaced it: the lookup is tried again
+            if (snapshot.isEmpty() || snapshot.get().acquire()) {
+                return snapshot;
+            }
+        }
+    }
+
+    private synchronized Optional<RoutingSnapshot> buildMissingRoutingSnapshot(int graphId) {
+        RoutingSnapshot snapshot = currentSnapshot.get();
+        if (snapshot != null && snapshot.getGraphId() == graphId) {
+            return Optional.of(snapshot);
+        }
+        snapshot = buildRoutingSnapshot(graphId, null);
+        if (publishRoutingSnapshot(snapshot)) {
+            return Optional.of(snapshot);
+        }
+        // an import has published a newer version while this one was built
+        snapshot = currentSnapshot.get();
+        return snapshot.getGraphId() == graphId ? Optional.of(snapshot) : Optional.empty();
+    }
+
+    /**
+     * Builds a new version of the routing snapshot of a graph from the database, and publishes it
+     * in place of the current one. The requests keep using the current version until then.
+     *
+     * @param graphId   the id of the graph
+     * @param timetable the timetable built from the files the graph has been imported from, or null if there is none
+     * @return the new snapshot, or an empty optional if a version started after it has already been published
+     */
+    public Optional<RoutingSnapshot> rebuildRoutingSnapshot(int graphId, Timetable timetable) {
+        try {
+            RoutingSnapshot snapshot = buildRoutingSnapshot(graphId, timetable);
+            return publishRoutingSnapshot(snapshot) ? Optional.of(snapshot) : Optional.empty();
+        } finally {
+            heldGraphs.remove(graphId);
+        }
+    }
+
+    /**
+     * Makes a snapshot the current one, with a single swap of the reference. The previous version
+     * is released once the queries using it are over.
+     * A snapshot never replaces a newer version: the versions are numbered when their build starts,
+     * so that a slow build of an old graph cannot take the place of the network imported since.
+     *
+     * @return true if the snapshot has been published, false if it has been dropped for a newer version
+     */
+    private boolean publishRoutingSnapshot(RoutingSnapshot snapshot) {
+        while (true) {
+            RoutingSnapshot previous = currentSnapshot.get();
+            if (previous != null && previous.getVersion() > snapshot.getVersion()) {
+                LOGGER.info(String.format("Routing snapshot version %d of graph %d dropped for version %d",
+                        snapshot.getVersion(), snapshot.getGraphId(), previous.getVersion()));
+                snapshot.retire();
+                return false;
+            }
+            if (currentSnapshot.compareAndSet(previous, snapshot)) {
+                LOGGER.info(String.format("Routing snapshot version %d of graph %d published", snapshot.getVersion(), snapshot.getGraphId()));
+                if (previous != null) {
+                    previous.retire();
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Keeps a graph from being routed until {@link #rebuildRoutingSnapshot(int)} has built its
+     * snapshot, instead of building the snapshot on the first request.
+     * Used by the imports, so that a network only becomes routable once its snapshot is ready.
+     *
+     * @param graphId the id of the graph
+     */
+    public void holdRoutingSnapshot(int graphId) {
+        heldGraphs.add(graphId);
+    }
+
+    /**
+     * Lets a graph held by {@link #holdRoutingSnapshot(int)} be routed again, when its import
+     * stops before {@link #rebuildRoutingSnapshot(int, Timetable)} is called.
+     *
+     * @param graphId the id of the graph
+     */
+    public void unholdRoutingSnapshot(int graphId) {
+        heldGraphs.remove(graphId);
+    }
+
+    private RoutingSnapshot buildRoutingSnapshot(int graphId, Timetable timetable) {
+        long start = System.currentTimeMillis();
+        long version = snapshotVersions.incrementAndGet();
+
+        List<Node> nodesEntity = nodeRepository.findByGraphIdFetchStation(graphId);
+        List<Edge> edgesEntity = edgeRepository.findByGraphIdFetchNodes(graphId);
+
+        fr.u_paris.gla.project.model.Graph graphModel = new fr.u_paris.gla.project.model.Graph();
+
+        // add nodes to graph model, keeping track of the model node of every node entity
+        Map<String, fr.u_paris.gla.project.model.Node> nodesModelById = addNodeToGraphModel(nodesEntity, graphModel);
+
+        // add edges to graph model
+        addEdgesToGraphModel(edgesEntity, nodesModelById, graphModel);
+
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(graphModel);
+
+        // group the indices of the nodes by station
+        Map<Integer, List<Integer>> nodesByStation = new HashMap<>();
+        for (int i = 0; i < routingGraph.getNodeCount(); i++) {
+            fr.u_paris.gla.project.model.Node nodeModel = (fr.u_paris.gla.project.model.Node) routingGraph.getNode(i);
+            nodesByStation.computeIfAbsent(nodeModel.getStation().getId(), stationId -> new ArrayList<>()).add(i);
+        }
+        Map<Integer, int[]> stationNodes = new HashMap<>();
+        nodesByStation.forEach((stationId, nodes) ->
+                stationNodes.put(stationId, nodes.stream().mapToInt(Integer::intValue).toArray()));
+
+        // the stops of the timetable are the stations, by name
+        Map<Integer, Integer> stationStops = new HashMap<>();
+        if (timetable != null) {
+            for (Node nodeEntity : nodesEntity) {
+                int stop = timetable.indexOfStop(nodeEntity.getStation().getName());
+                if (stop != -1) {
+                    stationStops.put(nodeEntity.getStation().getId(), stop);
+                }
+            }
+        }
+
+        RoutingSnapshot snapshot = new RoutingSnapshot(version, graphId, routingGraph, stationNodes,
+                computeWalkingDistances(routingGraph), buildContractionHierarchy(graphId, routingGraph), timetable, stationStops);
+        LOGGER.info(String.format("Routing snapshot version %d of graph %d built in %d ms (%d nodes, %d edges)",
+                snapshot.getVersion(), graphId, System.currentTimeMillis() - start, routingGraph.getNodeCount(), routingGraph.getEdgeCount()));
+        return snapshot;
+    }
+
+    /**
+     * Computes the distance walked along each edge of a routing graph. The walking edges
+     * are the ones imported with a distance of 0: they are walked from one station to the
+     * other, in a straight line.
+     *
+     * @return the distances in meters, {@link MultiCriteriaPathFinder#RIDE} for the edges ridden on board
+     */
+    private static int[] computeWalkingDistances(RoutingGraph routingGraph) {
+        int[] walkingDistances = new int[routingGraph.getEdgeCount()];
+        for (int edge = 0; edge < walkingDistances.length; edge++) {
+            fr.u_paris.gla.project.model.Edge edgeModel = (fr.u_paris.gla.project.model.Edge) routingGraph.getArrow(edge);
+            if (edgeModel.getDistance() > 0) {
+                walkingDistances[edge] = MultiCriteriaPathFinder.RIDE;
+            } else {
+                GPSCoordinates from = edgeModel.getFrom().getCoordinates();
+                GPSCoordinates to = edgeModel.getTo().getCoordinates();
+                walkingDistances[edge] = (int) Math.round(1000 * GPS.distance(from.latitude(), from.longitude(),
+                        to.latitude(), to.longitude()));
+            }
+        }
+        return walkingDistances;
+    }
+
+    /**
+     * Starts the preprocessing of the contraction hierarchy of a routing graph in the background.
+     * Until it is over, the queries asking for it are answered by Dijkstra's algorithm.
+     */
+    private CompletableFuture<ContractionHierarchy> buildContractionHierarchy(int graphId, RoutingGraph routingGraph) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.currentTimeMillis();
+            ContractionHierarchy contractionHierarchy = ContractionHierarchy.build(routingGraph);
+            LOGGER.info(String.format("Contraction hierarchy of graph %d built in %d ms (%d shortcuts)",
+                    graphId, System.currentTimeMillis() - start, contractionHierarchy.getShortcutCount()));
+            return contractionHierarchy;
+        }, preprocessingExecutor).whenComplete((contractionHierarchy, exception) -> {
+            if (exception != null) {
+                LOGGER.log(Level.WARNING, "Cannot build the contraction hierarchy of graph " + graphId, exception);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdownPreprocessing() {
+        preprocessingExecutor.shutdownNow();
     }
 
-    @Transactional
-    public void deleteAllGraphsAndResetPrimaryKey() {
-        graphRepository.deleteAll();
-        resetPrimaryKey();
+    /**
+     * A method used to convert the node entities in database to node models
+     * and add nodes for the graph model (this graph model will be used in the shortest path finding algorithm).
+     *
+     * @return the node models, by id of the node entity they have been converted from
+     */
+    private Map<String, fr.u_paris.gla.project.model.Node> addNodeToGraphModel(
+            List<Node> nodesEntity, fr.u_paris.gla.project.model.Graph graphModel) {
+        Map<Integer, fr.u_paris.gla.project.model.Station> stationsModelById = new HashMap<>();
+        Map<fr.u_paris.gla.project.model.Node, fr.u_paris.gla.project.model.Node> knownNodesModel = new HashMap<>();
+        Map<String, fr.u_paris.gla.project.model.Node> nodesModelById = new HashMap<>();
+
+        for (Node nodeEntity : nodesEntity) {
+            Station stationEntity = nodeEntity.getStation();
+            fr.u_paris.gla.project.model.Station stationModel = stationsModelById.computeIfAbsent(stationEntity.getId(),
+                    id -> new fr.u_paris.gla.project.model.Station(id, stationEntity.getName(), new GPSCoordinates(stationEntity.getLatitude(), stationEntity.getLongitude())));
+            fr.u_paris.gla.project.model.Node nodeModel =
+                    new fr.u_paris.gla.project.model.Node(nodeEntity.getLineId(), stationModel);
+
+            // node models are equal when they have the same line and station name: the first one is kept
+            nodeModel = knownNodesModel.computeIfAbsent(nodeModel, node -> node);
+            nodesModelById.put(nodeEntity.getId(), nodeModel);
+            graphModel.addNode(nodeModel);
+        }
+        return nodesModelById;
+    }
+
+    /**
+     * A method used to convert the edge entities in database to edge models
+     * and add edges for the graph model (this graph model will be used in the shortest path finding algorithm).
+     * The ends of the edges are looked up by node id, so that the graph is built in linear time.
+     *
+     */
+    private void addEdgesToGraphModel(List<Edge> edgesEntity,
+                                      Map<String, fr.u_paris.gla.project.model.Node> nodesModelById,
+                                      fr.u_paris.gla.project.model.Graph graphModel) {
+        for (Edge edgeEntity : edgesEntity) {
+            fr.u_paris.gla.project.model.Node nodeFromModel = nodesModelById.get(edgeEntity.getFrom().getId());
+            fr.u_paris.gla.project.model.Node nodeToModel = nodesModelById.get(edgeEntity.getTo().getId());
+
+            graphModel.addEdge(nodeFromModel, nodeToModel, edgeEntity.getBranchId(), edgeEntity.getDistance(), edgeEntity.getTravelTime());
+        }
     }
 
 }
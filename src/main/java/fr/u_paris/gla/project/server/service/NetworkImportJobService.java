@@ -0,0 +1,112 @@
+package fr.u_paris.gla.project.server.service;
+
+import fr.u_paris.gla.project.core.timetable.Timetable;
+import fr.u_paris.gla.project.model.Edge;
+import fr.u_paris.gla.project.model.Node;
+import fr.u_paris.gla.project.parser.CSVNetworkParser;
+import fr.u_paris.gla.project.server.entity.Network;
+import fr.u_paris.gla.project.server.entity.NetworkImportJob;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Service running the imports of networks in the background, one at a time, so that
+ * a large import does not hold a request thread. Each import is followed through its job.
+ *
+ * @see NetworkImportJob
+ */
+@Service
+public class NetworkImportJobService {
+
+    private static final Logger LOGGER = Logger.getLogger(NetworkImportJobService.class.getName());
+
+    private NetworkImportService networkImportService;
+    private GraphService graphService;
+    private TimetableService timetableService;
+
+    // The jobs, by id, including the ones that are over
+    private final Map<Integer, NetworkImportJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger nextJobId = new AtomicInteger(1);
+
+    // Runs the imports away from the request threads. A single thread, since an import replaces the current network
+    private final ExecutorService importExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "network-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public NetworkImportJobService(NetworkImportService networkImportService, GraphService graphService,
+                                   TimetableService timetableService) {
+        this.networkImportService = networkImportService;
+        this.graphService = graphService;
+        this.timetableService = timetableService;
+    }
+
+    /**
+     * Starts the import of a network in the background, after the imports already started.
+     *
+     * @param networkName the name of the network
+     * @param networkCSV  the path of the network file
+     * @param scheduleCSV the path of the schedule file
+     * @return the job of the import
+     */
+    public NetworkImportJob submitImport(String networkName, String networkCSV, String scheduleCSV) {
+        NetworkImportJob job = new NetworkImportJob(nextJobId.getAndIncrement(), networkName);
+        jobs.put(job.getId(), job);
+        importExecutor.execute(() -> runImport(job, networkCSV, scheduleCSV));
+        return job;
+    }
+
+    public Optional<NetworkImportJob> findJobById(int id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void runImport(NetworkImportJob job, String networkCSV, String scheduleCSV) {
+        long start = System.currentTimeMillis();
+        try {
+            job.startStage(NetworkImportJob.Stage.PARSING);
+            CSVNetworkParser parser = new CSVNetworkParser(networkCSV, scheduleCSV);
+            parser.parseAll();
+
+            List<Node> nodesModel = parser.getNetwork().getGraph().getNodes().stream().toList();
+            List<Edge> edgesModel = parser.getNetwork().getGraph().getEdges().stream().toList();
+            // the timetable comes from the same files as the graph, whatever is uploaded in the meantime
+            Timetable timetable = timetableService.buildTimetable(parser).orElse(null);
+
+            Network networkEntity = networkImportService.replaceNetwork(job.getNetworkName(), nodesModel, edgesModel, job);
+            job.setNetwork(networkEntity);
+
+            // the snapshot of the replaced network is served until the new one is published
+            job.startStage(NetworkImportJob.Stage.BUILDING_SNAPSHOT);
+            graphService.rebuildRoutingSnapshot(networkEntity.getGraph().getId(), timetable);
+
+            job.startStage(NetworkImportJob.Stage.DONE);
+            LOGGER.info(String.format("Import job %d of network %s done in %d ms",
+                    job.getId(), job.getNetworkName(), System.currentTimeMillis() - start));
+        } catch (Exception exception) {
+            LOGGER.log(Level.WARNING, "Import job " + job.getId() + " failed", exception);
+            job.fail(exception.getMessage());
+            // a committed graph whose snapshot could not be built is left to the lazy build of the requests
+            if (job.getGraphId() != null) {
+                graphService.unholdRoutingSnapshot(job.getGraphId());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdownImports() {
+        importExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,281 @@
+package fr.u_paris.gla.project.server.service;
+
+import fr.u_paris.gla.project.server.entity.Edge;
+import fr.u_paris.gla.project.server.entity.Graph;
+import fr.u_paris.gla.project.server.entity.Network;
+import fr.u_paris.gla.project.server.entity.NetworkImportJob;
+import fr.u_paris.gla.project.server.entity.Node;
+import fr.u_paris.gla.project.server.entity.Station;
+import fr.u_paris.gla.project.utils.GPS;
+import fr.u_paris.gla.project.utils.GPSCoordinates;
+import fr.u_paris.gla.project.utils.GPSGrid;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * Service saving a parsed network to the database, in place of the current one.
+ * All the entities of the network are built in memory first, then inserted in a single
+ * transaction, so that Hibernate sends them in JDBC batches (see the {@code hibernate.jdbc}
+ * settings of the application) instead of one statement and one lookup at a time.
+ * The rows of the current network are deleted with bulk statements in the same transaction,
+ * so the other connections keep reading the current network until the new one is committed.
+ */
+@Service
+public class NetworkImportService {
+
+    private static final Logger LOGGER = Logger.getLogger(NetworkImportService.class.getName());
+
+    /** The average walking speed, in km/h (1.42 m/s) */
+    public static final double AVERAGE_WALKING_SPEED = 5.1;
+
+    /** The maximum walking distance between two nodes, in km */
+    public static final double MAX_WALKING_DISTANCE = 0.5;
+
+    // The shortest walk between two nodes, so that Dijkstra's algorithm does not loop
+    // between the nodes of a station that have the same coordinates
+    private static final LocalTime LOOP_AVOIDANCE_TRAVEL_TIME = LocalTime.of(0, 0, 5);
+
+    // The inserted rows are flushed and reported to the import job in this many steps
+    private static final int PROGRESS_STEPS = 20;
+
+    private GraphService graphService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public NetworkImportService(GraphService graphService, EntityManager entityManager) {
+        this.graphService = graphService;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Replaces the current network, if any, with a new one: saves the network, its graph, its
+     * stations, its nodes and the edges between them, along with the walking edges between the
+     * nodes of a same station or of nearby stations.
+     * The ids are not restarted, so the new network has a new graph id and new station ids:
+     * the routing snapshot of the previous graph can be served until the new one is ready.
+     *
+     * @param networkName the name of the network
+     * @param nodesModel  the nodes of the parsed network
+     * @param edgesModel  the edges of the parsed network
+     * @param job         the import job, told about the stages and the rows inserted
+     * @return the saved network
+     */
+    @Transactional
+    public Network replaceNetwork(String networkName,
+                                  List<fr.u_paris.gla.project.model.Node> nodesModel,
+                                  List<fr.u_paris.gla.project.model.Edge> edgesModel,
+                                  NetworkImportJob job) {
+        long start = System.currentTimeMillis();
+        job.startStage(NetworkImportJob.Stage.BUILDING_ENTITIES);
+
+        // the ids of the nodes come from the lines and the stations: the previous ones must be gone first
+        int deletedRows = deleteAllNetworks();
+        long deleted = System.currentTimeMillis();
+
+        // the graph gets its id first, since the edges are hashed with it
+        Graph graphEntity = new Graph();
+        entityManager.persist(graphEntity);
+        Network networkEntity = new Network(networkName);
+        networkEntity.setGraph(graphEntity);
+        entityManager.persist(networkEntity);
+        // the graph is not routable before its snapshot is built, even once it is committed.
+        // If the import is rolled back, the graph does not exist: its id is released
+        int graphId = graphEntity.getId();
+        graphService.holdRoutingSnapshot(graphId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    graphService.unholdRoutingSnapshot(graphId);
+                }
+            }
+        });
+
+        Map<String, Station> stationsEntity = new LinkedHashMap<>();
+        Map<String, Node> nodesEntityById = new LinkedHashMap<>();
+        // equal edges (same graph, branch and nodes) are only saved once
+        Set<Edge> edgesEntity = new LinkedHashSet<>();
+        buildNodesAndStations(nodesModel, graphEntity, stationsEntity, nodesEntityById);
+        buildEdges(edgesModel, nodesEntityById, graphEntity, edgesEntity);
+        buildEdgesForNodesInSameStationOrInNearbyStations(nodesModel, nodesEntityById, graphEntity, edgesEntity);
+        long built = System.currentTimeMillis();
+
+        // the entities are flushed in a few steps, to tell the job how many rows are inserted.
+        // The nodes get their arrows once everything is persisted: persisting an entity cascades through
+        // all the entities it reaches, which would otherwise be the whole graph every time.
+        job.startStage(NetworkImportJob.Stage.INSERTING);
+        List<Object> entities = new ArrayList<>(stationsEntity.size() + nodesEntityById.size() + edgesEntity.size());
+        entities.addAll(stationsEntity.values());
+        entities.addAll(nodesEntityById.values());
+        entities.addAll(edgesEntity);
+        int step = Math.max(1, entities.size() / PROGRESS_STEPS);
+        for (int i = 0; i < entities.size(); i++) {
+            entityManager.persist(entities.get(i));
+            if ((i + 1) % step == 0) {
+                entityManager.flush();
+                job.reportRows(i + 1, entities.size());
+            }
+        }
+        for (Edge edgeEntity : edgesEntity) {
+            edgeEntity.getFrom().addOutgoingArrow(edgeEntity);
+            edgeEntity.getTo().addIncomingArrow(edgeEntity);
+        }
+        entityManager.flush();
+        job.reportRows(entities.size(), entities.size());
+        long inserted = System.currentTimeMillis();
+
+        LOGGER.info(String.format("Network %s saved in %d ms (%d rows of the previous networks deleted in %d ms, "
+                        + "entities built in %d ms, %d stations, %d nodes and %d edges inserted in %d ms)",
+                networkName, inserted - start, deletedRows, deleted - start, built - deleted,
+                stationsEntity.size(), nodesEntityById.size(), edgesEntity.size(), inserted - built));
+        return networkEntity;
+    }
+
+    /**
+     * Deletes the rows of all the networks with native statements, one per table, without loading
+     * them in the persistence context. The tables are emptied in the order of their foreign keys.
+     *
+     * @return the number of rows deleted
+     */
+    private int deleteAllNetworks() {
+        int deletedRows = 0;
+        for (String table : List.of("edge", "node", "network", "station", "graph")) {
+            deletedRows += entityManager.createNativeQuery("DELETE FROM " + table).executeUpdate();
+        }
+        return deletedRows;
+    }
+
+    /**
+     * Converts the node models to node entities, within their respective stations.
+     * The stations are told apart by their name and their coordinates.
+     */
+    private void buildNodesAndStations(List<fr.u_paris.gla.project.model.Node> nodesModel, Graph graphEntity,
+                                       Map<String, Station> stationsEntity, Map<String, Node> nodesEntityById) {
+        for (fr.u_paris.gla.project.model.Node n : nodesModel) {
+            GPSCoordinates coordinates = n.getStation().getCoordinates();
+            Station station = stationsEntity.computeIfAbsent(
+                    n.getStation().getName() + ";" + coordinates.latitude() + ";" + coordinates.longitude(),
+                    key -> new Station(n.getStation().getName(), coordinates.latitude(), coordinates.longitude()));
+
+            Node nodeEntity = new Node();
+            nodeEntity.setGraph(graphEntity);
+            nodeEntity.setId(n.getUniqueIdentifier());
+            nodeEntity.setLineId(n.getLineId());
+            nodeEntity.setStation(station);
+            nodesEntityById.put(nodeEntity.getId(), nodeEntity);
+        }
+    }
+
+    /**
+     * Converts the edge models to edge entities.
+     */
+    private void buildEdges(List<fr.u_paris.gla.project.model.Edge> edgesModel, Map<String, Node> nodesEntityById,
+                            Graph graphEntity, Set<Edge> edgesEntity) {
+        for (fr.u_paris.gla.project.model.Edge e : edgesModel) {
+            Edge edgeEntity = new Edge(e.getBranchId(), e.getDistance(), e.getTravelTime());
+            edgeEntity.setGraph(graphEntity);
+            edgeEntity.setFrom(nodesEntityById.get(e.getFrom().getUniqueIdentifier()));
+            edgeEntity.setTo(nodesEntityById.get(e.getTo().getUniqueIdentifier()));
+            edgesEntity.add(edgeEntity);
+        }
+    }
+
+    /**
+     * Builds the walking edges between nodes in the same station or in nearby stations.
+     * The nearby nodes are found with a grid of cells as large as the walking distance, so that
+     * each node is only compared with the nodes of the cells around it, and of its own station.
+     */
+    private void buildEdgesForNodesInSameStationOrInNearbyStations(List<fr.u_paris.gla.project.model.Node> nodesModel,
+                                                                   Map<String, Node> nodesEntityById,
+                                                                   Graph graphEntity, Set<Edge> edgesEntity) {
+        List<GPSCoordinates> coordinates = nodesModel.stream()
+                .map(node -> node.getStation().getCoordinates())
+                .toList();
+        GPSGrid grid = new GPSGrid(coordinates, MAX_WALKING_DISTANCE);
+
+        // stations are equal when they have the same name, wherever they are
+        Map<fr.u_paris.gla.project.model.Station, List<Integer>> nodesByStation = new HashMap<>();
+        for (int i = 0; i < nodesModel.size(); i++) {
+            nodesByStation.computeIfAbsent(nodesModel.get(i).getStation(), station -> new ArrayList<>()).add(i);
+        }
+
+        for (int i = 0; i < nodesModel.size(); i++) {
+            fr.u_paris.gla.project.model.Node nodeFrom = nodesModel.get(i);
+            Node nodeFromEntity = nodesEntityById.get(nodeFrom.getUniqueIdentifier());
+
+            // the pairs are visited in the same order as when every pair of nodes was compared
+            int from = i;
+            int[] candidates = IntStream.concat(Arrays.stream(grid.findNeighbors(i)),
+                            nodesByStation.get(nodeFrom.getStation()).stream().mapToInt(Integer::intValue))
+                    .filter(j -> j > from)
+                    .distinct()
+                    .sorted()
+                    .toArray();
+
+            for (int j : candidates) {
+                fr.u_paris.gla.project.model.Node nodeTo = nodesModel.get(j);
+                Node nodeToEntity = nodesEntityById.get(nodeTo.getUniqueIdentifier());
+
+                // two nodes of the same station are joined to represent the movement within the station,
+                // two nodes of nearby stations to represent the walk between them
+                LocalTime walkingTime = nodeFrom.getStation().equals(nodeTo.getStation())
+                        ? calculateWalkingTimeBetweenNodesInAStation(nodeFrom, nodeTo)
+                        : calculateWalkingTimeFromDistance(grid.distance(i, j));
+
+                // walking edges have a distance of 0
+                Edge edgeEntity1 = new Edge(0, 0, walkingTime);
+                edgeEntity1.setGraph(graphEntity);
+                edgeEntity1.setFrom(nodeFromEntity);
+                edgeEntity1.setTo(nodeToEntity);
+                edgesEntity.add(edgeEntity1);
+
+                Edge edgeEntity2 = new Edge(0, 0, walkingTime);
+                edgeEntity2.setGraph(graphEntity);
+                edgeEntity2.setFrom(nodeToEntity);
+                edgeEntity2.setTo(nodeFromEntity);
+                edgesEntity.add(edgeEntity2);
+            }
+        }
+    }
+
+    public static LocalTime calculateWalkingTimeBetweenNodesInAStation(fr.u_paris.gla.project.model.Node nodeFrom,
+                                                                       fr.u_paris.gla.project.model.Node nodeTo) {
+        // 2 nodes in the same station can have the same coordinates, which lead to a 0 time of walking
+        double distance = GPS.distance(nodeFrom.getStation().getCoordinates().latitude(),
+                nodeFrom.getStation().getCoordinates().longitude(),
+                nodeTo.getStation().getCoordinates().latitude(),
+                nodeTo.getStation().getCoordinates().longitude());
+
+        LocalTime calculatedTravelTime = calculateWalkingTimeFromDistance(distance);
+
+        return calculatedTravelTime.isAfter(LOOP_AVOIDANCE_TRAVEL_TIME) ?
+                calculatedTravelTime : LOOP_AVOIDANCE_TRAVEL_TIME;
+    }
+
+    public static LocalTime calculateWalkingTimeFromDistance(double distance) {
+
+        // calculate the travel time based on the distance, convert it to seconds
+        double travelTimeInSeconds = distance / AVERAGE_WALKING_SPEED * 3600;
+
+        return LocalTime.ofSecondOfDay((long) travelTimeInSeconds);
+    }
+}
@@ -4,7 +4,6 @@ import fr.u_paris.gla.project.server.entity.Network;
 import fr.u_paris.gla.project.server.repository.NetworkRepository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -35,15 +34,4 @@ public class NetworkService {
     public Network saveNetwork(Network network) {
         return networkRepository.save(network);
     }
-
-    @Transactional
-    public void resetPrimaryKey() {
-        entityManager.createNativeQuery("ALTER TABLE network ALTER COLUMN id RESTART WITH 1").executeUpdate();
-    }
-
-    @Transactional
-    public void deleteAllNetworksAndResetPrimaryKey() {
-        networkRepository.deleteAll();
-        resetPrimaryKey();
-    }
 }
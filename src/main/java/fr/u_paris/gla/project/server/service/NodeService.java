@@ -40,8 +40,4 @@ public class NodeService {
     public Node saveNode(Node node) {
         return nodeRepository.save(node);
     }
-
-    public void deleteAllNodes() {
-        nodeRepository.deleteAll();
-    }
 }
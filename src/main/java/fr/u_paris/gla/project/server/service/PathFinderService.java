@@ -0,0 +1,412 @@
+package fr.u_paris.gla.project.server.service;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.AStarPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.BidirectionalDijkstraPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.ContractionHierarchy;
+import fr.u_paris.gla.project.core.shortest_path_finder.DijkstraPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.MultiCriteriaPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.NodeNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.ParetoPath;
+import fr.u_paris.gla.project.core.shortest_path_finder.PathNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingGraph;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingPath;
+import fr.u_paris.gla.project.core.shortest_path_finder.ShortestPathTree;
+import fr.u_paris.gla.project.core.shortest_path_finder.YenKShortestPathFinder;
+import fr.u_paris.gla.project.core.timetable.ConnectionScanRouter;
+import fr.u_paris.gla.project.core.timetable.Journey;
+import fr.u_paris.gla.project.core.timetable.JourneyLeg;
+import fr.u_paris.gla.project.core.timetable.RaptorRouter;
+import fr.u_paris.gla.project.core.timetable.Timetable;
+import fr.u_paris.gla.project.server.entity.JourneyLegResponse;
+import fr.u_paris.gla.project.server.entity.JourneyResponse;
+import fr.u_paris.gla.project.server.entity.PathFinderAlgorithm;
+import fr.u_paris.gla.project.server.entity.PathFinderBatchResult;
+import fr.u_paris.gla.project.server.entity.PathFinderRequest;
+import fr.u_paris.gla.project.server.entity.ReachableStation;
+import fr.u_paris.gla.project.server.entity.TravelTimeMatrixResponse;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * Service running the shortest path algorithms on the routing snapshots.
+ */
+@Service
+public class PathFinderService {
+
+    private static final Logger LOGGER = Logger.getLogger(PathFinderService.class.getName());
+
+    /** The largest number of requests in a batch */
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    /** The number of alternative paths when it is not given, and the largest one */
+    public static final int DEFAULT_ALTERNATIVES = 3;
+    public static final int MAX_ALTERNATIVES = 10;
+
+    /** The largest number of cells of a travel time matrix */
+    public static final int MAX_MATRIX_SIZE = 1_000_000;
+
+    /** The largest number of transfers of the journeys when it is not given, and the largest one */
+    public static final int DEFAULT_MAX_TRANSFERS = 4;
+    public static final int MAX_TRANSFERS = 8;
+
+    /** The longest window of departure times of a profile, in seconds */
+    public static final int MAX_DEPARTURE_WINDOW = 4 * 3600;
+
+    private GraphService graphService;
+
+    // Runs the requests of the batches, one worker per core. The searches only read the snapshots,
+    // and each worker reuses its own search arrays.
+    private final ForkJoinPool batchPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    @Autowired
+    public PathFinderService(GraphService graphService) {
+        this.graphService = graphService;
+    }
+
+    /**
+     * Finds the shortest path between two stations of a routing snapshot.
+     *
+     * @param snapshot      the routing snapshot of the graph
+     * @param stationFromId the id of the departure station
+     * @param stationToId   the id of the arrival station
+     * @param algorithm     the algorithm to use, Dijkstra's algorithm if null
+     * @return the shortest path
+     * @throws NodeNotFoundException if the path goes through nodes that are not in the graph
+     * @throws PathNotFoundException if one of the stations is not in the graph, or if there is no path between them
+     */
+    public RoutingPath findShortestPath(RoutingSnapshot snapshot, int stationFromId, int stationToId,
+                                        PathFinderAlgorithm algorithm)
+            throws NodeNotFoundException, PathNotFoundException {
+        int[] nodesSource = snapshot.getStationNodes(stationFromId);
+        int[] nodesTarget = snapshot.getStationNodes(stationToId);
+
+        if (nodesSource.length == 0 || nodesTarget.length == 0) {
+            throw new PathNotFoundException("Cannot find the shortest path");
+        }
+
+        RoutingGraph routingGraph = snapshot.getRoutingGraph();
+
+        // a single search from all the nodes of the source station to the closest node of the target station
+        switch (algorithm == null ? PathFinderAlgorithm.DIJKSTRA : algorithm) {
+            case ASTAR:
+                return AStarPathFinder.computeShortestPath(routingGraph, nodesSource, nodesTarget,
+                        snapshot.getGpsHeuristic().towards(nodesTarget));
+            case ALT:
+                return AStarPathFinder.computeShortestPath(routingGraph, nodesSource, nodesTarget,
+                        snapshot.getLandmarkHeuristic().towards(nodesTarget));
+            case BIDIRECTIONAL:
+                return BidirectionalDijkstraPathFinder.computeShortestPath(routingGraph, nodesSource, nodesTarget);
+            case CH:
+                Optional<ContractionHierarchy> contractionHierarchy = snapshot.getContractionHierarchy();
+                if (contractionHierarchy.isPresent()) {
+                    return contractionHierarchy.get().computeShortestPath(nodesSource, nodesTarget);
+                }
+                return DijkstraPathFinder.computeShortestPath(routingGraph, nodesSource, nodesTarget);
+            case DIJKSTRA:
+            default:
+                return DijkstraPathFinder.computeShortestPath(routingGraph, nodesSource, nodesTarget);
+        }
+    }
+
+    /**
+     * Finds the k shortest loopless paths between two stations, with Yen's algorithm.
+     *
+     * @param snapshot         the routing snapshot of the graph
+     * @param stationFromId    the id of the departure station
+     * @param stationToId      the id of the arrival station
+     * @param k                the number of paths, at most {@link #MAX_ALTERNATIVES}
+     * @param distinctStations true if the paths must go through different sequences of stations
+     * @return the paths, by increasing travel time
+     * @throws NodeNotFoundException if the stations have nodes that are not in the graph
+     * @throws PathNotFoundException if one of the stations is not in the graph, or if there is no path between them
+     */
+    public List<RoutingPath> findAlternativePaths(RoutingSnapshot snapshot, int stationFromId, int stationToId,
+                                                  int k, boolean distinctStations)
+            throws NodeNotFoundException, PathNotFoundException {
+        if (k < 1 || k > MAX_ALTERNATIVES) {
+            throw new IllegalArgumentException("The number of paths must be between 1 and " + MAX_ALTERNATIVES);
+        }
+
+        int[] nodesSource = snapshot.getStationNodes(stationFromId);
+        int[] nodesTarget = snapshot.getStationNodes(stationToId);
+
+        if (nodesSource.length == 0 || nodesTarget.length == 0) {
+            throw new PathNotFoundException("Cannot find the shortest path");
+        }
+
+        return YenKShortestPathFinder.computeShortestPaths(snapshot.getRoutingGraph(), nodesSource, nodesTarget, k,
+                distinctStations ? snapshot.getNodeStations() : null);
+    }
+
+    /**
+     * Finds the paths between two stations that no other path beats at once on the travel
+     * time, the number of line changes and the walking distance.
+     *
+     * @param snapshot      the routing snapshot of the graph
+     * @param stationFromId the id of the departure station
+     * @param stationToId   the id of the arrival station
+     * @return the Pareto-optimal paths, by increasing travel time
+     * @throws NodeNotFoundException if the stations have nodes that are not in the graph
+     * @throws PathNotFoundException if one of the stations is not in the graph, or if there is no path between them
+     */
+    public List<ParetoPath> findParetoPaths(RoutingSnapshot snapshot, int stationFromId, int stationToId)
+            throws NodeNotFoundException, PathNotFoundException {
+        int[] nodesSource = snapshot.getStationNodes(stationFromId);
+        int[] nodesTarget = snapshot.getStationNodes(stationToId);
+
+        if (nodesSource.length == 0 || nodesTarget.length == 0) {
+            throw new PathNotFoundException("Cannot find the shortest path");
+        }
+
+        return MultiCriteriaPathFinder.computeParetoPaths(snapshot.getRoutingGraph(), nodesSource, nodesTarget,
+                snapshot.getWalkingDistances());
+    }
+
+    /**
+     * Finds the journey between two stations that arrives first when leaving at a given time,
+     * following the timetable of the network, with the Connection Scan Algorithm.
+     *
+     * @param snapshot      the routing snapshot of the graph, with a timetable
+     * @param stationFromId the id of the departure station
+     * @param stationToId   the id of the arrival station
+     * @param departureTime the earliest departure, in seconds since midnight
+     * @return the journey
+     * @throws PathNotFoundException if one of the stations is not in the timetable, or if there is no journey between them
+     */
+    public JourneyResponse findEarliestArrival(RoutingSnapshot snapshot, int stationFromId, int stationToId,
+                                               int departureTime) throws PathNotFoundException {
+        Timetable timetable = snapshot.getTimetable().orElseThrow();
+        int stopFrom = snapshot.getStationStop(stationFromId);
+        int stopTo = snapshot.getStationStop(stationToId);
+
+        if (stopFrom == -1 || stopTo == -1) {
+            throw new PathNotFoundException("Cannot find a journey");
+        }
+
+        Journey journey = ConnectionScanRouter.computeEarliestArrival(timetable,
+                new int[]{stopFrom}, new int[]{stopTo}, departureTime);
+        return toJourneyResponse(snapshot, timetable, journey);
+    }
+
+    /**
+     * Finds the journeys between two stations leaving at a given time that are Pareto-optimal
+     * for the arrival time and the number of transfers, following the timetable of the network, with RAPTOR.
+     *
+     * @param snapshot      the routing snapshot of the graph, with a timetable
+     * @param stationFromId the id of the departure station
+     * @param stationToId   the id of the arrival station
+     * @param departureTime the earliest departure, in seconds since midnight
+     * @param maxTransfers  the largest number of transfers, at most {@link #MAX_TRANSFERS}
+     * @return the journeys, by increasing number of transfers and decreasing arrival time
+     * @throws PathNotFoundException if one of the stations is not in the timetable, or if there is no journey between them
+     */
+    public List<JourneyResponse> findParetoJourneys(RoutingSnapshot snapshot, int stationFromId, int stationToId,
+                                                    int departureTime, int maxTransfers) throws PathNotFoundException {
+        if (maxTransfers < 0 || maxTransfers > MAX_TRANSFERS) {
+            throw new IllegalArgumentException("The number of transfers must be between 0 and " + MAX_TRANSFERS);
+        }
+
+        Timetable timetable = snapshot.getTimetable().orElseThrow();
+        int stopFrom = snapshot.getStationStop(stationFromId);
+        int stopTo = snapshot.getStationStop(stationToId);
+
+        if (stopFrom == -1 || stopTo == -1) {
+            throw new PathNotFoundException("Cannot find a journey");
+        }
+
+        List<Journey> journeys = RaptorRouter.computeParetoJourneys(timetable,
+                new int[]{stopFrom}, new int[]{stopTo}, departureTime, maxTransfers);
+        return journeys.stream().map(journey -> toJourneyResponse(snapshot, timetable, journey)).toList();
+    }
+
+    /**
+     * Finds the journeys between two stations leaving in a window of departure times that are Pareto-optimal
+     * for the departure time, the arrival time and the number of transfers, following the timetable of the
+     * network, with rRAPTOR: the searches for every departure time in the window share their labels.
+     *
+     * @param snapshot              the routing snapshot of the graph, with a timetable
+     * @param stationFromId         the id of the departure station
+     * @param stationToId           the id of the arrival station
+     * @param earliestDepartureTime the start of the window, in seconds since midnight
+     * @param latestDepartureTime   the end of the window, at most {@link #MAX_DEPARTURE_WINDOW} after its start
+     * @param maxTransfers          the largest number of transfers, at most {@link #MAX_TRANSFERS}
+     * @return the journeys, by increasing departure time
+     * @throws PathNotFoundException if one of the stations is not in the timetable, or if there is no journey between them
+     */
+    public List<JourneyResponse> findJourneyProfile(RoutingSnapshot snapshot, int stationFromId, int stationToId,
+                                                    int earliestDepartureTime, int latestDepartureTime,
+                                                    int maxTransfers) throws PathNotFoundException {
+        if (maxTransfers < 0 || maxTransfers > MAX_TRANSFERS) {
+            throw new IllegalArgumentException("The number of transfers must be between 0 and " + MAX_TRANSFERS);
+        }
+        if (earliestDepartureTime > latestDepartureTime
+                || latestDepartureTime - earliestDepartureTime > MAX_DEPARTURE_WINDOW) {
+            throw new IllegalArgumentException("The window of departure times cannot be longer than "
+                    + MAX_DEPARTURE_WINDOW + " seconds");
+        }
+
+        Timetable timetable = snapshot.getTimetable().orElseThrow();
+        int stopFrom = snapshot.getStationStop(stationFromId);
+        int stopTo = snapshot.getStationStop(stationToId);
+
+        if (stopFrom == -1 || stopTo == -1) {
+            throw new PathNotFoundException("Cannot find a journey");
+        }
+
+        List<Journey> journeys = RaptorRouter.computeProfile(timetable, new int[]{stopFrom}, new int[]{stopTo},
+                earliestDepartureTime, latestDepartureTime, maxTransfers);
+        return journeys.stream().map(journey -> toJourneyResponse(snapshot, timetable, journey)).toList();
+    }
+
+    private static JourneyResponse toJourneyResponse(RoutingSnapshot snapshot, Timetable timetable, Journey journey) {
+        List<JourneyLegResponse> legs = new ArrayList<>();
+        for (JourneyLeg leg : journey.legs()) {
+            legs.add(new JourneyLegResponse(leg.isWalking() ? null : timetable.getTripLine(leg.trip()),
+                    snapshot.getStopStation(leg.fromStop()), snapshot.getStopStation(leg.toStop()),
+                    leg.departureTime(), leg.arrivalTime()));
+        }
+        return new JourneyResponse(journey.departureTime(), journey.arrivalTime(), journey.getTransferCount(), legs);
+    }
+
+    /**
+     * Computes the travel times from every station of a list to every station of another one.
+     * With the contraction hierarchy of the snapshot, the whole matrix costs one search per station;
+     * until it is ready, one search to every node is run per departure station.
+     *
+     * @param snapshot       the routing snapshot of the graph
+     * @param stationFromIds the ids of the departure stations, one per row
+     * @param stationToIds   the ids of the arrival stations, one per column
+     * @return the travel times, with null when there is no path or when a station is not in the graph
+     * @throws NodeNotFoundException if the stations have nodes that are not in the graph
+     */
+    public TravelTimeMatrixResponse findTravelTimes(RoutingSnapshot snapshot, List<Integer> stationFromIds,
+                                                    List<Integer> stationToIds) throws NodeNotFoundException {
+        if ((long) stationFromIds.size() * stationToIds.size() > MAX_MATRIX_SIZE) {
+            throw new IllegalArgumentException("A matrix cannot have more than " + MAX_MATRIX_SIZE + " cells");
+        }
+
+        int[][] nodesSource = stationFromIds.stream().map(snapshot::getStationNodes).toArray(int[][]::new);
+        int[][] nodesTarget = stationToIds.stream().map(snapshot::getStationNodes).toArray(int[][]::new);
+
+        Optional<ContractionHierarchy> contractionHierarchy = snapshot.getContractionHierarchy();
+        int[][] distances = contractionHierarchy.isPresent()
+                ? contractionHierarchy.get().computeDistanceTable(nodesSource, nodesTarget)
+                : DijkstraPathFinder.computeDistanceTable(snapshot.getRoutingGraph(), nodesSource, nodesTarget);
+
+        Integer[][] travelTimes = new Integer[distances.length][];
+        for (int i = 0; i < distances.length; i++) {
+            travelTimes[i] = new Integer[distances[i].length];
+            for (int j = 0; j < distances[i].length; j++) {
+                travelTimes[i][j] = distances[i][j] == Integer.MAX_VALUE ? null : distances[i][j];
+            }
+        }
+        return new TravelTimeMatrixResponse(stationFromIds, stationToIds, travelTimes);
+    }
+
+    /**
+     * Finds the stations that can be reached from a station within a travel time, with a single
+     * search from all the nodes of the station, which stops at the travel time.
+     *
+     * @param snapshot   the routing snapshot of the graph
+     * @param stationId  the id of the departure station
+     * @param maxSeconds the longest travel time, in seconds
+     * @return the stations reached, the departure station included, by increasing travel time
+     * @throws NodeNotFoundException if the station has nodes that are not in the graph
+     */
+    public List<ReachableStation> findReachableStations(RoutingSnapshot snapshot, int stationId, int maxSeconds)
+            throws NodeNotFoundException {
+        ShortestPathTree tree = DijkstraPathFinder.computeShortestPathTree(snapshot.getRoutingGraph(),
+                snapshot.getStationNodes(stationId), maxSeconds);
+
+        List<ReachableStation> reachableStations = new ArrayList<>();
+        for (Map.Entry<Integer, int[]> station : snapshot.getStationNodes().entrySet()) {
+            int travelTime = Integer.MAX_VALUE;
+            for (int node : station.getValue()) {
+                travelTime = Math.min(travelTime, tree.getDistance(node));
+            }
+            if (travelTime != Integer.MAX_VALUE) {
+                reachableStations.add(new ReachableStation(station.getKey(), travelTime));
+            }
+        }
+        reachableStations.sort(Comparator.comparingInt(ReachableStation::getTravelTime)
+                .thenComparingInt(ReachableStation::getStationId));
+        return reachableStations;
+    }
+
+    /**
+     * Finds the shortest paths of a batch of requests, in parallel. The snapshot of each graph
+     * is acquired once for the whole batch, and every request gets its own result, in the order
+     * of the requests, with the error it would have got on its own if it fails.
+     *
+     * @param requests the requests, at most {@link #MAX_BATCH_SIZE}
+     * @return the results of the requests
+     */
+    public List<PathFinderBatchResult> findShortestPaths(List<PathFinderRequest> requests) {
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch cannot have more than " + MAX_BATCH_SIZE + " requests");
+        }
+
+        Map<Integer, Optional<RoutingSnapshot>> snapshots = new HashMap<>();
+        try {
+            for (PathFinderRequest request : requests) {
+                if (request != null) {
+                    snapshots.computeIfAbsent(request.getGraphId(), graphService::acquireRoutingSnapshot);
+                }
+            }
+
+            return batchPool.submit(() -> IntStream.range(0, requests.size())
+                    .parallel()
+                    .mapToObj(i -> findShortestPath(snapshots, requests.get(i)))
+                    .toList()).get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The batch has been interrupted", exception);
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException("The batch has failed", exception.getCause());
+        } finally {
+            snapshots.values().forEach(snapshot -> snapshot.ifPresent(RoutingSnapshot::release));
+        }
+    }
+
+    private PathFinderBatchResult findShortestPath(Map<Integer, Optional<RoutingSnapshot>> snapshots,
+                                                   PathFinderRequest request) {
+        if (request == null) {
+            return PathFinderBatchResult.failure(HttpStatus.BAD_REQUEST.value(), "The request is empty");
+        }
+
+        Optional<RoutingSnapshot> snapshot = snapshots.get(request.getGraphId());
+        if (snapshot.isEmpty()) {
+            return PathFinderBatchResult.failure(HttpStatus.BAD_REQUEST.value(), "The graph that you provided doesn't exist");
+        }
+
+        try {
+            RoutingPath shortestPath = findShortestPath(snapshot.get(),
+                    request.getStationFromId(), request.getStationToId(), request.getAlgorithm());
+            return PathFinderBatchResult.success(shortestPath.getNodes(), shortestPath.getCost());
+        } catch (PathNotFoundException exception) {
+            return PathFinderBatchResult.failure(HttpStatus.NOT_FOUND.value(), exception.getMessage());
+        } catch (Exception exception) {
+            LOGGER.log(Level.WARNING, "Cannot answer a request of a batch", exception);
+            return PathFinderBatchResult.failure(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Cannot find the shortest path");
+        }
+    }
+
+    @PreDestroy
+    public void shutdownBatchPool() {
+        batchPool.shutdownNow();
+    }
+}
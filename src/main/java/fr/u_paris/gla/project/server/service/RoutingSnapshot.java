@@ -0,0 +1,238 @@
+package fr.u_paris.gla.project.server.service;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.ContractionHierarchy;
+import fr.u_paris.gla.project.core.shortest_path_finder.GPSHeuristic;
+import fr.u_paris.gla.project.core.shortest_path_finder.LandmarkHeuristic;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingGraph;
+import fr.u_paris.gla.project.core.timetable.Timetable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * The in-memory routing data of one graph: the CSR graph used by the shortest path
+ * algorithms, the indices of the nodes of every station, and the data precomputed
+ * to speed the searches up.
+ * A snapshot is immutable, and is shared by all the requests on the same graph.
+ *
+ * Each import builds a new version of the snapshot on the side, which replaces the current one
+ * at once. The queries hold the version they use between {@link #acquire()} and {@link #release()},
+ * so that a replaced version is only released (its pending preprocessing cancelled) once they are over.
+ *
+ * @see GraphService#acquireRoutingSnapshot(int)
+ */
+public class RoutingSnapshot {
+
+    private static final Logger LOGGER = Logger.getLogger(RoutingSnapshot.class.getName());
+
+    private static final int[] NO_NODES = new int[0];
+
+    // The number of users of a snapshot once it has been released
+    private static final int RELEASED = -1;
+
+    // The versions are numbered in the order they are built
+    private final long version;
+
+    private final int graphId;
+
+    private final RoutingGraph routingGraph;
+
+    // The bounds used by the A* searches, computed once for the graph
+    private final GPSHeuristic gpsHeuristic;
+
+    // The landmark distance tables used by the ALT searches
+    private final LandmarkHeuristic landmarkHeuristic;
+
+    // The indices, in the routing graph, of the nodes of each station (by station id)
+    private final Map<Integer, int[]> stationNodes;
+
+    // The id of the station of each node of the routing graph, -1 for the nodes of no station
+    private final int[] nodeStations;
+
+    // The distance walked along each edge of the routing graph in meters, MultiCriteriaPathFinder.RIDE for the edges ridden
+    private final int[] walkingDistances;
+
+    // The contraction hierarchy of the routing graph, preprocessed in the background
+    private final CompletableFuture<ContractionHierarchy> contractionHierarchy;
+
+    // The timetable of the network, null if it has not been built with the graph by its import
+    private final Timetable timetable;
+
+    // The stop of each station in the timetable (by station id), and the station of each stop
+    private final Map<Integer, Integer> stationStops;
+    private final int[] stopStations;
+
+    // The queries using the snapshot, or RELEASED
+    private final AtomicInteger users = new AtomicInteger();
+
+    // Whether a newer version has replaced this one
+    private volatile boolean retired;
+
+    public RoutingSnapshot(long version, int graphId, RoutingGraph routingGraph, Map<Integer, int[]> stationNodes,
+                           int[] walkingDistances, CompletableFuture<ContractionHierarchy> contractionHierarchy,
+                           Timetable timetable, Map<Integer, Integer> stationStops) {
+        this.version = version;
+        this.graphId = graphId;
+        this.routingGraph = routingGraph;
+        this.gpsHeuristic = new GPSHeuristic(routingGraph);
+        this.landmarkHeuristic = LandmarkHeuristic.build(routingGraph, LandmarkHeuristic.DEFAULT_LANDMARK_COUNT);
+        this.stationNodes = Collections.unmodifiableMap(stationNodes);
+        this.nodeStations = new int[routingGraph.getNodeCount()];
+        Arrays.fill(nodeStations, -1);
+        stationNodes.forEach((stationId, nodes) -> {
+            for (int node : nodes) {
+                nodeStations[node] = stationId;
+            }
+        });
+        this.walkingDistances = walkingDistances;
+        this.contractionHierarchy = contractionHierarchy;
+        this.timetable = timetable;
+        this.stationStops = Collections.unmodifiableMap(stationStops);
+        this.stopStations = new int[timetable == null ? 0 : timetable.getStopCount()];
+        Arrays.fill(stopStations, -1);
+        stationStops.forEach((stationId, stop) -> stopStations[stop] = stationId);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getGraphId() {
+        return graphId;
+    }
+
+    /**
+     * Marks the snapshot as used by a query, until {@link #release()} is called.
+     *
+     * @return true, or false if the snapshot has already been released, and must not be used
+     */
+    public boolean acquire() {
+        while (true) {
+            int count = users.get();
+            if (count == RELEASED) {
+                return false;
+            }
+            if (users.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Marks the snapshot as no longer used by a query that has acquired it.
+     * The last query using a replaced version releases it.
+     */
+    public void release() {
+        if (users.decrementAndGet() == 0 && retired) {
+            releaseIfUnused();
+        }
+    }
+
+    /**
+     * Marks the snapshot as replaced by a newer version: it is released as soon as no query uses it.
+     */
+    void retire() {
+        retired = true;
+        releaseIfUnused();
+    }
+
+    private void releaseIfUnused() {
+        if (users.compareAndSet(0, RELEASED)) {
+            // the preprocessing is skipped if it has not started yet: the queries would not use it anymore
+            contractionHierarchy.cancel(false);
+            LOGGER.info(String.format("Routing snapshot version %d of graph %d released", version, graphId));
+        }
+    }
+
+    public RoutingGraph getRoutingGraph() {
+        return routingGraph;
+    }
+
+    public GPSHeuristic getGpsHeuristic() {
+        return gpsHeuristic;
+    }
+
+    public LandmarkHeuristic getLandmarkHeuristic() {
+        return landmarkHeuristic;
+    }
+
+    /**
+     * Returns the contraction hierarchy of the routing graph, if its preprocessing is over.
+     *
+     * @return the hierarchy, or an empty optional if it is not ready yet or could not be built
+     */
+    public Optional<ContractionHierarchy> getContractionHierarchy() {
+        if (!contractionHierarchy.isDone() || contractionHierarchy.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(contractionHierarchy.join());
+    }
+
+    /**
+     * Returns the indices of the nodes of a station in the routing graph.
+     *
+     * @param stationId the id of the station
+     * @return the indices of its nodes (not to be modified), or an empty array if the station is not in this graph
+     */
+    public int[] getStationNodes(int stationId) {
+        return stationNodes.getOrDefault(stationId, NO_NODES);
+    }
+
+    public Map<Integer, int[]> getStationNodes() {
+        return stationNodes;
+    }
+
+    /**
+     * @return the id of the station of each node of the routing graph, -1 for the nodes of no station (not to be modified)
+     */
+    public int[] getNodeStations() {
+        return nodeStations;
+    }
+
+    /**
+     * @return the distance walked along each edge of the routing graph, in meters,
+     * or {@link fr.u_paris.gla.project.core.shortest_path_finder.MultiCriteriaPathFinder#RIDE}
+     * for the edges ridden on board (not to be modified)
+     */
+    public int[] getWalkingDistances() {
+        return walkingDistances;
+    }
+
+    /**
+     * @return the timetable of the network, or an empty optional if it has not been built with the graph by its import
+     */
+    public Optional<Timetable> getTimetable() {
+        return Optional.ofNullable(timetable);
+    }
+
+    /**
+     * @param stationId the id of a station
+     * @return the index of the stop of the station in the timetable, or -1 if it has none
+     */
+    public int getStationStop(int stationId) {
+        return stationStops.getOrDefault(stationId, -1);
+    }
+
+    /**
+     * @param stop the index of a stop of the timetable
+     * @return the id of the station of the stop, or -1 if it is not in the graph
+     */
+    public int getStopStation(int stop) {
+        return stopStations[stop];
+    }
+
+    @Override
+    public String toString() {
+        return "RoutingSnapshot{" +
+                "version=" + version +
+                ", graphId=" + graphId +
+                ", nodes=" + routingGraph.getNodeCount() +
+                ", edges=" + routingGraph.getEdgeCount() +
+                '}';
+    }
+}
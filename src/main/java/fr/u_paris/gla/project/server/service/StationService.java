@@ -4,7 +4,6 @@ import fr.u_paris.gla.project.server.entity.Station;
 import fr.u_paris.gla.project.server.repository.StationRepository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -39,15 +38,4 @@ public class StationService {
     public Station saveStation(Station station) {
         return stationRepository.save(station);
     }
-
-    @Transactional
-    public void resetPrimaryKey() {
-        entityManager.createNativeQuery("ALTER TABLE station ALTER COLUMN id RESTART WITH 1").executeUpdate();
-    }
-
-    @Transactional
-    public void deleteAllStationsAndResetPrimaryKey() {
-        stationRepository.deleteAll();
-        resetPrimaryKey();
-    }
 }
@@ -0,0 +1,40 @@
+package fr.u_paris.gla.project.server.service;
+
+import fr.u_paris.gla.project.core.timetable.Timetable;
+import fr.u_paris.gla.project.parser.CSVNetworkParser;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Service building the timetable of a network from its parsed network and schedule files.
+ *
+ * @see Timetable
+ */
+@Service
+public class TimetableService {
+
+    private static final Logger LOGGER = Logger.getLogger(TimetableService.class.getName());
+
+    /**
+     * Builds the timetable from the files read by an import, with the same walking limits as the
+     * walking arrows between the nodes of the graph, so that it matches the imported network.
+     *
+     * @param parser the parser of the import, once the network and schedule files are parsed
+     * @return the timetable, or an empty optional if it cannot be built
+     */
+    public Optional<Timetable> buildTimetable(CSVNetworkParser parser) {
+        try {
+            long start = System.currentTimeMillis();
+            Timetable timetable = parser.buildTimetable(NetworkImportService.MAX_WALKING_DISTANCE,
+                    NetworkImportService.AVERAGE_WALKING_SPEED);
+            LOGGER.info(String.format("Timetable built in %d ms", System.currentTimeMillis() - start));
+            return Optional.of(timetable);
+        } catch (RuntimeException exception) {
+            LOGGER.log(Level.WARNING, "Cannot build the timetable", exception);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package fr.u_paris.gla.project.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** A uniform grid over GPS positions, to find the positions close to each other without
+ * comparing every pair of them.
+ *
+ * The cells are at least as high and as wide as the search radius, so the positions
+ * within the radius of a position are all in its cell or in the eight cells around it.
+ * The width of the cells, in degrees of longitude, is taken at the latitude furthest from
+ * the equator, where a degree is the shortest. */
+public final class GPSGrid {
+    /** The length of a degree of latitude, in km. */
+    private static final double DEGREE_LENGTH = GPS.distance(0, 0, 1, 0);
+    /** The cells are made slightly larger than the radius, for the rounding errors. */
+    private static final double CELL_MARGIN = 1.01;
+
+    private final List<GPSCoordinates> positions;
+    private final double radius;
+    private final double cellHeight;
+    private final double cellWidth;
+
+    // The indices of the positions of each cell, by increasing index
+    private final Map<Long, List<Integer>> cells = new HashMap<>();
+
+    /** Builds the grid of a list of positions.
+     *
+     * @param positions the positions
+     * @param radius the largest distance between two positions said to be close, in km */
+    public GPSGrid(List<GPSCoordinates> positions, double radius) {
+        if (radius <= 0) {
+            throw new IllegalArgumentException("The radius must be positive");
+        }
+        this.positions = positions;
+        this.radius = radius;
+
+        double largestLatitude = 0;
+        for (GPSCoordinates position : positions) {
+            largestLatitude = Math.max(largestLatitude, Math.abs(position.latitude()));
+        }
+        this.cellHeight = CELL_MARGIN * radius / DEGREE_LENGTH;
+        this.cellWidth = Math.min(360, cellHeight / Math.max(Math.cos(Math.toRadians(largestLatitude)), 1e-6));
+
+        for (int i = 0; i < positions.size(); i++) {
+            cells.computeIfAbsent(cellOf(row(positions.get(i)), column(positions.get(i))), cell -> new ArrayList<>())
+                    .add(i);
+        }
+    }
+
+    private long row(GPSCoordinates position) {
+        return (long) Math.floor(position.latitude() / cellHeight);
+    }
+
+    private long column(GPSCoordinates position) {
+        return (long) Math.floor(position.longitude() / cellWidth);
+    }
+
+    private static long cellOf(long row, long column) {
+        return (row << 32) ^ (column & 0xffffffffL);
+    }
+
+    /** Finds the positions within the radius of a position of the grid.
+     *
+     * @param index the index of the position
+     * @return the indices of the other positions within the radius, by increasing index */
+    public int[] findNeighbors(int index) {
+        GPSCoordinates position = positions.get(index);
+        long row = row(position);
+        long column = column(position);
+
+        int[] neighbors = new int[8];
+        int count = 0;
+        for (long r = row - 1; r <= row + 1; r++) {
+            for (long c = column - 1; c <= column + 1; c++) {
+                for (int other : cells.getOrDefault(cellOf(r, c), List.of())) {
+                    if (other != index && distance(index, other) <= radius) {
+                        if (count == neighbors.length) {
+                            neighbors = Arrays.copyOf(neighbors, 2 * count);
+                        }
+                        neighbors[count++] = other;
+                    }
+                }
+            }
+        }
+        neighbors = Arrays.copyOf(neighbors, count);
+        Arrays.sort(neighbors);
+        return neighbors;
+    }
+
+    /** Compute the flying distance between two positions of the grid.
+     *
+     * @param first the index of the first position
+     * @param second the index of the second position
+     * @return the flying distance, in km */
+    public double distance(int first, int second) {
+        GPSCoordinates from = positions.get(first);
+        GPSCoordinates to = positions.get(second);
+        return GPS.distance(from.latitude(), from.longitude(), to.latitude(), to.longitude());
+    }
+}
@@ -0,0 +1,130 @@
+package fr.u_paris.gla.project.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.AStarPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.DijkstraPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.GPSHeuristic;
+import fr.u_paris.gla.project.core.shortest_path_finder.IHeuristic;
+import fr.u_paris.gla.project.core.shortest_path_finder.NodeNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.PathNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingGraph;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingPath;
+import fr.u_paris.gla.project.model.Graph;
+import fr.u_paris.gla.project.model.Node;
+import fr.u_paris.gla.project.model.Station;
+import fr.u_paris.gla.project.utils.GPSCoordinates;
+
+/**
+ * Test class for {@link AStarPathFinder}.
+ * It checks on a small located network that the GPS heuristic never overestimates
+ * the travel time, and that A* finds paths of the same cost as Dijkstra's algorithm.
+ *
+ * @version 1.0
+ *
+ * @see AStarPathFinder
+ * @see GPSHeuristic
+ */
+public class AStarPathFinderTest {
+
+    private static final int SIZE = 4;
+
+    @Test
+    public void testHeuristicIsAdmissible() throws NodeNotFoundException, PathNotFoundException {
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(createGridGraph());
+        GPSHeuristic gpsHeuristic = new GPSHeuristic(routingGraph);
+
+        assertTrue(gpsHeuristic.getMaxSpeed() > 0);
+
+        for (int target = 0; target < routingGraph.getNodeCount(); target++) {
+            IHeuristic heuristic = gpsHeuristic.towards(new int[] {target});
+            for (int source = 0; source < routingGraph.getNodeCount(); source++) {
+                RoutingPath path = DijkstraPathFinder.computeShortestPath(routingGraph, source, target);
+                assertTrue(heuristic.estimate(source) <= path.getCost());
+            }
+        }
+    }
+
+    @Test
+    public void testSameCostsAsDijkstra() throws NodeNotFoundException, PathNotFoundException {
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(createGridGraph());
+        GPSHeuristic gpsHeuristic = new GPSHeuristic(routingGraph);
+
+        for (int source = 0; source < routingGraph.getNodeCount(); source++) {
+            for (int target = 0; target < routingGraph.getNodeCount(); target++) {
+                int[] targets = {target};
+                RoutingPath expected = DijkstraPathFinder.computeShortestPath(routingGraph, source, target);
+                RoutingPath path = AStarPathFinder.computeShortestPath(routingGraph, new int[] {source}, targets,
+                        gpsHeuristic.towards(targets));
+
+                assertEquals(expected.getCost(), path.getCost());
+                assertEquals(path.getCost(), DijkstraPathFinder.getPathCost(path.getNodes()));
+            }
+        }
+    }
+
+    @Test
+    public void testGraphSearch() throws NodeNotFoundException, PathNotFoundException {
+        Graph graph = createGridGraph();
+
+        for (Node source : graph.getNodes()) {
+            for (Node target : graph.getNodes()) {
+                assertEquals(DijkstraPathFinder.computeShortestPathCost(graph, source, target),
+                        DijkstraPathFinder.getPathCost(AStarPathFinder.computeShortestPath(graph, source, target)));
+            }
+        }
+    }
+
+    /**
+     * Creates a grid of stations, with a slow line on the rows, a slower one on the
+     * columns, and a fast line along the diagonal.
+     */
+    private static Graph createGridGraph() {
+        Graph graph = new Graph();
+        Node[][] rows = new Node[SIZE][SIZE];
+        Node[][] columns = new Node[SIZE][SIZE];
+        Node[] diagonal = new Node[SIZE];
+
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                Station station = new Station(i * SIZE + j, "S" + i + j,
+                        new GPSCoordinates(48.85 + 0.005 * i, 2.35 + 0.007 * j));
+                rows[i][j] = new Node("R" + i, station);
+                columns[i][j] = new Node("C" + j, station);
+                graph.addNode(rows[i][j]);
+                graph.addNode(columns[i][j]);
+                addWalk(graph, rows[i][j], columns[i][j]);
+                if (i == j) {
+                    diagonal[i] = new Node("D", station);
+                    graph.addNode(diagonal[i]);
+                    addWalk(graph, rows[i][j], diagonal[i]);
+                }
+            }
+        }
+
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 1; j < SIZE; j++) {
+                addBothWays(graph, rows[i][j - 1], rows[i][j], 60);
+                addBothWays(graph, columns[j - 1][i], columns[j][i], 90);
+            }
+        }
+        for (int i = 1; i < SIZE; i++) {
+            addBothWays(graph, diagonal[i - 1], diagonal[i], 45);
+        }
+        return graph;
+    }
+
+    private static void addWalk(Graph graph, Node from, Node to) {
+        addBothWays(graph, from, to, 30);
+    }
+
+    private static void addBothWays(Graph graph, Node from, Node to, int seconds) {
+        graph.addEdge(from, to, 0, 0.5f, LocalTime.ofSecondOfDay(seconds));
+        graph.addEdge(to, from, 0, 0.5f, LocalTime.ofSecondOfDay(seconds));
+    }
+}
@@ -0,0 +1,84 @@
+package fr.u_paris.gla.project.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.BidirectionalDijkstraPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.DijkstraPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.Graph;
+import fr.u_paris.gla.project.core.shortest_path_finder.NodeNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.PathNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingGraph;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingPath;
+
+/**
+ * Test class for {@link BidirectionalDijkstraPathFinder}.
+ * It checks that the bidirectional search finds paths of the same cost as the
+ * unidirectional one, on the test graphs and on a random graph.
+ *
+ * @version 1.0
+ *
+ * @see BidirectionalDijkstraPathFinder
+ * @see DijkstraPathFinder
+ */
+public class BidirectionalDijkstraPathFinderTest {
+
+    @Test
+    public void testIncomingArrows() {
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(ShortestPathDijkstraFinderTestHelper.createTwoCycleGraph());
+
+        int incomingCount = 0;
+        for (int node = 0; node < routingGraph.getNodeCount(); node++) {
+            for (int i = routingGraph.getFirstIncoming(node); i < routingGraph.getIncomingLimit(node); i++) {
+                int edge = routingGraph.getIncomingEdge(i);
+                assertEquals(node, routingGraph.getTarget(edge));
+                int source = routingGraph.getSource(edge);
+                assertEquals(true, (routingGraph.getFirstEdge(source) <= edge) && (edge < routingGraph.getEdgeLimit(source)));
+                incomingCount++;
+            }
+        }
+        assertEquals(routingGraph.getEdgeCount(), incomingCount);
+    }
+
+    @Test
+    public void testSameCostsOnTestGraphs() throws NodeNotFoundException {
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createSimpleGraph());
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createDisconnectedGraph());
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createGraphWithVaryingWeightPaths());
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createGraphWithMultipleEquivalentPaths());
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createGraphWithLoopsAndDeadEnds());
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createTwoCycleGraph());
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createGraphWithFiveNodes());
+    }
+
+    @Test
+    public void testSameCostsOnRandomGraph() throws NodeNotFoundException {
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createRandomGraph(42, 40, 120, 1, 20));
+    }
+
+    @Test
+    public void testMultipleSourcesAndTargets() throws NodeNotFoundException, PathNotFoundException {
+        Graph graph = ShortestPathDijkstraFinderTestHelper.createTwoCycleGraph();
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+
+        int[] sources = {routingGraph.indexOf(ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "n3")),
+                routingGraph.indexOf(ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "n4"))};
+        int[] targets = {routingGraph.indexOf(ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "n1")),
+                routingGraph.indexOf(ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "n2"))};
+
+        RoutingPath path = BidirectionalDijkstraPathFinder.computeShortestPath(routingGraph, sources, targets);
+
+        assertEquals(3, path.getCost());
+        assertEquals(ShortestPathDijkstraFinderTestHelper.buildPath(graph, List.of("n3", "n2")), path.getNodes());
+    }
+
+    private static void assertSameCosts(Graph graph) throws NodeNotFoundException {
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+
+        ShortestPathDijkstraFinderTestHelper.assertSameCostsAsDijkstra(routingGraph, (source, target) ->
+                BidirectionalDijkstraPathFinder.computeShortestPath(routingGraph, new int[] {source}, new int[] {target}), true);
+    }
+}
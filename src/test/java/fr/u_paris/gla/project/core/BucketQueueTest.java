@@ -0,0 +1,141 @@
+package fr.u_paris.gla.project.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.BucketQueue;
+import fr.u_paris.gla.project.core.shortest_path_finder.DijkstraPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.Graph;
+import fr.u_paris.gla.project.core.shortest_path_finder.IndexedMinHeap;
+import fr.u_paris.gla.project.core.shortest_path_finder.NodeNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.PathNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingGraph;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingPath;
+
+/**
+ * Test class for {@link BucketQueue}.
+ * It checks the ordering of the polled elements inside the window of keys, and
+ * that Dijkstra's algorithm finds the same costs with it as with the binary heap.
+ *
+ * @version 1.0
+ *
+ * @see BucketQueue
+ * @see IndexedMinHeapTest
+ */
+public class BucketQueueTest {
+
+    @Test
+    public void testPollReturnsElementsByIncreasingKey() {
+        BucketQueue queue = new BucketQueue(5, 50);
+        queue.insertOrDecrease(0, 40);
+        queue.insertOrDecrease(1, 10);
+        queue.insertOrDecrease(2, 30);
+        queue.insertOrDecrease(3, 20);
+        queue.insertOrDecrease(4, 50);
+
+        int[] expected = {1, 3, 2, 0, 4};
+        for (int element : expected) {
+            assertEquals(element, queue.poll());
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testWindowMovesWithTheKeys() {
+        BucketQueue queue = new BucketQueue(3, 10);
+        queue.insertOrDecrease(0, 5);
+        queue.insertOrDecrease(1, 10);
+        assertEquals(0, queue.poll());
+
+        // the last key removed is now 5, so the keys up to 15 fit in the buckets
+        queue.insertOrDecrease(2, 14);
+        assertEquals(10, queue.peekKey());
+        assertEquals(1, queue.poll());
+        assertEquals(2, queue.poll());
+
+        queue.insertOrDecrease(0, 20);
+        assertThrows(IllegalArgumentException.class, () -> queue.insertOrDecrease(1, 35));
+        assertThrows(IllegalArgumentException.class, () -> queue.insertOrDecrease(1, 13));
+    }
+
+    @Test
+    public void testDecreaseKey() {
+        BucketQueue queue = new BucketQueue(3, 30);
+        queue.insertOrDecrease(0, 10);
+        queue.insertOrDecrease(1, 20);
+        queue.insertOrDecrease(2, 30);
+
+        assertTrue(queue.insertOrDecrease(2, 15));
+        assertFalse(queue.insertOrDecrease(1, 25));
+        assertEquals(10, queue.peekKey());
+        assertEquals(0, queue.poll());
+        assertEquals(2, queue.poll());
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void testClear() {
+        BucketQueue queue = new BucketQueue(3, 4);
+        queue.insertOrDecrease(0, 1);
+        queue.insertOrDecrease(1, 2);
+        queue.clear();
+
+        assertTrue(queue.isEmpty());
+        assertFalse(queue.contains(0));
+        assertTrue(queue.insertOrDecrease(0, 70));
+        assertEquals(70, queue.getKey(0));
+    }
+
+    @Test
+    public void testPollOnEmptyQueue() {
+        BucketQueue queue = new BucketQueue(1, 1);
+        assertThrows(NoSuchElementException.class, queue::poll);
+    }
+
+    @Test
+    public void testSameCostsAsBinaryHeap() throws NodeNotFoundException {
+        Graph graph = ShortestPathDijkstraFinderTestHelper.createGraphWithLoopsAndDeadEnds();
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+        BucketQueue queue = new BucketQueue(routingGraph.getNodeCount(), routingGraph.getMaxCost());
+
+        for (int source = 0; source < routingGraph.getNodeCount(); source++) {
+            for (int target = 0; target < routingGraph.getNodeCount(); target++) {
+                int[] sources = {source};
+                int[] targets = {target};
+                try {
+                    RoutingPath expected = DijkstraPathFinder.computeShortestPath(routingGraph, sources, targets);
+                    RoutingPath path = DijkstraPathFinder.computeShortestPath(routingGraph, sources, targets, queue);
+                    assertEquals(expected.getCost(), path.getCost());
+                } catch (PathNotFoundException exception) {
+                    assertThrows(PathNotFoundException.class,
+                            () -> DijkstraPathFinder.computeShortestPath(routingGraph, sources, targets, queue));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testQueueTooSmallForGraph() {
+        Graph graph = ShortestPathDijkstraFinderTestHelper.createGraphWithLoopsAndDeadEnds();
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+        int[] sources = {0};
+        int[] targets = {1};
+
+        // rejected before the search, instead of failing partway through it
+        BucketQueue tooFewElements = new BucketQueue(routingGraph.getNodeCount() - 1, routingGraph.getMaxCost());
+        assertThrows(IllegalArgumentException.class,
+                () -> DijkstraPathFinder.computeShortestPath(routingGraph, sources, targets, tooFewElements));
+        BucketQueue tooNarrow = new BucketQueue(routingGraph.getNodeCount(), routingGraph.getMaxCost() - 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> DijkstraPathFinder.computeShortestPath(routingGraph, sources, targets, tooNarrow));
+        IndexedMinHeap heap = new IndexedMinHeap(routingGraph.getNodeCount() - 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> DijkstraPathFinder.computeShortestPath(routingGraph, sources, targets, heap));
+    }
+}
@@ -0,0 +1,220 @@
+package fr.u_paris.gla.project.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.PathNotFoundException;
+import fr.u_paris.gla.project.core.timetable.ConnectionScanRouter;
+import fr.u_paris.gla.project.core.timetable.Journey;
+import fr.u_paris.gla.project.core.timetable.JourneyLeg;
+import fr.u_paris.gla.project.core.timetable.Timetable;
+
+/**
+ * Test class for {@link ConnectionScanRouter}.
+ * It checks the earliest arrivals on small timetables, with transfers, waits and
+ * footpaths, and against a naive fixed point on random timetables.
+ *
+ * @version 1.0
+ *
+ * @see ConnectionScanRouter
+ * @see Timetable
+ */
+public class ConnectionScanRouterTest {
+
+    /**
+     * Line 1 goes A, B, C every 10 minutes from 8:00, taking 5 minutes per stop.
+     * Line 2 goes B, D at 8:07 and 8:20, taking 10 minutes. E is a 2 minutes walk from D.
+     */
+    static Timetable createTimetable() {
+        Timetable.Builder builder = new Timetable.Builder();
+        int a = builder.addStop("A");
+        int b = builder.addStop("B");
+        int c = builder.addStop("C");
+        int d = builder.addStop("D");
+        int e = builder.addStop("E");
+        for (int departure = 8 * 3600; departure < 9 * 3600; departure += 600) {
+            int[] times = {departure, departure + 300, departure + 600};
+            builder.addTrip("1", new int[] {a, b, c}, times, times);
+        }
+        for (int departure : new int[] {8 * 3600 + 420, 8 * 3600 + 1200}) {
+            int[] times = {departure, departure + 600};
+            builder.addTrip("2", new int[] {b, d}, times, times);
+        }
+        builder.addFootpath(d, e, 120);
+        builder.addFootpath(e, d, 120);
+        return builder.build();
+    }
+
+    @Test
+    public void testDirectTrip() throws PathNotFoundException {
+        Timetable timetable = createTimetable();
+        Journey journey = ConnectionScanRouter.computeEarliestArrival(timetable,
+                new int[] {timetable.indexOfStop("A")}, new int[] {timetable.indexOfStop("C")}, 8 * 3600 + 60);
+
+        assertEquals(8 * 3600 + 600, journey.departureTime());
+        assertEquals(8 * 3600 + 1200, journey.arrivalTime());
+        assertEquals(1, journey.legs().size());
+        assertEquals(0, journey.getTransferCount());
+    }
+
+    @Test
+    public void testTransferAndFootpath() throws PathNotFoundException {
+        Timetable timetable = createTimetable();
+        Journey journey = ConnectionScanRouter.computeEarliestArrival(timetable,
+                new int[] {timetable.indexOfStop("A")}, new int[] {timetable.indexOfStop("E")}, 8 * 3600);
+
+        // the 8:00 trip reaches B at 8:05, in time for the 8:07 trip of line 2
+        List<JourneyLeg> legs = journey.legs();
+        assertEquals(3, legs.size());
+        assertEquals("1", timetable.getTripLine(legs.get(0).trip()));
+        assertEquals("2", timetable.getTripLine(legs.get(1).trip()));
+        assertTrue(legs.get(2).isWalking());
+        assertEquals(8 * 3600 + 420, legs.get(1).departureTime());
+        assertEquals(8 * 3600 + 1140, journey.arrivalTime());
+        assertEquals(1, journey.getTransferCount());
+    }
+
+    @Test
+    public void testMissedConnection() throws PathNotFoundException {
+        Timetable timetable = createTimetable();
+        Journey journey = ConnectionScanRouter.computeEarliestArrival(timetable,
+                new int[] {timetable.indexOfStop("A")}, new int[] {timetable.indexOfStop("D")}, 8 * 3600 + 60);
+
+        // the 8:10 trip reaches B at 8:15, the next trip of line 2 leaves at 8:20
+        assertEquals(8 * 3600 + 1800, journey.arrivalTime());
+    }
+
+    @Test
+    public void testSourceIsTarget() throws PathNotFoundException {
+        Timetable timetable = createTimetable();
+        Journey journey = ConnectionScanRouter.computeEarliestArrival(timetable,
+                new int[] {timetable.indexOfStop("B")}, new int[] {timetable.indexOfStop("B")}, 12 * 3600);
+
+        assertEquals(12 * 3600, journey.arrivalTime());
+        assertTrue(journey.legs().isEmpty());
+    }
+
+    @Test
+    public void testNoJourney() {
+        Timetable timetable = createTimetable();
+        int c = timetable.indexOfStop("C");
+        int a = timetable.indexOfStop("A");
+        int d = timetable.indexOfStop("D");
+
+        assertThrows(PathNotFoundException.class,
+                () -> ConnectionScanRouter.computeEarliestArrival(timetable, new int[] {c}, new int[] {a}, 8 * 3600));
+        assertThrows(PathNotFoundException.class,
+                () -> ConnectionScanRouter.computeEarliestArrival(timetable, new int[] {a}, new int[] {d}, 10 * 3600));
+    }
+
+    @Test
+    public void testSameArrivalsAsFixedPoint() throws PathNotFoundException {
+        Random random = new Random(5);
+        for (int round = 0; round < 30; round++) {
+            Timetable timetable = createRandomTimetable(random, 12, 40);
+            int source = random.nextInt(12);
+            int departure = random.nextInt(3600);
+            int[] expected = computeArrivalsByFixedPoint(timetable, source, departure);
+
+            for (int target = 0; target < 12; target++) {
+                if (expected[target] == Integer.MAX_VALUE) {
+                    int stop = target;
+                    assertThrows(PathNotFoundException.class, () -> ConnectionScanRouter.computeEarliestArrival(
+                            timetable, new int[] {source}, new int[] {stop}, departure));
+                } else {
+                    Journey journey = ConnectionScanRouter.computeEarliestArrival(timetable,
+                            new int[] {source}, new int[] {target}, departure);
+                    assertEquals(expected[target], journey.arrivalTime());
+                    assertConsistent(journey, source, target, departure);
+                }
+            }
+        }
+    }
+
+    static Timetable createRandomTimetable(Random random, int stopCount, int tripCount) {
+        Timetable.Builder builder = new Timetable.Builder();
+        for (int stop = 0; stop < stopCount; stop++) builder.addStop("s" + stop);
+        for (int trip = 0; trip < tripCount; trip++) {
+            int length = 2 + random.nextInt(4);
+            int[] stops = random.ints(0, stopCount).distinct().limit(length).toArray();
+            int[] arrivals = new int[stops.length];
+            int[] departures = new int[stops.length];
+            int time = random.nextInt(3600);
+            for (int i = 0; i < stops.length; i++) {
+                arrivals[i] = time;
+                time += random.nextInt(60);
+                departures[i] = time;
+                time += 60 + random.nextInt(600);
+            }
+            builder.addTrip("l" + (trip % 5), stops, arrivals, departures);
+        }
+        for (int i = 0; i < stopCount / 2; i++) {
+            builder.addFootpath(random.nextInt(stopCount), random.nextInt(stopCount), 30 + random.nextInt(300));
+        }
+        return builder.build();
+    }
+
+    /**
+     * The earliest arrivals, by improving them until nothing changes: a stop time can be
+     * reached by staying in the trip or by boarding it from its stop, and footpaths are walked once.
+     */
+    private static int[] computeArrivalsByFixedPoint(Timetable timetable, int source, int departure) {
+        int[] arrival = new int[timetable.getStopCount()];
+        int[] stopArrival = new int[timetable.getStopCount()];
+        Arrays.fill(arrival, Integer.MAX_VALUE);
+        Arrays.fill(stopArrival, Integer.MAX_VALUE);
+        arrival[source] = departure;
+        stopArrival[source] = departure;
+        walk(timetable, source, arrival, departure);
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int trip = 0; trip < timetable.getTripCount(); trip++) {
+                boolean onBoard = false;
+                for (int position = timetable.getFirstStopTime(trip); position < timetable.getFirstStopTime(trip + 1); position++) {
+                    int stop = timetable.getStopTimeStop(position);
+                    if (onBoard && (timetable.getStopTimeArrival(position) < stopArrival[stop])) {
+                        stopArrival[stop] = timetable.getStopTimeArrival(position);
+                        changed = true;
+                    }
+                    if (stopArrival[stop] < arrival[stop]) {
+                        arrival[stop] = stopArrival[stop];
+                        changed = true;
+                    }
+                    if (onBoard) walk(timetable, stop, arrival, stopArrival[stop]);
+                    onBoard |= arrival[stop] <= timetable.getStopTimeDeparture(position);
+                }
+            }
+        }
+        return arrival;
+    }
+
+    private static void walk(Timetable timetable, int stop, int[] arrival, int time) {
+        for (int position = timetable.getFirstFootpath(stop); position < timetable.getFootpathLimit(stop); position++) {
+            int target = timetable.getFootpathTarget(position);
+            arrival[target] = Math.min(arrival[target], time + timetable.getFootpathDuration(position));
+        }
+    }
+
+    private static void assertConsistent(Journey journey, int source, int target, int departure) {
+        int stop = source;
+        int time = departure;
+        for (JourneyLeg leg : journey.legs()) {
+            assertEquals(stop, leg.fromStop());
+            assertTrue(leg.departureTime() >= time);
+            assertTrue(leg.arrivalTime() >= leg.departureTime());
+            stop = leg.toStop();
+            time = leg.arrivalTime();
+        }
+        assertEquals(target, stop);
+        assertEquals(journey.arrivalTime(), time);
+    }
+}
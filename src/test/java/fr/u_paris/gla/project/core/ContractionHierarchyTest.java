@@ -0,0 +1,99 @@
+package fr.u_paris.gla.project.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.ContractionHierarchy;
+import fr.u_paris.gla.project.core.shortest_path_finder.DijkstraPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.Graph;
+import fr.u_paris.gla.project.core.shortest_path_finder.NodeNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.PathNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingGraph;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingPath;
+
+/**
+ * Test class for {@link ContractionHierarchy}.
+ * It checks that the queries on the hierarchy find paths of the same cost as
+ * Dijkstra's algorithm, and that the shortcuts are unpacked into arrows of the graph.
+ *
+ * @version 1.0
+ *
+ * @see ContractionHierarchy
+ * @see DijkstraPathFinder
+ */
+public class ContractionHierarchyTest {
+
+    @Test
+    public void testSameCostsOnTestGraphs() throws NodeNotFoundException {
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createSimpleGraph());
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createDisconnectedGraph());
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createGraphWithVaryingWeightPaths());
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createGraphWithMultipleEquivalentPaths());
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createGraphWithLoopsAndDeadEnds());
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createTwoCycleGraph());
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createGraphWithFiveNodes());
+    }
+
+    @Test
+    public void testSameCostsOnRandomGraph() throws NodeNotFoundException {
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createRandomGraph(7, 60, 200, 0, 19));
+    }
+
+    @Test
+    public void testMultipleSourcesAndTargets() throws NodeNotFoundException, PathNotFoundException {
+        Graph graph = ShortestPathDijkstraFinderTestHelper.createTwoCycleGraph();
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+        ContractionHierarchy contractionHierarchy = ContractionHierarchy.build(routingGraph);
+
+        int[] sources = {routingGraph.indexOf(ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "n3")),
+                routingGraph.indexOf(ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "n4"))};
+        int[] targets = {routingGraph.indexOf(ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "n1")),
+                routingGraph.indexOf(ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "n2"))};
+
+        RoutingPath path = contractionHierarchy.computeShortestPath(sources, targets);
+
+        assertEquals(3, path.getCost());
+        assertEquals(ShortestPathDijkstraFinderTestHelper.buildPath(graph, List.of("n3", "n2")), path.getNodes());
+    }
+
+    @Test
+    public void testDistanceTable() throws NodeNotFoundException {
+        Random random = new Random(11);
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(ShortestPathDijkstraFinderTestHelper.createRandomGraph(random, 80, 240, 0, 19));
+        ContractionHierarchy contractionHierarchy = ContractionHierarchy.build(routingGraph);
+
+        // groups of one to three nodes, like the nodes of a station
+        int[][] sources = new int[12][];
+        int[][] targets = new int[15][];
+        for (int i = 0; i < sources.length; i++) sources[i] = random.ints(1 + random.nextInt(3), 0, 80).toArray();
+        for (int i = 0; i < targets.length; i++) targets[i] = random.ints(1 + random.nextInt(3), 0, 80).toArray();
+
+        int[][] table = contractionHierarchy.computeDistanceTable(sources, targets);
+        int[][] expected = DijkstraPathFinder.computeDistanceTable(routingGraph, sources, targets);
+
+        for (int row = 0; row < sources.length; row++) {
+            assertArrayEquals(expected[row], table[row]);
+            for (int column = 0; column < targets.length; column++) {
+                int cost;
+                try {
+                    cost = DijkstraPathFinder.computeShortestPath(routingGraph, sources[row], targets[column]).getCost();
+                } catch (PathNotFoundException exception) {
+                    cost = Integer.MAX_VALUE;
+                }
+                assertEquals(cost, table[row][column]);
+            }
+        }
+    }
+
+    private static void assertSameCosts(Graph graph) throws NodeNotFoundException {
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+        ContractionHierarchy contractionHierarchy = ContractionHierarchy.build(routingGraph);
+
+        ShortestPathDijkstraFinderTestHelper.assertSameCostsAsDijkstra(routingGraph, contractionHierarchy::computeShortestPath);
+    }
+}
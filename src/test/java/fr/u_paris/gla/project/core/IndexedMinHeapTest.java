@@ -0,0 +1,81 @@
+package fr.u_paris.gla.project.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.IndexedMinHeap;
+
+/**
+ * Test class for {@link IndexedMinHeap}.
+ * It checks the ordering of the polled elements and the decrease-key operation
+ * used by the shortest path algorithms.
+ *
+ * @version 1.0
+ *
+ * @see IndexedMinHeap
+ */
+public class IndexedMinHeapTest {
+
+    @Test
+    public void testPollReturnsElementsByIncreasingKey() {
+        IndexedMinHeap heap = new IndexedMinHeap(5);
+        heap.insertOrDecrease(0, 40);
+        heap.insertOrDecrease(1, 10);
+        heap.insertOrDecrease(2, 30);
+        heap.insertOrDecrease(3, 20);
+        heap.insertOrDecrease(4, 50);
+
+        int[] expected = {1, 3, 2, 0, 4};
+        for (int element : expected) {
+            assertEquals(element, heap.poll());
+        }
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void testDecreaseKey() {
+        IndexedMinHeap heap = new IndexedMinHeap(3);
+        heap.insertOrDecrease(0, 10);
+        heap.insertOrDecrease(1, 20);
+        heap.insertOrDecrease(2, 30);
+
+        assertTrue(heap.insertOrDecrease(2, 5));
+        assertEquals(5, heap.peekKey());
+        assertEquals(2, heap.poll());
+        assertEquals(2, heap.size());
+    }
+
+    @Test
+    public void testGreaterKeyIsIgnored() {
+        IndexedMinHeap heap = new IndexedMinHeap(2);
+        heap.insertOrDecrease(0, 10);
+
+        assertFalse(heap.insertOrDecrease(0, 15));
+        assertEquals(10, heap.getKey(0));
+    }
+
+    @Test
+    public void testClear() {
+        IndexedMinHeap heap = new IndexedMinHeap(3);
+        heap.insertOrDecrease(0, 1);
+        heap.insertOrDecrease(1, 2);
+        heap.clear();
+
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(0));
+        assertTrue(heap.insertOrDecrease(0, 7));
+        assertEquals(7, heap.getKey(0));
+    }
+
+    @Test
+    public void testPollOnEmptyHeap() {
+        IndexedMinHeap heap = new IndexedMinHeap(1);
+        assertThrows(NoSuchElementException.class, heap::poll);
+    }
+}
@@ -0,0 +1,73 @@
+package fr.u_paris.gla.project.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+import org.junit.jupiter.api.Test;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.AStarPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.DijkstraPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.Graph;
+import fr.u_paris.gla.project.core.shortest_path_finder.IHeuristic;
+import fr.u_paris.gla.project.core.shortest_path_finder.LandmarkHeuristic;
+import fr.u_paris.gla.project.core.shortest_path_finder.NodeNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.PathNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingGraph;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingPath;
+
+/**
+ * Test class for {@link LandmarkHeuristic}.
+ * It checks that the landmark bounds never overestimate the travel time, and that
+ * the A* search they guide finds paths of the same cost as Dijkstra's algorithm.
+ *
+ * @version 1.0
+ *
+ * @see LandmarkHeuristic
+ * @see AStarPathFinder
+ */
+public class LandmarkHeuristicTest {
+
+    @Test
+    public void testLandmarkCount() {
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(ShortestPathDijkstraFinderTestHelper.createGraphWithFiveNodes());
+
+        assertEquals(2, LandmarkHeuristic.build(routingGraph, 2).getLandmarkCount());
+        assertEquals(routingGraph.getNodeCount(), LandmarkHeuristic.build(routingGraph, 100).getLandmarkCount());
+        assertEquals(0, LandmarkHeuristic.build(routingGraph, 0).getLandmarkCount());
+        assertThrows(IllegalArgumentException.class, () -> LandmarkHeuristic.build(routingGraph, -1));
+    }
+
+    @Test
+    public void testHeuristicIsAdmissible() throws NodeNotFoundException {
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(createRandomGraph());
+        LandmarkHeuristic landmarkHeuristic = LandmarkHeuristic.build(routingGraph, 4);
+
+        for (int target = 0; target < routingGraph.getNodeCount(); target++) {
+            IHeuristic heuristic = landmarkHeuristic.towards(new int[] {target});
+            for (int source = 0; source < routingGraph.getNodeCount(); source++) {
+                try {
+                    RoutingPath path = DijkstraPathFinder.computeShortestPath(routingGraph, source, target);
+                    assertTrue(heuristic.estimate(source) <= path.getCost());
+                } catch (PathNotFoundException exception) {
+                    // no bound to check
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSameCostsAsDijkstra() throws NodeNotFoundException {
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(createRandomGraph());
+        LandmarkHeuristic landmarkHeuristic = LandmarkHeuristic.build(routingGraph, 4);
+
+        ShortestPathDijkstraFinderTestHelper.assertSameCostsAsDijkstra(routingGraph, (source, target) ->
+                AStarPathFinder.computeShortestPath(routingGraph, new int[] {source}, new int[] {target},
+                        landmarkHeuristic.towards(new int[] {target})));
+    }
+
+    private static Graph createRandomGraph() {
+        return ShortestPathDijkstraFinderTestHelper.createRandomGraph(3, 50, 150, 0, 29);
+    }
+}
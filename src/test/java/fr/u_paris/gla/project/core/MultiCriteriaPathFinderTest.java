@@ -0,0 +1,206 @@
+package fr.u_paris.gla.project.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.MultiCriteriaPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.Node;
+import fr.u_paris.gla.project.core.shortest_path_finder.NodeNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.ParetoPath;
+import fr.u_paris.gla.project.core.shortest_path_finder.PathNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingGraph;
+
+/**
+ * Test class for {@link MultiCriteriaPathFinder}.
+ * It checks the trade-offs found on a small network, and compares the criteria of the
+ * Pareto-optimal paths with the ones of all the loopless paths of small random graphs.
+ *
+ * @version 1.0
+ *
+ * @see MultiCriteriaPathFinder
+ */
+public class MultiCriteriaPathFinderTest {
+
+    private static final int RIDE = MultiCriteriaPathFinder.RIDE;
+
+    @Test
+    public void testTradeOffs() throws NodeNotFoundException, PathNotFoundException {
+        RoutingGraph.Builder builder = new RoutingGraph.Builder();
+        int source = builder.addNode(new Node("S"));
+        int firstLine = builder.addNode(new Node("X1"));
+        int secondLine = builder.addNode(new Node("X2"));
+        int target = builder.addNode(new Node("T"));
+        List<int[]> walkingDistances = new ArrayList<>();
+
+        // fast, with a line change: S -> X1, walk to X2, X2 -> T
+        builder.addArc(source, firstLine, 5);
+        walkingDistances.add(new int[]{source, RIDE});
+        builder.addArc(firstLine, secondLine, 60);
+        walkingDistances.add(new int[]{firstLine, 100});
+        builder.addArc(secondLine, target, 5);
+        walkingDistances.add(new int[]{secondLine, RIDE});
+        // walking all the way
+        builder.addArc(source, target, 80);
+        walkingDistances.add(new int[]{source, 2000});
+        // a direct line, and a slower one
+        builder.addArc(source, target, 100);
+        walkingDistances.add(new int[]{source, RIDE});
+        builder.addArc(source, target, 120);
+        walkingDistances.add(new int[]{source, RIDE});
+
+        RoutingGraph graph = builder.build();
+        List<ParetoPath> paths = MultiCriteriaPathFinder.computeParetoPaths(graph, new int[]{source},
+                new int[]{target}, toWalkingDistances(graph, walkingDistances));
+
+        assertEquals(3, paths.size());
+        assertCriteria(paths.get(0), 70, 1, 100);
+        assertEquals(4, paths.get(0).getPath().size());
+        assertCriteria(paths.get(1), 80, 0, 2000);
+        assertCriteria(paths.get(2), 100, 0, 0);
+    }
+
+    @Test
+    public void testStayingOnBoardIsNotALineChange() throws NodeNotFoundException, PathNotFoundException {
+        RoutingGraph.Builder builder = new RoutingGraph.Builder();
+        int a = builder.addNode(new Node("A"));
+        int b = builder.addNode(new Node("B"));
+        int c = builder.addNode(new Node("C"));
+        builder.addArc(a, b, 10);
+        builder.addArc(b, c, 10);
+
+        RoutingGraph graph = builder.build();
+        List<ParetoPath> paths = MultiCriteriaPathFinder.computeParetoPaths(graph, new int[]{a}, new int[]{c},
+                new int[]{RIDE, RIDE});
+
+        assertEquals(1, paths.size());
+        assertCriteria(paths.get(0), 20, 0, 0);
+    }
+
+    @Test
+    public void testSameCriteriaAsAllLooplessPaths() throws NodeNotFoundException, PathNotFoundException {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 40; trial++) {
+            RoutingGraph.Builder builder = new RoutingGraph.Builder();
+            int nodeCount = 8;
+            for (int i = 0; i < nodeCount; i++) {
+                builder.addNode(new Node("n" + i));
+            }
+            List<int[]> walkingDistances = new ArrayList<>();
+            for (int i = 0; i < 22; i++) {
+                int from = random.nextInt(nodeCount);
+                builder.addArc(from, random.nextInt(nodeCount), 1 + random.nextInt(20));
+                walkingDistances.add(new int[]{from, random.nextBoolean() ? RIDE : random.nextInt(500)});
+            }
+            RoutingGraph graph = builder.build();
+            int[] walking = toWalkingDistances(graph, walkingDistances);
+            int[] sources = {0, 1};
+            int[] targets = {6, 7};
+
+            List<int[]> expected = new ArrayList<>();
+            boolean[] visited = new boolean[nodeCount];
+            for (int source : sources) {
+                enumerateCriteria(graph, walking, source, targets, visited, 0, 0, 0, false, expected);
+            }
+            expected = paretoFront(expected);
+
+            if (expected.isEmpty()) {
+                assertThrows(PathNotFoundException.class,
+                        () -> MultiCriteriaPathFinder.computeParetoPaths(graph, sources, targets, walking));
+                continue;
+            }
+            List<ParetoPath> paths = MultiCriteriaPathFinder.computeParetoPaths(graph, sources, targets, walking);
+            List<int[]> actual = new ArrayList<>();
+            for (ParetoPath path : paths) {
+                actual.add(new int[]{path.getCost(), path.getLineChanges(), path.getWalkingDistance()});
+                for (ParetoPath other : paths) {
+                    assertFalse(other != path && other.dominates(path));
+                }
+            }
+            actual.sort(Arrays::compare);
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(Arrays.toString(expected.get(i)), Arrays.toString(actual.get(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testUnreachableTarget() {
+        RoutingGraph.Builder builder = new RoutingGraph.Builder();
+        int a = builder.addNode(new Node("A"));
+        int b = builder.addNode(new Node("B"));
+        builder.addArc(b, a, 10);
+        RoutingGraph graph = builder.build();
+
+        assertThrows(PathNotFoundException.class,
+                () -> MultiCriteriaPathFinder.computeParetoPaths(graph, new int[]{a}, new int[]{b}, new int[]{RIDE}));
+        assertThrows(NodeNotFoundException.class,
+                () -> MultiCriteriaPathFinder.computeParetoPaths(graph, new int[]{a}, new int[]{2}, new int[]{RIDE}));
+        assertThrows(IllegalArgumentException.class,
+                () -> MultiCriteriaPathFinder.computeParetoPaths(graph, new int[]{a}, new int[]{b}, new int[0]));
+    }
+
+    private static void assertCriteria(ParetoPath path, int cost, int lineChanges, int walkingDistance) {
+        assertEquals(cost, path.getCost());
+        assertEquals(lineChanges, path.getLineChanges());
+        assertEquals(walkingDistance, path.getWalkingDistance());
+    }
+
+    /**
+     * Puts the walking distances of the arrows, given as {source, distance} in the order
+     * the arrows have been added, in the order of the arrows of the graph: the builder
+     * sorts them by source node, keeping the order in which they have been added.
+     */
+    private static int[] toWalkingDistances(RoutingGraph graph, List<int[]> arrows) {
+        int[] walkingDistances = new int[graph.getEdgeCount()];
+        int edge = 0;
+        for (int node = 0; node < graph.getNodeCount(); node++) {
+            for (int[] arrow : arrows) {
+                if (arrow[0] == node) {
+                    walkingDistances[edge++] = arrow[1];
+                }
+            }
+        }
+        return walkingDistances;
+    }
+
+    private static void enumerateCriteria(RoutingGraph graph, int[] walkingDistances, int node, int[] targets,
+                                          boolean[] visited, int cost, int boardings, int walking, boolean onBoard,
+                                          List<int[]> criteria) {
+        if (Arrays.stream(targets).anyMatch(target -> target == node)) {
+            criteria.add(new int[]{cost, Math.max(0, boardings - 1), walking});
+        }
+        visited[node] = true;
+        for (int edge = graph.getFirstEdge(node); edge < graph.getEdgeLimit(node); edge++) {
+            int next = graph.getTarget(edge);
+            if (visited[next]) continue;
+
+            boolean ride = walkingDistances[edge] == RIDE;
+            enumerateCriteria(graph, walkingDistances, next, targets, visited, cost + graph.getCost(edge),
+                    (ride && !onBoard) ? boardings + 1 : boardings, ride ? walking : walking + walkingDistances[edge],
+                    ride, criteria);
+        }
+        visited[node] = false;
+    }
+
+    private static List<int[]> paretoFront(List<int[]> criteria) {
+        List<int[]> front = new ArrayList<>();
+        for (int[] candidate : criteria) {
+            boolean dominated = criteria.stream().anyMatch(other -> !Arrays.equals(other, candidate)
+                    && other[0] <= candidate[0] && other[1] <= candidate[1] && other[2] <= candidate[2]);
+            if (!dominated && front.stream().noneMatch(kept -> Arrays.equals(kept, candidate))) {
+                front.add(candidate);
+            }
+        }
+        front.sort(Arrays::compare);
+        return front;
+    }
+}
@@ -0,0 +1,104 @@
+package fr.u_paris.gla.project.core;
+
+import java.util.Random;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.BucketQueue;
+import fr.u_paris.gla.project.core.shortest_path_finder.DijkstraPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.IMinQueue;
+import fr.u_paris.gla.project.core.shortest_path_finder.IndexedMinHeap;
+import fr.u_paris.gla.project.core.shortest_path_finder.Node;
+import fr.u_paris.gla.project.core.shortest_path_finder.NodeNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.PathNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingGraph;
+
+/**
+ * Compares the binary heap and the bucket queue on Dijkstra searches over a grid
+ * whose arrows cost between 30 seconds and 5 minutes, like the arrows of a network.
+ * It is not run with the tests:
+ * {@code java -cp target/classes:target/test-classes fr.u_paris.gla.project.core.PriorityQueueBenchmark [side] [queries]}
+ *
+ * @version 1.0
+ *
+ * @see IndexedMinHeap
+ * @see BucketQueue
+ */
+public class PriorityQueueBenchmark {
+
+    private static final int MIN_COST = 30;
+    private static final int MAX_COST = 300;
+
+    public static void main(String[] args) throws NodeNotFoundException {
+        int side = (args.length > 0) ? Integer.parseInt(args[0]) : 300;
+        int queryCount = (args.length > 1) ? Integer.parseInt(args[1]) : 200;
+
+        RoutingGraph graph = createGrid(side, new Random(1));
+        Random random = new Random(2);
+        int[][] queries = new int[queryCount][];
+        for (int i = 0; i < queryCount; i++) {
+            queries[i] = new int[] {random.nextInt(graph.getNodeCount()), random.nextInt(graph.getNodeCount())};
+        }
+        System.out.println(graph);
+
+        IMinQueue heap = new IndexedMinHeap(graph.getNodeCount());
+        IMinQueue buckets = new BucketQueue(graph.getNodeCount(), graph.getMaxCost());
+
+        // The first rounds only warm the JIT up
+        for (int round = 0; round < 3; round++) {
+            long heapChecksum = run(graph, queries, heap);
+            long bucketChecksum = run(graph, queries, buckets);
+            if (heapChecksum != bucketChecksum) throw new IllegalStateException("The two queues found different costs");
+        }
+
+        long start = System.nanoTime();
+        run(graph, queries, heap);
+        long heapTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        run(graph, queries, buckets);
+        long bucketTime = System.nanoTime() - start;
+
+        System.out.printf("binary heap:  %.3f ms per query%n", heapTime / 1e6 / queryCount);
+        System.out.printf("bucket queue: %.3f ms per query%n", bucketTime / 1e6 / queryCount);
+    }
+
+    private static long run(RoutingGraph graph, int[][] queries, IMinQueue queue) throws NodeNotFoundException {
+        long checksum = 0;
+        for (int[] query : queries) {
+            try {
+                checksum += DijkstraPathFinder.computeShortestPath(graph,
+                        new int[] {query[0]}, new int[] {query[1]}, queue).getCost();
+            } catch (PathNotFoundException exception) {
+                checksum--;
+            }
+        }
+        return checksum;
+    }
+
+    /**
+     * Creates a square grid with arrows both ways between neighbors.
+     */
+    private static RoutingGraph createGrid(int side, Random random) {
+        RoutingGraph.Builder builder = new RoutingGraph.Builder();
+        for (int i = 0; i < side * side; i++) {
+            builder.addNode(new Node("g" + i));
+        }
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                int node = row * side + column;
+                if (column + 1 < side) {
+                    builder.addArc(node, node + 1, randomCost(random));
+                    builder.addArc(node + 1, node, randomCost(random));
+                }
+                if (row + 1 < side) {
+                    builder.addArc(node, node + side, randomCost(random));
+                    builder.addArc(node + side, node, randomCost(random));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static int randomCost(Random random) {
+        return MIN_COST + random.nextInt(MAX_COST - MIN_COST + 1);
+    }
+}
@@ -0,0 +1,373 @@
+package fr.u_paris.gla.project.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.PathNotFoundException;
+import fr.u_paris.gla.project.core.timetable.ConnectionScanRouter;
+import fr.u_paris.gla.project.core.timetable.Journey;
+import fr.u_paris.gla.project.core.timetable.JourneyLeg;
+import fr.u_paris.gla.project.core.timetable.RaptorRouter;
+import fr.u_paris.gla.project.core.timetable.Timetable;
+
+/**
+ * Test class for {@link RaptorRouter}.
+ * It checks the grouping of the trips into routes, the Pareto set of arrival time and
+ * number of trips on a small timetable, the best arrival for each number of trips
+ * against a naive computation on random timetables, and the profiles over a window of
+ * departure times against separate queries.
+ *
+ * @version 1.0
+ *
+ * @see RaptorRouter
+ * @see Timetable
+ */
+public class RaptorRouterTest {
+
+    /**
+     * Line 1 goes A, B, C, D every 10 minutes from 8:00, taking 10 minutes per stop.
+     * Line 2 goes B, D at 8:15 and 8:45, taking 5 minutes.
+     */
+    static Timetable createTimetable() {
+        Timetable.Builder builder = new Timetable.Builder();
+        int a = builder.addStop("A");
+        int b = builder.addStop("B");
+        int c = builder.addStop("C");
+        int d = builder.addStop("D");
+        for (int departure = 8 * 3600; departure < 9 * 3600; departure += 600) {
+            int[] times = {departure, departure + 600, departure + 1200, departure + 1800};
+            builder.addTrip("1", new int[] {a, b, c, d}, times, times);
+        }
+        for (int departure : new int[] {8 * 3600 + 900, 8 * 3600 + 2700}) {
+            int[] times = {departure, departure + 300};
+            builder.addTrip("2", new int[] {b, d}, times, times);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testRoutes() {
+        Timetable timetable = createTimetable();
+
+        assertEquals(2, timetable.getRouteCount());
+        assertEquals(6, timetable.getRouteTripLimit(0) - timetable.getFirstRouteTrip(0));
+        assertEquals(4, timetable.getRouteStopLimit(0) - timetable.getFirstRouteStop(0));
+
+        int b = timetable.indexOfStop("B");
+        assertEquals(2, timetable.getStopRouteLimit(b) - timetable.getFirstStopRoute(b));
+        for (int position = timetable.getFirstStopRoute(b); position < timetable.getStopRouteLimit(b); position++) {
+            int route = timetable.getStopRoute(position);
+            assertEquals(b, timetable.getRouteStop(timetable.getFirstRouteStop(route) + timetable.getStopRoutePosition(position)));
+        }
+    }
+
+    @Test
+    public void testOvertakingTripsAreInDifferentRoutes() {
+        Timetable.Builder builder = new Timetable.Builder();
+        int a = builder.addStop("A");
+        int b = builder.addStop("B");
+        builder.addTrip("1", new int[] {a, b}, new int[] {0, 1000}, new int[] {0, 1000});
+        builder.addTrip("1", new int[] {a, b}, new int[] {100, 500}, new int[] {100, 500});
+        builder.addTrip("1", new int[] {a, b}, new int[] {200, 1100}, new int[] {200, 1100});
+
+        assertEquals(2, builder.build().getRouteCount());
+    }
+
+    @Test
+    public void testParetoJourneys() throws PathNotFoundException {
+        Timetable timetable = createTimetable();
+        List<Journey> journeys = RaptorRouter.computeParetoJourneys(timetable,
+                new int[] {timetable.indexOfStop("A")}, new int[] {timetable.indexOfStop("D")}, 8 * 3600, 3);
+
+        // the direct 8:00 trip arrives at 8:30, changing at B for the 8:15 trip arrives at 8:20
+        assertEquals(2, journeys.size());
+        assertEquals(8 * 3600 + 1800, journeys.get(0).arrivalTime());
+        assertEquals(1, journeys.get(0).legs().size());
+        assertEquals(8 * 3600 + 1200, journeys.get(1).arrivalTime());
+        assertEquals(1, journeys.get(1).getTransferCount());
+        assertEquals("2", timetable.getTripLine(journeys.get(1).legs().get(1).trip()));
+
+        List<Journey> direct = RaptorRouter.computeParetoJourneys(timetable,
+                new int[] {timetable.indexOfStop("A")}, new int[] {timetable.indexOfStop("D")}, 8 * 3600, 0);
+        assertEquals(1, direct.size());
+        assertEquals(8 * 3600 + 1800, direct.get(0).arrivalTime());
+    }
+
+    @Test
+    public void testSourceIsTarget() throws PathNotFoundException {
+        Timetable timetable = createTimetable();
+        List<Journey> journeys = RaptorRouter.computeParetoJourneys(timetable,
+                new int[] {timetable.indexOfStop("B")}, new int[] {timetable.indexOfStop("B")}, 12 * 3600, 2);
+
+        assertEquals(1, journeys.size());
+        assertTrue(journeys.get(0).legs().isEmpty());
+    }
+
+    @Test
+    public void testNoJourney() {
+        Timetable timetable = createTimetable();
+        int a = timetable.indexOfStop("A");
+        int d = timetable.indexOfStop("D");
+
+        assertThrows(PathNotFoundException.class,
+                () -> RaptorRouter.computeParetoJourneys(timetable, new int[] {d}, new int[] {a}, 8 * 3600, 2));
+        assertThrows(PathNotFoundException.class,
+                () -> RaptorRouter.computeParetoJourneys(timetable, new int[] {a}, new int[] {d}, 10 * 3600, 2));
+    }
+
+    @Test
+    public void testSameArrivalsAsNaiveRounds() throws PathNotFoundException {
+        Random random = new Random(11);
+        for (int round = 0; round < 40; round++) {
+            Timetable timetable = round % 2 == 0
+                    ? ConnectionScanRouterTest.createRandomTimetable(random, 12, 40)
+                    : createRandomLines(random, 15, 6);
+            int stopCount = timetable.getStopCount();
+            int source = random.nextInt(stopCount);
+            int departure = random.nextInt(3600);
+            int maxTrips = 4;
+            int[][] expected = computeArrivalsByRounds(timetable, source, departure, maxTrips);
+
+            for (int target = 0; target < stopCount; target++) {
+                int stop = target;
+                if (expected[maxTrips][target] == Integer.MAX_VALUE) {
+                    assertThrows(PathNotFoundException.class, () -> RaptorRouter.computeParetoJourneys(
+                            timetable, new int[] {source}, new int[] {stop}, departure, maxTrips - 1));
+                    continue;
+                }
+
+                List<Journey> journeys = RaptorRouter.computeParetoJourneys(timetable,
+                        new int[] {source}, new int[] {target}, departure, maxTrips - 1);
+
+                // the best arrival with at most k trips is the one of the last journey with at most k trips
+                for (int trips = 0; trips <= maxTrips; trips++) {
+                    int best = Integer.MAX_VALUE;
+                    for (Journey journey : journeys) {
+                        if (countTrips(journey) <= trips) best = Math.min(best, journey.arrivalTime());
+                    }
+                    assertEquals(expected[trips][target], best);
+                }
+                for (int i = 1; i < journeys.size(); i++) {
+                    assertTrue(journeys.get(i).arrivalTime() < journeys.get(i - 1).arrivalTime());
+                    assertTrue(countTrips(journeys.get(i)) > countTrips(journeys.get(i - 1)));
+                }
+                for (Journey journey : journeys) {
+                    assertConsistent(timetable, journey, source, target, departure);
+                }
+
+                // with enough trips, the last journey arrives as early as possible
+                if (Arrays.equals(expected[maxTrips], expected[maxTrips - 1])) {
+                    assertEquals(ConnectionScanRouter.computeEarliestArrival(timetable,
+                            new int[] {source}, new int[] {target}, departure).arrivalTime(),
+                            journeys.get(journeys.size() - 1).arrivalTime());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testProfile() throws PathNotFoundException {
+        Timetable timetable = createTimetable();
+        List<Journey> journeys = RaptorRouter.computeProfile(timetable,
+                new int[] {timetable.indexOfStop("A")}, new int[] {timetable.indexOfStop("D")}, 8 * 3600, 8 * 3600 + 1800, 3);
+
+        // every trip of line 1 leaving A between 8:00 and 8:30, and the change at B for the 8:45 trip
+        assertEquals(List.of(8 * 3600, 8 * 3600, 8 * 3600 + 600, 8 * 3600 + 1200, 8 * 3600 + 1800, 8 * 3600 + 1800),
+                journeys.stream().map(Journey::departureTime).toList());
+        assertEquals(List.of(8 * 3600 + 1800, 8 * 3600 + 1200, 8 * 3600 + 2400, 8 * 3600 + 3000, 8 * 3600 + 3600, 8 * 3600 + 3000),
+                journeys.stream().map(Journey::arrivalTime).toList());
+    }
+
+    @Test
+    public void testSameProfileAsSeparateQueries() throws PathNotFoundException {
+        Random random = new Random(13);
+        for (int round = 0; round < 30; round++) {
+            Timetable timetable = round % 2 == 0
+                    ? ConnectionScanRouterTest.createRandomTimetable(random, 12, 40)
+                    : createRandomLines(random, 15, 6);
+            int stopCount = timetable.getStopCount();
+            int source = random.nextInt(stopCount);
+            int earliest = random.nextInt(1800);
+            int latest = earliest + random.nextInt(1800);
+
+            for (int target = 0; target < stopCount; target++) {
+                Set<List<Integer>> expected = computeProfileBySeparateQueries(timetable, source, target, earliest, latest);
+                if (expected.isEmpty()) {
+                    int stop = target;
+                    assertThrows(PathNotFoundException.class, () -> RaptorRouter.computeProfile(
+                            timetable, new int[] {source}, new int[] {stop}, earliest, latest, 3));
+                    continue;
+                }
+
+                List<Journey> journeys = RaptorRouter.computeProfile(timetable,
+                        new int[] {source}, new int[] {target}, earliest, latest, 3);
+                Set<List<Integer>> actual = new HashSet<>();
+                for (Journey journey : journeys) {
+                    assertConsistent(timetable, journey, source, target, earliest);
+                    actual.add(List.of(journey.departureTime(), journey.arrivalTime(), countTrips(journey)));
+                }
+                assertEquals(journeys.size(), actual.size());
+                assertEquals(expected, actual);
+            }
+        }
+    }
+
+    /**
+     * The departure, arrival and number of trips of the journeys found by a query leaving at
+     * exactly each time a journey can leave in the window, but for the journeys without trips
+     * that only leave at the start of the window, without those that another journey leaving
+     * later, arriving earlier and with fewer trips dominates.
+     */
+    private static Set<List<Integer>> computeProfileBySeparateQueries(Timetable timetable, int source, int target,
+            int earliest, int latest) {
+
+        Set<Integer> departures = new TreeSet<>();
+        departures.add(earliest);
+        for (int position = 0; position < timetable.getFirstStopTime(timetable.getTripCount()); position++) {
+            departures.add(timetable.getStopTimeDeparture(position));
+            for (int footpath = 0; footpath < timetable.getFirstFootpath(timetable.getStopCount()); footpath++) {
+                departures.add(timetable.getStopTimeDeparture(position) - timetable.getFootpathDuration(footpath));
+            }
+        }
+
+        List<List<Integer>> candidates = new ArrayList<>();
+        for (int departure : departures) {
+            if ((departure < earliest) || (departure > latest)) continue;
+            try {
+                for (Journey journey : RaptorRouter.computeProfile(timetable,
+                        new int[] {source}, new int[] {target}, departure, departure, 3)) {
+                    int trips = countTrips(journey);
+                    if ((trips > 0) || (departure == earliest)) {
+                        candidates.add(List.of(journey.departureTime(), journey.arrivalTime(), trips));
+                    }
+                }
+            } catch (PathNotFoundException exception) {
+                // no journey at this time
+            }
+        }
+
+        Set<List<Integer>> profile = new HashSet<>();
+        for (List<Integer> candidate : candidates) {
+            boolean dominated = candidates.stream().anyMatch(other -> ! other.equals(candidate)
+                    && (other.get(0) >= candidate.get(0)) && (other.get(1) <= candidate.get(1))
+                    && (other.get(2) <= candidate.get(2)));
+            if (! dominated) profile.add(candidate);
+        }
+        return profile;
+    }
+
+    /**
+     * Lines through random stops, each with several trips of the same running times
+     * but for a slower one, and footpaths between random stops.
+     */
+    private static Timetable createRandomLines(Random random, int stopCount, int lineCount) {
+        Timetable.Builder builder = new Timetable.Builder();
+        for (int stop = 0; stop < stopCount; stop++) builder.addStop("s" + stop);
+        for (int line = 0; line < lineCount; line++) {
+            int[] stops = random.ints(0, stopCount).distinct().limit(3 + random.nextInt(4)).toArray();
+            int[] runningTimes = random.ints(stops.length, 60, 600).toArray();
+            for (int trip = 0; trip < 6; trip++) {
+                int time = random.nextInt(3600);
+                int[] times = new int[stops.length];
+                for (int i = 0; i < stops.length; i++) {
+                    times[i] = time;
+                    time += runningTimes[i] * ((trip == 5) ? 2 : 1);
+                }
+                builder.addTrip("l" + line, stops, times, times);
+            }
+        }
+        for (int i = 0; i < stopCount / 2; i++) {
+            builder.addFootpath(random.nextInt(stopCount), random.nextInt(stopCount), 30 + random.nextInt(300));
+        }
+        return builder.build();
+    }
+
+    /**
+     * The earliest arrival at each stop with at most k trips, for every k: in each round
+     * every trip is boarded wherever the previous round allows it, and a footpath is
+     * walked after each ride.
+     */
+    private static int[][] computeArrivalsByRounds(Timetable timetable, int source, int departure, int maxTrips) {
+        int stopCount = timetable.getStopCount();
+        int[][] arrival = new int[maxTrips + 1][stopCount];
+        int[] rideArrival = new int[stopCount];
+        Arrays.fill(arrival[0], Integer.MAX_VALUE);
+        Arrays.fill(rideArrival, Integer.MAX_VALUE);
+        arrival[0][source] = departure;
+        rideArrival[source] = departure;
+        walk(timetable, source, arrival[0], departure);
+
+        for (int k = 1; k <= maxTrips; k++) {
+            arrival[k] = arrival[k - 1].clone();
+            int[] previous = arrival[k - 1];
+            int[] rides = new int[stopCount];
+            Arrays.fill(rides, Integer.MAX_VALUE);
+            for (int trip = 0; trip < timetable.getTripCount(); trip++) {
+                boolean onBoard = false;
+                for (int position = timetable.getFirstStopTime(trip); position < timetable.getFirstStopTime(trip + 1); position++) {
+                    int stop = timetable.getStopTimeStop(position);
+                    if (onBoard) rides[stop] = Math.min(rides[stop], timetable.getStopTimeArrival(position));
+                    onBoard |= previous[stop] <= timetable.getStopTimeDeparture(position);
+                }
+            }
+            for (int stop = 0; stop < stopCount; stop++) {
+                if (rides[stop] < rideArrival[stop]) rideArrival[stop] = rides[stop];
+                arrival[k][stop] = Math.min(arrival[k][stop], rides[stop]);
+            }
+            for (int stop = 0; stop < stopCount; stop++) {
+                if (rides[stop] != Integer.MAX_VALUE) walk(timetable, stop, arrival[k], rides[stop]);
+            }
+        }
+        return arrival;
+    }
+
+    private static void walk(Timetable timetable, int stop, int[] arrival, int time) {
+        for (int position = timetable.getFirstFootpath(stop); position < timetable.getFootpathLimit(stop); position++) {
+            int target = timetable.getFootpathTarget(position);
+            arrival[target] = Math.min(arrival[target], time + timetable.getFootpathDuration(position));
+        }
+    }
+
+    private static int countTrips(Journey journey) {
+        return (int) journey.legs().stream().filter(leg -> ! leg.isWalking()).count();
+    }
+
+    /**
+     * Checks that the legs follow each other, and that each ride is on a trip through its two stops at its times.
+     */
+    private static void assertConsistent(Timetable timetable, Journey journey, int source, int target, int departure) {
+        int stop = source;
+        int time = departure;
+        for (JourneyLeg leg : journey.legs()) {
+            assertEquals(stop, leg.fromStop());
+            assertTrue(leg.departureTime() >= time);
+            assertTrue(leg.arrivalTime() >= leg.departureTime());
+            if (! leg.isWalking()) {
+                int from = -1;
+                int to = -1;
+                for (int position = timetable.getFirstStopTime(leg.trip()); position < timetable.getFirstStopTime(leg.trip() + 1); position++) {
+                    if ((from == -1) && (timetable.getStopTimeStop(position) == leg.fromStop())
+                            && (timetable.getStopTimeDeparture(position) == leg.departureTime())) from = position;
+                    if ((from != -1) && (timetable.getStopTimeStop(position) == leg.toStop())
+                            && (timetable.getStopTimeArrival(position) == leg.arrivalTime())) to = position;
+                }
+                assertTrue(from != -1 && to > from);
+            }
+            stop = leg.toStop();
+            time = leg.arrivalTime();
+        }
+        assertEquals(target, stop);
+        assertEquals(journey.arrivalTime(), time);
+    }
+}
@@ -0,0 +1,134 @@
+package fr.u_paris.gla.project.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.DijkstraPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.Graph;
+import fr.u_paris.gla.project.core.shortest_path_finder.INode;
+import fr.u_paris.gla.project.core.shortest_path_finder.Node;
+import fr.u_paris.gla.project.core.shortest_path_finder.NodeNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.PathNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingGraph;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingPath;
+
+/**
+ * Test class for {@link RoutingGraph}.
+ * It checks that the CSR snapshot of a graph keeps its arrows and that the
+ * shortest path search on the snapshot agrees with the one on the original graph.
+ *
+ * @version 1.0
+ *
+ * @see RoutingGraph
+ * @see DijkstraPathFinder
+ */
+public class RoutingGraphTest {
+
+    @Test
+    public void testSnapshotKeepsArrows() {
+        Graph graph = ShortestPathDijkstraFinderTestHelper.createTwoCycleGraph();
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+
+        assertEquals(4, routingGraph.getNodeCount());
+        assertEquals(7, routingGraph.getEdgeCount());
+
+        for (Node node : graph.getNodes()) {
+            int index = routingGraph.indexOf(node);
+            assertEquals(node, routingGraph.getNode(index));
+            assertEquals(node.getOutgoingArrows().size(),
+                    routingGraph.getEdgeLimit(index) - routingGraph.getFirstEdge(index));
+        }
+    }
+
+    @Test
+    public void testSameCostsAsGraphSearch() throws NodeNotFoundException, PathNotFoundException {
+        Graph graph = ShortestPathDijkstraFinderTestHelper.createTwoCycleGraph();
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+
+        for (Node source : graph.getNodes()) {
+            for (Node target : graph.getNodes()) {
+                RoutingPath path = DijkstraPathFinder.computeShortestPath(routingGraph,
+                        routingGraph.indexOf(source), routingGraph.indexOf(target));
+
+                assertEquals(DijkstraPathFinder.computeShortestPathCost(graph, source, target), path.getCost());
+                assertEquals(path.getCost(), DijkstraPathFinder.getPathCost(path.getNodes()));
+            }
+        }
+    }
+
+    @Test
+    public void testPath() throws NodeNotFoundException, PathNotFoundException {
+        Graph graph = ShortestPathDijkstraFinderTestHelper.createTwoCycleGraph();
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+
+        Node n3 = ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "n3");
+        Node n4 = ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "n4");
+
+        RoutingPath path = DijkstraPathFinder.computeShortestPath(routingGraph,
+                routingGraph.indexOf(n3), routingGraph.indexOf(n4));
+
+        List<INode> expectedPath = ShortestPathDijkstraFinderTestHelper.buildPath(graph, List.of("n3", "n2", "n4"));
+        assertEquals(expectedPath, path.getNodes());
+    }
+
+    @Test
+    public void testMultipleSourcesAndTargets() throws NodeNotFoundException, PathNotFoundException {
+        Graph graph = ShortestPathDijkstraFinderTestHelper.createTwoCycleGraph();
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+
+        int[] sources = indicesOf(graph, routingGraph, "n3", "n4");
+        int[] targets = indicesOf(graph, routingGraph, "n1", "n2");
+
+        RoutingPath path = DijkstraPathFinder.computeShortestPath(routingGraph, sources, targets);
+
+        assertEquals(3, path.getCost());
+        assertEquals(ShortestPathDijkstraFinderTestHelper.buildPath(graph, List.of("n3", "n2")), path.getNodes());
+    }
+
+    @Test
+    public void testRepeatedSearchesOnDifferentGraphs() throws NodeNotFoundException, PathNotFoundException {
+        // the searches of a thread share their arrays, which must not keep anything from a search to the next
+        RoutingGraph twoCycles = RoutingGraph.fromGraph(ShortestPathDijkstraFinderTestHelper.createTwoCycleGraph());
+        RoutingGraph fiveNodes = RoutingGraph.fromGraph(ShortestPathDijkstraFinderTestHelper.createGraphWithFiveNodes());
+        RoutingPath first = DijkstraPathFinder.computeShortestPath(twoCycles, 0, 1);
+        RoutingPath second = DijkstraPathFinder.computeShortestPath(fiveNodes, 0, 1);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(first.getCost(), DijkstraPathFinder.computeShortestPath(twoCycles, 0, 1).getCost());
+            assertEquals(second.getCost(), DijkstraPathFinder.computeShortestPath(fiveNodes, 0, 1).getCost());
+            assertEquals(first.size(), DijkstraPathFinder.computeShortestPath(twoCycles, 0, 1).size());
+        }
+    }
+
+    @Test
+    public void testUnreachableTarget() throws NodeNotFoundException {
+        Graph graph = ShortestPathDijkstraFinderTestHelper.createDisconnectedGraph();
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+
+        int source = routingGraph.indexOf(ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "Source"));
+        int isolated = routingGraph.indexOf(ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "Isolated"));
+
+        assertThrows(PathNotFoundException.class,
+                () -> DijkstraPathFinder.computeShortestPath(routingGraph, source, isolated));
+    }
+
+    @Test
+    public void testUnknownNodeIndex() {
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(ShortestPathDijkstraFinderTestHelper.createSimpleGraph());
+
+        assertThrows(NodeNotFoundException.class,
+                () -> DijkstraPathFinder.computeShortestPath(routingGraph, 0, 3));
+    }
+
+    private static int[] indicesOf(Graph graph, RoutingGraph routingGraph, String... names) throws NodeNotFoundException {
+        int[] indices = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            indices[i] = routingGraph.indexOf(ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, names[i]));
+        }
+        return indices;
+    }
+}
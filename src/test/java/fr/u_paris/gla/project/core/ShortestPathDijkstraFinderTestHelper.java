@@ -1,12 +1,20 @@
 package fr.u_paris.gla.project.core;
 
+import fr.u_paris.gla.project.core.shortest_path_finder.DijkstraPathFinder;
 import fr.u_paris.gla.project.core.shortest_path_finder.Node;
 import fr.u_paris.gla.project.core.shortest_path_finder.NodeNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.PathNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingGraph;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingPath;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
 import fr.u_paris.gla.project.core.shortest_path_finder.Graph;
 import fr.u_paris.gla.project.core.shortest_path_finder.INode;
@@ -240,5 +248,93 @@ class ShortestPathDijkstraFinderTestHelper {
         return graph;
     }
 
+    /**
+     * Creates a random graph, with at most one arrow between two nodes, as the cost of a path
+     * is read from the first arrow found, and no arrow from a node to itself.
+     *
+     * @param seed the seed of the random generator
+     * @param nodeCount the number of nodes
+     * @param arrowCount the number of arrows drawn, the ones already drawn being skipped
+     * @param minCost the lowest cost of an arrow
+     * @param maxCost the highest cost of an arrow
+     * @return A random {@link Graph} instance.
+     */
+    public static Graph createRandomGraph(long seed, int nodeCount, int arrowCount, int minCost, int maxCost) {
+        return createRandomGraph(new Random(seed), nodeCount, arrowCount, minCost, maxCost);
+    }
+
+    /**
+     * Creates a random graph like {@link #createRandomGraph(long, int, int, int, int)}, with a random
+     * generator shared with the rest of the test.
+     */
+    public static Graph createRandomGraph(Random random, int nodeCount, int arrowCount, int minCost, int maxCost) {
+        Graph graph = new Graph();
+        Node[] nodes = new Node[nodeCount];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new Node("r" + i);
+            graph.addNode(nodes[i]);
+        }
+        boolean[][] connected = new boolean[nodes.length][nodes.length];
+        for (int i = 0; i < arrowCount; i++) {
+            int from = random.nextInt(nodes.length);
+            int to = random.nextInt(nodes.length);
+            if (from != to && !connected[from][to]) {
+                connected[from][to] = true;
+                nodes[from].addOutgoing(nodes[to], minCost + random.nextInt(maxCost - minCost + 1));
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Finds a shortest path between two nodes of a routing graph, with the algorithm under test.
+     */
+    @FunctionalInterface
+    interface RoutingPathFinder {
+        RoutingPath computeShortestPath(int source, int target) throws NodeNotFoundException, PathNotFoundException;
+    }
+
+    /**
+     * Checks that an algorithm finds, between every two nodes of a routing graph, a path of the
+     * same cost as Dijkstra's algorithm, made of arrows of the graph, or no path when there is none.
+     *
+     * @param routingGraph the routing graph
+     * @param pathFinder the algorithm under test
+     * @throws NodeNotFoundException
+     */
+    public static void assertSameCostsAsDijkstra(RoutingGraph routingGraph, RoutingPathFinder pathFinder)
+            throws NodeNotFoundException {
+        assertSameCostsAsDijkstra(routingGraph, pathFinder, false);
+    }
+
+    /**
+     * Checks the paths of an algorithm like {@link #assertSameCostsAsDijkstra(RoutingGraph, RoutingPathFinder)},
+     * and that they have as many nodes as the ones of Dijkstra's algorithm if sameSizes is true.
+     * Two shortest paths can have different sizes when some arrows cost nothing.
+     */
+    public static void assertSameCostsAsDijkstra(RoutingGraph routingGraph, RoutingPathFinder pathFinder,
+            boolean sameSizes) throws NodeNotFoundException {
+        for (int source = 0; source < routingGraph.getNodeCount(); source++) {
+            for (int target = 0; target < routingGraph.getNodeCount(); target++) {
+                int from = source;
+                int to = target;
+                try {
+                    RoutingPath expected = DijkstraPathFinder.computeShortestPath(routingGraph, from, to);
+                    RoutingPath path = pathFinder.computeShortestPath(from, to);
+
+                    assertEquals(expected.getCost(), path.getCost());
+                    if (sameSizes) {
+                        assertEquals(expected.size(), path.size());
+                    }
+                    assertEquals(from, path.getSource());
+                    assertEquals(to, path.getTarget());
+                    assertEquals(path.getCost(), DijkstraPathFinder.getPathCost(path.getNodes()));
+                } catch (PathNotFoundException exception) {
+                    assertThrows(PathNotFoundException.class, () -> pathFinder.computeShortestPath(from, to));
+                }
+            }
+        }
+    }
+
     
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package fr.u_paris.gla.project.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.DijkstraPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.Graph;
+import fr.u_paris.gla.project.core.shortest_path_finder.NodeNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.PathNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingGraph;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingPath;
+import fr.u_paris.gla.project.core.shortest_path_finder.ShortestPathTree;
+
+/**
+ * Test class for {@link ShortestPathTree}.
+ * It checks that a search with no target gives every node the cost of a point
+ * to point search, and that the cost bound stops the search.
+ *
+ * @version 1.0
+ *
+ * @see ShortestPathTree
+ * @see DijkstraPathFinder
+ */
+public class ShortestPathTreeTest {
+
+    @Test
+    public void testSameCostsAsPointQueries() throws NodeNotFoundException {
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createTwoCycleGraph());
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createGraphWithVaryingWeightPaths());
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createGraphWithLoopsAndDeadEnds());
+        assertSameCosts(ShortestPathDijkstraFinderTestHelper.createDisconnectedGraph());
+    }
+
+    @Test
+    public void testPath() throws NodeNotFoundException, PathNotFoundException {
+        Graph graph = ShortestPathDijkstraFinderTestHelper.createTwoCycleGraph();
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+
+        int n3 = routingGraph.indexOf(ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "n3"));
+        int n4 = routingGraph.indexOf(ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "n4"));
+
+        ShortestPathTree tree = DijkstraPathFinder.computeShortestPathTree(routingGraph, new int[] {n3});
+
+        assertEquals(ShortestPathDijkstraFinderTestHelper.buildPath(graph, List.of("n3", "n2", "n4")),
+                tree.getPath(n4).getNodes());
+        assertEquals(-1, tree.getParent(n3));
+    }
+
+    @Test
+    public void testMaxCost() throws NodeNotFoundException {
+        Graph graph = ShortestPathDijkstraFinderTestHelper.createGraphWithVaryingWeightPaths();
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+        ShortestPathTree full = DijkstraPathFinder.computeShortestPathTree(routingGraph, new int[] {0});
+
+        for (int maxCost = 0; maxCost < 20; maxCost++) {
+            ShortestPathTree tree = DijkstraPathFinder.computeShortestPathTree(routingGraph, new int[] {0}, maxCost);
+            for (int node = 0; node < routingGraph.getNodeCount(); node++) {
+                if (full.getDistance(node) <= maxCost) {
+                    assertEquals(full.getDistance(node), tree.getDistance(node));
+                } else {
+                    assertFalse(tree.isReached(node));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUnreachedNode() throws NodeNotFoundException {
+        Graph graph = ShortestPathDijkstraFinderTestHelper.createDisconnectedGraph();
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+
+        int source = routingGraph.indexOf(ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "Source"));
+        int isolated = routingGraph.indexOf(ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "Isolated"));
+
+        ShortestPathTree tree = DijkstraPathFinder.computeShortestPathTree(routingGraph, new int[] {source});
+
+        assertTrue(tree.isReached(source));
+        assertFalse(tree.isReached(isolated));
+        assertThrows(PathNotFoundException.class, () -> tree.getPath(isolated));
+    }
+
+    private static void assertSameCosts(Graph graph) throws NodeNotFoundException {
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+
+        ShortestPathDijkstraFinderTestHelper.assertSameCostsAsDijkstra(routingGraph, (source, target) -> {
+            ShortestPathTree tree = DijkstraPathFinder.computeShortestPathTree(routingGraph, new int[] {source});
+            RoutingPath path = tree.getPath(target);
+
+            assertTrue(tree.isReached(target));
+            assertEquals(path.getCost(), tree.getDistance(target));
+            return path;
+        }, true);
+    }
+}
@@ -0,0 +1,140 @@
+package fr.u_paris.gla.project.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.BidirectionalDijkstraPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.DijkstraPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.Node;
+import fr.u_paris.gla.project.core.shortest_path_finder.PathNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingGraph;
+import fr.u_paris.gla.project.core.shortest_path_finder.StronglyConnectedComponents;
+
+/**
+ * Test class for {@link StronglyConnectedComponents}.
+ * It compares the components with the nodes reached by a breadth-first search on
+ * small random graphs, and checks that the searches reject unreachable targets.
+ *
+ * @version 1.0
+ *
+ * @see StronglyConnectedComponents
+ * @see RoutingGraph#getComponents()
+ */
+public class StronglyConnectedComponentsTest {
+
+    @Test
+    public void testSameReachabilityAsSearch() {
+        Random random = new Random(11);
+        for (int trial = 0; trial < 50; trial++) {
+            int nodeCount = 2 + random.nextInt(12);
+            RoutingGraph graph = createRandomGraph(random, nodeCount, random.nextInt(2 * nodeCount));
+            StronglyConnectedComponents components = graph.getComponents();
+
+            boolean[][] reachable = new boolean[nodeCount][];
+            for (int node = 0; node < nodeCount; node++) {
+                reachable[node] = reachableFrom(graph, node);
+            }
+            for (int from = 0; from < nodeCount; from++) {
+                for (int to = 0; to < nodeCount; to++) {
+                    assertEquals(reachable[from][to] && reachable[to][from], components.isStronglyConnected(from, to));
+                    if (reachable[from][to]) {
+                        assertTrue(components.mayReach(from, to));
+                    }
+                    if (reachable[from][to] || reachable[to][from]) {
+                        assertEquals(components.getWeakComponent(from), components.getWeakComponent(to));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTwoWayLine() {
+        RoutingGraph.Builder builder = new RoutingGraph.Builder();
+        for (int i = 0; i < 4; i++) {
+            builder.addNode(new Node("n" + i));
+        }
+        // n0 <-> n1 -> n2 <-> n3
+        builder.addArc(0, 1, 1);
+        builder.addArc(1, 0, 1);
+        builder.addArc(1, 2, 1);
+        builder.addArc(2, 3, 1);
+        builder.addArc(3, 2, 1);
+        StronglyConnectedComponents components = builder.build().getComponents();
+
+        assertEquals(2, components.getComponentCount());
+        assertEquals(1, components.getWeakComponentCount());
+        assertTrue(components.mayReach(0, 3));
+        assertFalse(components.mayReach(3, 0));
+        assertFalse(components.mayReach(new int[]{2, 3}, new int[]{0, 1}));
+    }
+
+    @Test
+    public void testLongChain() {
+        // the depth-first search does not recurse, so a long line does not overflow the stack
+        int nodeCount = 200_000;
+        RoutingGraph.Builder builder = new RoutingGraph.Builder();
+        for (int i = 0; i < nodeCount; i++) {
+            builder.addNode(new Node("n" + i));
+        }
+        for (int i = 0; i + 1 < nodeCount; i++) {
+            builder.addArc(i, i + 1, 1);
+        }
+        StronglyConnectedComponents components = builder.build().getComponents();
+
+        assertEquals(nodeCount, components.getComponentCount());
+        assertTrue(components.mayReach(0, nodeCount - 1));
+        assertFalse(components.mayReach(nodeCount - 1, 0));
+    }
+
+    @Test
+    public void testSearchesRejectUnreachableTargets() {
+        RoutingGraph.Builder builder = new RoutingGraph.Builder();
+        for (int i = 0; i < 3; i++) {
+            builder.addNode(new Node("n" + i));
+        }
+        builder.addArc(0, 1, 1);
+        RoutingGraph graph = builder.build();
+
+        assertThrows(PathNotFoundException.class, () -> DijkstraPathFinder.computeShortestPath(graph, 1, 0));
+        assertThrows(PathNotFoundException.class, () -> DijkstraPathFinder.computeShortestPath(graph, 0, 2));
+        assertThrows(PathNotFoundException.class,
+                () -> BidirectionalDijkstraPathFinder.computeShortestPath(graph, new int[]{1}, new int[]{0}));
+    }
+
+    private static boolean[] reachableFrom(RoutingGraph graph, int source) {
+        boolean[] reached = new boolean[graph.getNodeCount()];
+        Deque<Integer> queue = new ArrayDeque<>();
+        reached[source] = true;
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int edge = graph.getFirstEdge(node); edge < graph.getEdgeLimit(node); edge++) {
+                if (!reached[graph.getTarget(edge)]) {
+                    reached[graph.getTarget(edge)] = true;
+                    queue.add(graph.getTarget(edge));
+                }
+            }
+        }
+        return reached;
+    }
+
+    private static RoutingGraph createRandomGraph(Random random, int nodeCount, int arrowCount) {
+        RoutingGraph.Builder builder = new RoutingGraph.Builder();
+        for (int i = 0; i < nodeCount; i++) {
+            builder.addNode(new Node("n" + i));
+        }
+        for (int i = 0; i < arrowCount; i++) {
+            builder.addArc(random.nextInt(nodeCount), random.nextInt(nodeCount), 1 + random.nextInt(10));
+        }
+        return builder.build();
+    }
+}
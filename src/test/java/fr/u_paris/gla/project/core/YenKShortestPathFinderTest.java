@@ -0,0 +1,164 @@
+package fr.u_paris.gla.project.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.DijkstraPathFinder;
+import fr.u_paris.gla.project.core.shortest_path_finder.Graph;
+import fr.u_paris.gla.project.core.shortest_path_finder.INode;
+import fr.u_paris.gla.project.core.shortest_path_finder.Node;
+import fr.u_paris.gla.project.core.shortest_path_finder.NodeNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.PathNotFoundException;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingGraph;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingPath;
+import fr.u_paris.gla.project.core.shortest_path_finder.YenKShortestPathFinder;
+
+/**
+ * Test class for {@link YenKShortestPathFinder}.
+ * It checks the costs of the k shortest paths against all the loopless paths
+ * of small graphs, and that the paths are distinct and loopless.
+ *
+ * @version 1.0
+ *
+ * @see YenKShortestPathFinder
+ */
+public class YenKShortestPathFinderTest {
+
+    @Test
+    public void testFirstPathIsShortest() throws NodeNotFoundException, PathNotFoundException {
+        Graph graph = ShortestPathDijkstraFinderTestHelper.createTwoCycleGraph();
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+
+        for (int source = 0; source < routingGraph.getNodeCount(); source++) {
+            for (int target = 0; target < routingGraph.getNodeCount(); target++) {
+                List<RoutingPath> paths = YenKShortestPathFinder.computeShortestPaths(routingGraph,
+                        new int[] {source}, new int[] {target}, 3);
+                assertEquals(DijkstraPathFinder.computeShortestPath(routingGraph, source, target).getCost(),
+                        paths.get(0).getCost());
+            }
+        }
+    }
+
+    @Test
+    public void testAllLooplessPathsOnRandomGraphs() throws NodeNotFoundException, PathNotFoundException {
+        Random random = new Random(3);
+        for (int round = 0; round < 20; round++) {
+            Graph graph = ShortestPathDijkstraFinderTestHelper.createRandomGraph(random, 9, 24, 1, 20);
+            RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+            int[] sources = {random.nextInt(9)};
+            int[] targets = {random.nextInt(9)};
+
+            List<Integer> expected = new ArrayList<>();
+            enumerateCosts(routingGraph, sources[0], targets[0], new HashSet<>(), 0, expected);
+            expected.sort(null);
+            if (expected.isEmpty()) {
+                assertThrows(PathNotFoundException.class,
+                        () -> YenKShortestPathFinder.computeShortestPaths(routingGraph, sources, targets, 5));
+                continue;
+            }
+
+            List<RoutingPath> paths = YenKShortestPathFinder.computeShortestPaths(routingGraph, sources, targets, 5);
+            assertEquals(Math.min(5, expected.size()), paths.size());
+            Set<List<INode>> distinct = new HashSet<>();
+            for (int i = 0; i < paths.size(); i++) {
+                RoutingPath path = paths.get(i);
+                assertEquals(expected.get(i), path.getCost());
+                assertEquals(path.getCost(), DijkstraPathFinder.getPathCost(path.getNodes()));
+                assertEquals(path.size(), new HashSet<>(path.getNodes()).size());
+                distinct.add(new ArrayList<>(path.getNodes()));
+            }
+            assertEquals(paths.size(), distinct.size());
+        }
+    }
+
+    @Test
+    public void testMultipleSources() throws NodeNotFoundException, PathNotFoundException {
+        Graph graph = ShortestPathDijkstraFinderTestHelper.createTwoCycleGraph();
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(graph);
+
+        int n1 = routingGraph.indexOf(ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "n1"));
+        int n2 = routingGraph.indexOf(ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "n2"));
+        int n4 = routingGraph.indexOf(ShortestPathDijkstraFinderTestHelper.findNodeFromName(graph, "n4"));
+
+        List<RoutingPath> paths = YenKShortestPathFinder.computeShortestPaths(routingGraph,
+                new int[] {n1, n2}, new int[] {n4}, 10);
+
+        // the paths start from either source, and never go through the other one
+        Set<Integer> starts = new HashSet<>();
+        for (int i = 0; i < paths.size(); i++) {
+            RoutingPath path = paths.get(i);
+            starts.add(path.getSource());
+            if (i > 0) assertTrue(path.getCost() >= paths.get(i - 1).getCost());
+            for (int position = 1; position < path.size(); position++) {
+                assertNotEquals(n1, path.getNodeIndex(position));
+                assertNotEquals(n2, path.getNodeIndex(position));
+            }
+        }
+        assertEquals(3, paths.size());
+        assertEquals(1, paths.get(0).getCost());
+        assertEquals(Set.of(n1, n2), starts);
+    }
+
+    @Test
+    public void testDistinctGroups() throws NodeNotFoundException, PathNotFoundException {
+        // two stations of two nodes each, one per line, and a third station reached by both lines
+        RoutingGraph.Builder builder = new RoutingGraph.Builder();
+        int a1 = builder.addNode(new Node("A1"));
+        int a2 = builder.addNode(new Node("A2"));
+        int b1 = builder.addNode(new Node("B1"));
+        int b2 = builder.addNode(new Node("B2"));
+        int c = builder.addNode(new Node("C"));
+        builder.addArc(a1, b1, 5);
+        builder.addArc(a2, b2, 6);
+        builder.addArc(a1, a2, 1);
+        builder.addArc(b1, b2, 1);
+        builder.addArc(b1, c, 5);
+        builder.addArc(b2, c, 5);
+        builder.addArc(a1, c, 20);
+        RoutingGraph routingGraph = builder.build();
+        int[] groups = {0, 0, 1, 1, 2};
+
+        List<RoutingPath> all = YenKShortestPathFinder.computeShortestPaths(routingGraph,
+                new int[] {a1}, new int[] {c}, 10);
+        List<RoutingPath> distinct = YenKShortestPathFinder.computeShortestPaths(routingGraph,
+                new int[] {a1}, new int[] {c}, 10, groups);
+
+        assertEquals(4, all.size());
+        assertEquals(2, distinct.size());
+        assertEquals(10, distinct.get(0).getCost());
+        assertEquals(20, distinct.get(1).getCost());
+    }
+
+    @Test
+    public void testInvalidK() {
+        RoutingGraph routingGraph = RoutingGraph.fromGraph(ShortestPathDijkstraFinderTestHelper.createSimpleGraph());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> YenKShortestPathFinder.computeShortestPaths(routingGraph, new int[] {0}, new int[] {1}, 0));
+    }
+
+    private static void enumerateCosts(RoutingGraph graph, int node, int target, Set<Integer> visited, int cost,
+                                       List<Integer> costs) {
+        if (node == target) {
+            costs.add(cost);
+            return;
+        }
+        visited.add(node);
+        for (int edge = graph.getFirstEdge(node); edge < graph.getEdgeLimit(node); edge++) {
+            if (!visited.contains(graph.getTarget(edge))) {
+                enumerateCosts(graph, graph.getTarget(edge), target, visited, cost + graph.getCost(edge), costs);
+            }
+        }
+        visited.remove(node);
+    }
+}
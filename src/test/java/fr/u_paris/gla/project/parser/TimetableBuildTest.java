@@ -0,0 +1,97 @@
+package fr.u_paris.gla.project.parser;
+
+import fr.u_paris.gla.project.core.timetable.Timetable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test class for {@link CSVNetworkParser#buildTimetable(double, double)}.
+ * It checks that the trips of the schedule follow the segments of their line,
+ * choosing the branches from their trip sequence, and that nearby stations
+ * are joined by footpaths.
+ *
+ * @version 1.0
+ *
+ * @see CSVNetworkParser
+ * @see Timetable
+ */
+class TimetableBuildTest {
+    private Timetable timetable;
+
+    /**
+     * Line L goes A, B, then forks towards C or D, and comes back from C to A:
+     * coming from C, the trips can go on from B to D or to A.
+     * E is about 100 m away from D, F is far from everything.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        Path directory = Files.createTempDirectory("timetable");
+        directory.toFile().deleteOnExit();
+        Path network = directory.resolve("network.csv");
+        Files.writeString(network, String.join("\n",
+                "L;0;A;48.80,2.30;B;48.81,2.30;02:00;1.1",
+                "L;0;B;48.81,2.30;C;48.82,2.30;03:00;1.1",
+                "L;1;B;48.81,2.30;D;48.81,2.32;04:00;1.5",
+                "L;2;C;48.82,2.30;B;48.81,2.30;03:00;1.1",
+                "L;2;B;48.81,2.30;A;48.80,2.30;02:00;1.1",
+                "M;0;E;48.8109,2.32;F;48.90,2.40;10:00;9.0"));
+        Path schedule = directory.resolve("schedule.csv");
+        Files.writeString(schedule, String.join("\n",
+                "L; [1]; A; 7:00;",
+                "L; [2]; A; 7:30;",
+                "L; [2]; C; 8:00;",
+                "L; [3]; A; 9:00;",
+                "X; [1]; A; 9:00;"));
+
+        CSVNetworkParser parser = new CSVNetworkParser(network.toString(), schedule.toString());
+        parser.parseNetworkCSV().parseScheduleCSV();
+        timetable = parser.buildTimetable(0.5, 5.1);
+
+        Files.delete(network);
+        Files.delete(schedule);
+    }
+
+    @Test
+    void testTripsFollowTheirBranch() {
+        // the trips with an unknown branch or line are left out
+        assertEquals(3, timetable.getTripCount());
+        assertEquals(List.of("A", "B", "C"), stopsOf(0));
+        assertEquals(List.of("A", "B", "D"), stopsOf(1));
+        assertEquals(List.of("C", "B", "A"), stopsOf(2));
+    }
+
+    @Test
+    void testTripTimes() {
+        int first = timetable.getFirstStopTime(1);
+        assertEquals(7 * 3600 + 1800, timetable.getStopTimeDeparture(first));
+        assertEquals(7 * 3600 + 1800 + 120, timetable.getStopTimeArrival(first + 1));
+        assertEquals(7 * 3600 + 1800 + 360, timetable.getStopTimeArrival(first + 2));
+        assertEquals(4, timetable.getConnectionCount() - 2);
+    }
+
+    @Test
+    void testFootpaths() {
+        int d = timetable.indexOfStop("D");
+        int e = timetable.indexOfStop("E");
+        assertEquals(1, timetable.getFootpathLimit(d) - timetable.getFirstFootpath(d));
+        assertEquals(e, timetable.getFootpathTarget(timetable.getFirstFootpath(d)));
+        int f = timetable.indexOfStop("F");
+        assertEquals(0, timetable.getFootpathLimit(f) - timetable.getFirstFootpath(f));
+    }
+
+    private List<String> stopsOf(int trip) {
+        List<String> stops = new ArrayList<>();
+        for (int position = timetable.getFirstStopTime(trip); position < timetable.getFirstStopTime(trip + 1); position++) {
+            stops.add(timetable.getStopName(timetable.getStopTimeStop(position)));
+        }
+        return stops;
+    }
+}
@@ -0,0 +1,87 @@
+package fr.u_paris.gla.project.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import fr.u_paris.gla.project.core.shortest_path_finder.ContractionHierarchy;
+import fr.u_paris.gla.project.core.shortest_path_finder.Node;
+import fr.u_paris.gla.project.core.shortest_path_finder.RoutingGraph;
+
+/**
+ * Test class for {@link RoutingSnapshot}.
+ * It checks that a snapshot replaced by a newer version is only released once
+ * the queries that acquired it are over, and cannot be acquired anymore afterwards.
+ *
+ * @version 1.0
+ *
+ * @see RoutingSnapshot
+ * @see GraphService
+ */
+public class RoutingSnapshotTest {
+
+    @Test
+    public void testAcquireAfterRelease() {
+        CompletableFuture<ContractionHierarchy> contractionHierarchy = new CompletableFuture<>();
+        RoutingSnapshot snapshot = createSnapshot(contractionHierarchy);
+
+        assertTrue(snapshot.acquire());
+        snapshot.release();
+        snapshot.retire();
+
+        assertTrue(contractionHierarchy.isCancelled());
+        assertFalse(snapshot.acquire());
+    }
+
+    @Test
+    public void testRetireWaitsForLastRelease() {
+        CompletableFuture<ContractionHierarchy> contractionHierarchy = new CompletableFuture<>();
+        RoutingSnapshot snapshot = createSnapshot(contractionHierarchy);
+
+        assertTrue(snapshot.acquire());
+        assertTrue(snapshot.acquire());
+        snapshot.retire();
+
+        // still used by two queries: a query that looked the snapshot up before the swap can still acquire it
+        assertFalse(contractionHierarchy.isCancelled());
+        assertTrue(snapshot.acquire());
+        snapshot.release();
+        snapshot.release();
+        assertFalse(contractionHierarchy.isCancelled());
+
+        snapshot.release();
+        assertTrue(contractionHierarchy.isCancelled());
+        assertFalse(snapshot.acquire());
+    }
+
+    @Test
+    public void testNotReleasedUntilRetired() {
+        CompletableFuture<ContractionHierarchy> contractionHierarchy = new CompletableFuture<>();
+        RoutingSnapshot snapshot = createSnapshot(contractionHierarchy);
+
+        // the current version stays usable when no query uses it
+        assertTrue(snapshot.acquire());
+        snapshot.release();
+
+        assertFalse(contractionHierarchy.isCancelled());
+        assertTrue(snapshot.acquire());
+    }
+
+    private static RoutingSnapshot createSnapshot(CompletableFuture<ContractionHierarchy> contractionHierarchy) {
+        RoutingGraph.Builder builder = new RoutingGraph.Builder();
+        int a = builder.addNode(new Node("A"));
+        int b = builder.addNode(new Node("B"));
+        int c = builder.addNode(new Node("C"));
+        builder.addArc(a, b, 2);
+        builder.addArc(b, c, 3);
+        builder.addArc(c, a, 4);
+        RoutingGraph routingGraph = builder.build();
+
+        return new RoutingSnapshot(1, 1, routingGraph, Map.of(1, new int[] {a, b}, 2, new int[] {c}),
+                new int[routingGraph.getEdgeCount()], contractionHierarchy, null, Map.of());
+    }
+}
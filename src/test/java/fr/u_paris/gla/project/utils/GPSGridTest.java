@@ -0,0 +1,59 @@
+package fr.u_paris.gla.project.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test class for {@link GPSGrid}.
+ * It compares the neighbors found in the grid with the ones found by comparing
+ * every pair of positions, around Paris and further from the equator.
+ *
+ * @version 1.0
+ *
+ * @see GPSGrid
+ * @see GPS
+ */
+class GPSGridTest {
+
+    @Test
+    public void testSameNeighborsAsAllPairs() {
+        Random random = new Random(5);
+        for (double latitude : new double[]{48.85, 69.65, -33.9}) {
+            List<GPSCoordinates> positions = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                positions.add(new GPSCoordinates(latitude + 0.08 * random.nextDouble(), 2.35 + 0.12 * random.nextDouble()));
+            }
+            // a few positions at the same place, as the nodes of a station
+            positions.add(positions.get(0));
+            positions.add(positions.get(0));
+
+            GPSGrid grid = new GPSGrid(positions, 0.5);
+            for (int i = 0; i < positions.size(); i++) {
+                List<Integer> expected = new ArrayList<>();
+                for (int j = 0; j < positions.size(); j++) {
+                    if (j != i && grid.distance(i, j) <= 0.5) {
+                        expected.add(j);
+                    }
+                }
+                assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), grid.findNeighbors(i));
+            }
+        }
+    }
+
+    @Test
+    public void testDistance() {
+        GPSCoordinates first = new GPSCoordinates(48.80, 2.30);
+        GPSCoordinates second = new GPSCoordinates(48.81, 2.30);
+        GPSGrid grid = new GPSGrid(List.of(first, second), 2);
+
+        assertEquals(GPS.distance(48.80, 2.30, 48.81, 2.30), grid.distance(0, 1));
+        assertArrayEquals(new int[]{1}, grid.findNeighbors(0));
+        assertArrayEquals(new int[0], new GPSGrid(List.of(first, second), 1).findNeighbors(0));
+    }
+}